@@ -0,0 +1,116 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio.bench;
+
+import ij.ImagePlus;
+import ij.process.*;
+
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Sample images used by the benchmarks: files from the project's {@code test/data} directory and synthetic images.
+ * <p>
+ * The data directory can be set with system property {@value #DATA_DIR_PROPERTY}, otherwise {@code test/data} is
+ * looked up in the current directory and its parent.
+ *
+ * @author Jarek Sacha
+ */
+final class BenchmarkData {
+
+    static final String DATA_DIR_PROPERTY = "ijp.bench.data";
+
+    /**
+     * Size of synthetic "large" images.
+     */
+    static final int LARGE_SIZE = 4096;
+
+    private BenchmarkData() {
+    }
+
+
+    /**
+     * @param name name of a file in the data directory.
+     * @return file in the data directory.
+     * @throws IllegalStateException if the file cannot be located.
+     */
+    static File dataFile(final String name) {
+        final String dir = System.getProperty(DATA_DIR_PROPERTY);
+        final File[] candidates = dir != null
+                ? new File[]{new File(dir, name)}
+                : new File[]{new File("test/data", name), new File("../test/data", name)};
+        for (final File f : candidates) {
+            if (f.isFile()) {
+                return f;
+            }
+        }
+        throw new IllegalStateException("Cannot find benchmark data file '" + name + "'. "
+                + "Set system property '" + DATA_DIR_PROPERTY + "' to location of 'test/data'.");
+    }
+
+
+    /**
+     * Create a synthetic image: a smooth gradient with deterministic noise, compressible but not trivially.
+     *
+     * @param type   "GRAY8", "GRAY16", "GRAY32", or "RGB".
+     * @param width  image width.
+     * @param height image height.
+     * @return new image.
+     */
+    static ImagePlus synthetic(final String type, final int width, final int height) {
+        final Random random = new Random(42);
+        final ImageProcessor ip;
+        switch (type) {
+            case "GRAY8":
+                ip = new ByteProcessor(width, height);
+                break;
+            case "GRAY16":
+                ip = new ShortProcessor(width, height);
+                break;
+            case "GRAY32":
+                ip = new FloatProcessor(width, height);
+                break;
+            case "RGB":
+                ip = new ColorProcessor(width, height);
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported image type: " + type);
+        }
+
+        final double max = ip instanceof ByteProcessor ? 255 : ip instanceof ColorProcessor ? 255 : 4095;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                final double v = max * (0.5 + 0.25 * Math.sin(x * 0.01) + 0.2 * Math.cos(y * 0.013))
+                        + random.nextGaussian() * 4;
+                final double value = Math.max(0, Math.min(max, v));
+                if (ip instanceof ColorProcessor) {
+                    final int c = (int) value;
+                    ip.set(x, y, (c << 16) | ((255 - c) << 8) | ((x ^ y) & 0xff));
+                } else {
+                    ip.putPixelValue(x, y, value);
+                }
+            }
+        }
+        ip.resetMinAndMax();
+        return new ImagePlus("synthetic-" + type.toLowerCase(), ip);
+    }
+}
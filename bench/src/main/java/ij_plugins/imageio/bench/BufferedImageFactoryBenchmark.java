@@ -0,0 +1,70 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio.bench;
+
+import ij.process.ByteProcessor;
+import ij.process.ImageProcessor;
+import ij_plugins.imageio.BufferedImageFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of ImageJ images to {@link BufferedImage} before encoding, using
+ * {@link BufferedImageFactory#createFrom(ImageProcessor, boolean)}, per processor type.
+ *
+ * @author Jarek Sacha
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2G", "-Djava.awt.headless=true"})
+@State(Scope.Benchmark)
+public class BufferedImageFactoryBenchmark {
+
+    @Param({"GRAY8", "BINARY", "GRAY16", "GRAY32", "RGB"})
+    public String processorType;
+
+    private ImageProcessor ip;
+    private boolean preferBinary;
+
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final int size = BenchmarkData.LARGE_SIZE;
+        preferBinary = "BINARY".equals(processorType);
+        if (preferBinary) {
+            ip = BenchmarkData.synthetic("GRAY8", size, size).getProcessor();
+            ((ByteProcessor) ip).threshold(128);
+        } else {
+            ip = BenchmarkData.synthetic(processorType, size, size).getProcessor();
+        }
+    }
+
+
+    @Benchmark
+    public BufferedImage createFrom() {
+        return BufferedImageFactory.createFrom(ip, preferBinary);
+    }
+}
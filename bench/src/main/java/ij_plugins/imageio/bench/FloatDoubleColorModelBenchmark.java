@@ -0,0 +1,109 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio.bench;
+
+import ij.process.FloatProcessor;
+import ij_plugins.imageio.BufferedImageFactory;
+import ij_plugins.imageio.FloatDoubleColorModel;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.image.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rendering of floating point images that use {@link FloatDoubleColorModel}, as done when such images are
+ * displayed or previewed.
+ *
+ * @author Jarek Sacha
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2G", "-Djava.awt.headless=true"})
+@State(Scope.Benchmark)
+public class FloatDoubleColorModelBenchmark {
+
+    private static final int SIZE = 2048;
+
+    @Param({"1", "3"})
+    public int bands;
+
+    private BufferedImage source;
+    private BufferedImage target;
+    private Graphics2D graphics;
+
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // Color model maps values from range 0 to 1
+        final FloatProcessor fp = (FloatProcessor) BenchmarkData.synthetic("GRAY32", SIZE, SIZE).getProcessor();
+        fp.multiply(1 / 4095.0);
+        final float[] gray = (float[]) fp.getPixels();
+        if (bands == 1) {
+            source = BufferedImageFactory.createFrom(fp);
+        } else {
+            final float[] pixels = new float[gray.length * bands];
+            for (int i = 0; i < gray.length; i++) {
+                for (int b = 0; b < bands; b++) {
+                    pixels[i * bands + b] = gray[i] * (b + 1) / bands;
+                }
+            }
+            final int[] offsets = new int[bands];
+            for (int b = 0; b < bands; b++) {
+                offsets[b] = b;
+            }
+            final SampleModel sampleModel = new PixelInterleavedSampleModel(
+                    DataBuffer.TYPE_FLOAT, SIZE, SIZE, bands, SIZE * bands, offsets);
+            final WritableRaster raster = Raster.createWritableRaster(
+                    sampleModel, new DataBufferFloat(pixels, pixels.length), new Point());
+            source = new BufferedImage(BufferedImageFactory.createFloatColorModel(bands), raster, false, null);
+        }
+        target = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+        graphics = target.createGraphics();
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        graphics.dispose();
+    }
+
+
+    @Benchmark
+    public BufferedImage drawImage() {
+        graphics.drawImage(source, 0, 0, null);
+        return target;
+    }
+
+
+    /**
+     * Bulk conversion followed by drawing of the rendered image, as done by
+     * {@link BufferedImageFactory#createRenderable(BufferedImage)}.
+     */
+    @Benchmark
+    public BufferedImage renderAndDrawImage() {
+        graphics.drawImage(BufferedImageFactory.createRenderable(source), 0, 0, null);
+        return target;
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio.bench;
+
+import ij.ImagePlus;
+import ij.process.ColorProcessor;
+import ij.process.FloatProcessor;
+import ij_plugins.imageio.BufferedImageFactory;
+import ij_plugins.imageio.ImagePlusFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversion of decoded images to ImageJ representation using {@link ImagePlusFactory#create(String, BufferedImage)},
+ * per raster type.
+ *
+ * @author Jarek Sacha
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2G", "-Djava.awt.headless=true"})
+@State(Scope.Benchmark)
+public class ImagePlusFactoryBenchmark {
+
+    @Param({"BYTE_GRAY", "USHORT_GRAY", "FLOAT_GRAY", "INT_RGB", "3BYTE_BGR", "BYTE_INDEXED"})
+    public String rasterType;
+
+    private BufferedImage image;
+
+
+    @Setup(Level.Trial)
+    public void setup() {
+        final int size = BenchmarkData.LARGE_SIZE;
+        if ("FLOAT_GRAY".equals(rasterType)) {
+            final ImagePlus imp = BenchmarkData.synthetic("GRAY32", size, size);
+            image = BufferedImageFactory.createFrom((FloatProcessor) imp.getProcessor());
+            return;
+        }
+
+        final int type;
+        switch (rasterType) {
+            case "BYTE_GRAY":
+                type = BufferedImage.TYPE_BYTE_GRAY;
+                break;
+            case "USHORT_GRAY":
+                type = BufferedImage.TYPE_USHORT_GRAY;
+                break;
+            case "INT_RGB":
+                type = BufferedImage.TYPE_INT_RGB;
+                break;
+            case "3BYTE_BGR":
+                type = BufferedImage.TYPE_3BYTE_BGR;
+                break;
+            case "BYTE_INDEXED":
+                type = BufferedImage.TYPE_BYTE_INDEXED;
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported raster type: " + rasterType);
+        }
+        final ColorProcessor cp = (ColorProcessor) BenchmarkData.synthetic("RGB", size, size).getProcessor();
+        image = new BufferedImage(size, size, type);
+        image.setRGB(0, 0, size, size, (int[]) cp.getPixels(), 0, size);
+    }
+
+
+    @Benchmark
+    public ImagePlus create() throws Exception {
+        return ImagePlusFactory.create("bench", image);
+    }
+}
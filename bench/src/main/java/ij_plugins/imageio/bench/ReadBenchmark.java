@@ -0,0 +1,90 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio.bench;
+
+import ij.ImagePlus;
+import ij_plugins.imageio.IJImageIO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of files using {@link IJImageIO#readAsBufferedImages(File)}, per codec.
+ * Files with names starting with "synthetic" are {@value BenchmarkData#LARGE_SIZE} pixels wide images created
+ * before the benchmark.
+ *
+ * @author Jarek Sacha
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2G", "-Djava.awt.headless=true"})
+@State(Scope.Benchmark)
+public class ReadBenchmark {
+
+    @Param({"blobs.png", "clown.png", "clown.tif", "clown_LZW.tif", "mri-stack.tif",
+            "synthetic-gray16.tif", "synthetic-gray16-lzw.tif", "synthetic-rgb.png", "synthetic-rgb.jpg"})
+    public String fileName;
+
+    private File file;
+    private boolean temporary;
+
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        temporary = fileName.startsWith("synthetic");
+        if (!temporary) {
+            file = BenchmarkData.dataFile(fileName);
+            return;
+        }
+
+        final String[] parts = fileName.substring(0, fileName.lastIndexOf('.')).split("-");
+        final String extension = fileName.substring(fileName.lastIndexOf('.') + 1);
+        final ImagePlus imp = BenchmarkData.synthetic(parts[1].toUpperCase(),
+                BenchmarkData.LARGE_SIZE, BenchmarkData.LARGE_SIZE);
+        file = Files.createTempFile("ijp-imageio-bench-", "." + extension).toFile();
+        if ("tif".equals(extension)) {
+            IJImageIO.writeAsTiff(imp, file, parts.length > 2 ? parts[2].toUpperCase() : null);
+        } else {
+            IJImageIO.write(imp, file, extension);
+        }
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (temporary) {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+
+    @Benchmark
+    public List<IJImageIO.ImageAndMetadata> readAsBufferedImages() throws Exception {
+        return IJImageIO.readAsBufferedImages(file);
+    }
+}
@@ -0,0 +1,486 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio.bench;
+
+import ij.ImagePlus;
+import ij.ImageStack;
+import ij.io.FileSaver;
+import ij.io.Opener;
+import ij_plugins.imageio.IJImageIO;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+
+/**
+ * End-to-end throughput of reading and writing files, complementing the JMH micro benchmarks.
+ * <p>
+ * A reproducible data set of uncompressed TIFF files is generated in a working directory: 8-bit, 16-bit, 32-bit, and
+ * RGB images, each as a small single page image, a small multi-page stack, and a huge single page image. Each data
+ * set is then read and written by a pool of 1, 2, 4, ... up to the requested maximum number of threads, using
+ * {@link IJImageIO} and, as a baseline, ImageJ's native {@link Opener} and {@link FileSaver}. For each run the tool
+ * reports files per second, MB per second of pixel data, speedup relative to a single thread, and peak resident set
+ * size of the process (Linux only).
+ * <p>
+ * Run from sbt with, for instance:
+ * <pre>
+ *     sbt "throughput -t 64 -o throughput.csv"
+ * </pre>
+ * See {@link #main(String[])} for options.
+ *
+ * @author Jarek Sacha
+ */
+public final class ThroughputBenchmark {
+
+    private static final String[] IMAGE_TYPES = {"GRAY8", "GRAY16", "GRAY32", "RGB"};
+    private static final int SMALL_SIZE = 256;
+    private static final int STACK_SIZE = 32;
+
+    private final File dataDir;
+    private final int filesPerDataSet;
+    private final int hugeSize;
+    private final String compression;
+
+
+    /**
+     * @param dataDir         directory where the data set is generated and written files are saved.
+     * @param filesPerDataSet number of files read or written in each run.
+     * @param hugeSize        width and height of the huge images.
+     * @param compression     TIFF compression used when writing with {@link IJImageIO}, {@code null} for none.
+     */
+    ThroughputBenchmark(final File dataDir, final int filesPerDataSet, final int hugeSize, final String compression) {
+        this.dataDir = dataDir;
+        this.filesPerDataSet = filesPerDataSet;
+        this.hugeSize = hugeSize;
+        this.compression = compression;
+    }
+
+
+    /**
+     * Command line entry point.
+     * <pre>
+     * Usage: ThroughputBenchmark [-d &lt;data dir&gt;] [-t &lt;max threads&gt;] [-n &lt;files per data set&gt;]
+     *                            [-s &lt;huge image size&gt;] [-c &lt;compression&gt;] [-o &lt;CSV file&gt;]
+     * </pre>
+     * By default, data is generated in {@code ijp-imageio-throughput} in the temporary directory, maximum number of
+     * threads is the number of available processors, 16 files are processed per data set, huge images are
+     * 4096x4096, and files are written without compression. Existing data set files are reused.
+     *
+     * @param args command line arguments.
+     */
+    public static void main(final String[] args) {
+        File dataDir = new File(System.getProperty("java.io.tmpdir"), "ijp-imageio-throughput");
+        int maxThreads = Runtime.getRuntime().availableProcessors();
+        int files = 16;
+        int hugeSize = BenchmarkData.LARGE_SIZE;
+        String compression = null;
+        File csvFile = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-d":
+                        dataDir = new File(args[++i]);
+                        break;
+                    case "-t":
+                        maxThreads = Integer.parseInt(args[++i]);
+                        break;
+                    case "-n":
+                        files = Integer.parseInt(args[++i]);
+                        break;
+                    case "-s":
+                        hugeSize = Integer.parseInt(args[++i]);
+                        break;
+                    case "-c":
+                        compression = args[++i];
+                        break;
+                    case "-o":
+                        csvFile = new File(args[++i]);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            if (maxThreads < 1 || files < 1 || hugeSize < 1) {
+                throw new IllegalArgumentException("Number of threads, files, and image size must be positive.");
+            }
+        } catch (final ArrayIndexOutOfBoundsException | IllegalArgumentException e) {
+            System.err.println("Usage: " + ThroughputBenchmark.class.getName()
+                    + " [-d <data dir>] [-t <max threads>] [-n <files per data set>] [-s <huge image size>]"
+                    + " [-c <compression>] [-o <CSV file>]");
+            System.exit(2);
+            return;
+        }
+
+        final ThroughputBenchmark benchmark = new ThroughputBenchmark(dataDir, files, hugeSize, compression);
+        try (PrintWriter csv = csvFile != null
+                ? new PrintWriter(new OutputStreamWriter(new FileOutputStream(csvFile), StandardCharsets.UTF_8))
+                : null) {
+            if (csv != null) {
+                csv.println(Result.CSV_HEADER);
+            }
+            System.out.println(Result.HEADER);
+            for (final DataSet dataSet : benchmark.generate()) {
+                for (final Operation operation : Operation.values()) {
+                    Result single = null;
+                    for (final int threads : threadCounts(maxThreads)) {
+                        final Result r = benchmark.run(operation, dataSet, threads, single);
+                        if (single == null) {
+                            single = r;
+                        }
+                        System.out.println(r);
+                        if (csv != null) {
+                            csv.println(r.toCSV());
+                            csv.flush();
+                        }
+                    }
+                }
+            }
+        } catch (final Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+
+    /**
+     * @return 1, 2, 4, ... up to and including {@code maxThreads}.
+     */
+    static List<Integer> threadCounts(final int maxThreads) {
+        final List<Integer> counts = new ArrayList<>();
+        for (int t = 1; t < maxThreads; t *= 2) {
+            counts.add(t);
+        }
+        counts.add(maxThreads);
+        return counts;
+    }
+
+
+    /**
+     * Generate data set files, unless they already exist. Each data set has {@code filesPerDataSet} identical copies
+     * of a synthetic image saved by ImageJ as uncompressed TIFF.
+     */
+    List<DataSet> generate() throws IOException {
+        final List<DataSet> dataSets = new ArrayList<>();
+        for (final String type : IMAGE_TYPES) {
+            dataSets.add(generate(type, SMALL_SIZE, 1));
+            dataSets.add(generate(type, SMALL_SIZE, STACK_SIZE));
+            dataSets.add(generate(type, hugeSize, 1));
+        }
+        return dataSets;
+    }
+
+
+    private DataSet generate(final String type, final int size, final int depth) throws IOException {
+        final String name = type.toLowerCase(Locale.ROOT) + "-" + size + "x" + size + "x" + depth;
+        final File dir = new File(dataDir, name);
+        final List<File> files = new ArrayList<>();
+        for (int i = 0; i < filesPerDataSet; i++) {
+            files.add(new File(dir, name + "-" + i + ".tif"));
+        }
+
+        final ImagePlus imp = synthetic(type, size, depth);
+        final File first = files.get(0);
+        if (!first.isFile()) {
+            System.out.println("Generating data set " + name + " ...");
+            if (!dir.isDirectory() && !dir.mkdirs()) {
+                throw new IOException("Cannot create directory: " + dir.getAbsolutePath());
+            }
+            final FileSaver saver = new FileSaver(imp);
+            final boolean saved = depth > 1
+                    ? saver.saveAsTiffStack(first.getPath())
+                    : saver.saveAsTiff(first.getPath());
+            if (!saved) {
+                throw new IOException("Failed to save: " + first.getAbsolutePath());
+            }
+        }
+        for (final File f : files) {
+            if (!f.isFile()) {
+                Files.copy(first.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        final long bytesPerPixel = imp.getBitDepth() == 24 ? 4 : imp.getBitDepth() / 8;
+        final long pixelBytes = bytesPerPixel * size * size * depth;
+        return new DataSet(name, imp, files, new File(dataDir, "out-" + name), pixelBytes);
+    }
+
+
+    private static ImagePlus synthetic(final String type, final int size, final int depth) {
+        final ImagePlus slice = BenchmarkData.synthetic(type, size, size);
+        if (depth == 1) {
+            return slice;
+        }
+        final ImageStack stack = new ImageStack(size, size);
+        for (int z = 0; z < depth; z++) {
+            stack.addSlice(slice.getProcessor().duplicate());
+        }
+        return new ImagePlus(slice.getTitle(), stack);
+    }
+
+
+    /**
+     * Process all files of a data set using given number of threads. An untimed warm-up pass over a subset of files
+     * precedes the measurement.
+     *
+     * @param single result for a single thread used to compute speedup, {@code null} if this is the single thread run.
+     */
+    Result run(final Operation operation, final DataSet dataSet, final int threads, final Result single)
+            throws Exception {
+        if (!dataSet.outputDir.isDirectory() && !dataSet.outputDir.mkdirs()) {
+            throw new IOException("Cannot create directory: " + dataSet.outputDir.getAbsolutePath());
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            execute(executor, operation, dataSet, Math.min(threads, dataSet.files.size()));
+
+            System.gc();
+            PeakMemory.reset();
+            final long start = System.nanoTime();
+            execute(executor, operation, dataSet, dataSet.files.size());
+            final long elapsed = System.nanoTime() - start;
+            return new Result(operation, dataSet, threads, dataSet.files.size(), elapsed, PeakMemory.read(), single);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    private void execute(final ExecutorService executor,
+                         final Operation operation,
+                         final DataSet dataSet,
+                         final int numberOfFiles) throws Exception {
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < numberOfFiles; i++) {
+            final File input = dataSet.files.get(i);
+            final File output = new File(dataSet.outputDir, input.getName());
+            futures.add(executor.submit(() -> {
+                operation.process(this, dataSet, input, output);
+                return null;
+            }));
+        }
+        for (final Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (final ExecutionException e) {
+                throw new Exception(operation + " failed on " + dataSet.name + ": " + e.getCause(), e.getCause());
+            }
+        }
+    }
+
+
+    /**
+     * Operations compared by the benchmark.
+     */
+    enum Operation {
+        IJIMAGEIO_READ("IJImageIO read") {
+            @Override
+            void process(final ThroughputBenchmark b, final DataSet dataSet, final File input, final File output)
+                    throws Exception {
+                final ImagePlus[] imps = IJImageIO.read(input);
+                check(imps.length == 1 && imps[0].getStackSize() == dataSet.image.getStackSize(), input);
+            }
+        },
+        OPENER_READ("Opener read") {
+            @Override
+            void process(final ThroughputBenchmark b, final DataSet dataSet, final File input, final File output) {
+                final ImagePlus imp = new Opener().openImage(input.getPath());
+                check(imp != null && imp.getStackSize() == dataSet.image.getStackSize(), input);
+            }
+        },
+        IJIMAGEIO_WRITE("IJImageIO write") {
+            @Override
+            void process(final ThroughputBenchmark b, final DataSet dataSet, final File input, final File output)
+                    throws Exception {
+                IJImageIO.writeAsTiff(dataSet.newImage(), output, b.compression);
+            }
+        },
+        FILESAVER_WRITE("FileSaver write") {
+            @Override
+            void process(final ThroughputBenchmark b, final DataSet dataSet, final File input, final File output) {
+                final ImagePlus imp = dataSet.newImage();
+                final FileSaver saver = new FileSaver(imp);
+                final boolean saved = imp.getStackSize() > 1
+                        ? saver.saveAsTiffStack(output.getPath())
+                        : saver.saveAsTiff(output.getPath());
+                check(saved, output);
+            }
+        };
+
+        private final String label;
+
+        Operation(final String label) {
+            this.label = label;
+        }
+
+        abstract void process(ThroughputBenchmark b, DataSet dataSet, File input, File output) throws Exception;
+
+        private static void check(final boolean condition, final File file) {
+            if (!condition) {
+                throw new IllegalStateException("Unexpected result processing " + file.getAbsolutePath());
+            }
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+
+    /**
+     * Files of the same image type and size.
+     */
+    static final class DataSet {
+        final String name;
+        final ImagePlus image;
+        final List<File> files;
+        final File outputDir;
+        final long pixelBytesPerFile;
+
+        DataSet(final String name,
+                final ImagePlus image,
+                final List<File> files,
+                final File outputDir,
+                final long pixelBytesPerFile) {
+            this.name = name;
+            this.image = image;
+            this.files = files;
+            this.outputDir = outputDir;
+            this.pixelBytesPerFile = pixelBytesPerFile;
+        }
+
+        /**
+         * A new image sharing pixels with the data set image. Writers can update image properties, like file info,
+         * so every task saves its own instance.
+         */
+        ImagePlus newImage() {
+            return new ImagePlus(image.getTitle(), image.getStack());
+        }
+    }
+
+
+    /**
+     * Measurement for a single operation, data set, and number of threads.
+     */
+    static final class Result {
+        static final String HEADER = String.format(Locale.ROOT, "%-16s %-22s %7s %6s %9s %9s %9s %8s %10s",
+                "Operation", "Data set", "Threads", "Files", "Time [s]", "Files/s", "MB/s", "Speedup", "Peak RSS");
+        static final String CSV_HEADER = "operation,dataSet,threads,files,seconds,filesPerSecond,megabytesPerSecond,"
+                + "speedup,peakRssMegabytes";
+
+        final Operation operation;
+        final DataSet dataSet;
+        final int threads;
+        final int files;
+        final double seconds;
+        final double peakRssMegabytes;
+        final double speedup;
+
+        Result(final Operation operation,
+               final DataSet dataSet,
+               final int threads,
+               final int files,
+               final long elapsedNanos,
+               final long peakRssBytes,
+               final Result single) {
+            this.operation = operation;
+            this.dataSet = dataSet;
+            this.threads = threads;
+            this.files = files;
+            this.seconds = elapsedNanos / 1e9;
+            this.peakRssMegabytes = peakRssBytes < 0 ? Double.NaN : peakRssBytes / (1024.0 * 1024.0);
+            this.speedup = single == null ? 1 : single.seconds / seconds;
+        }
+
+        double filesPerSecond() {
+            return files / seconds;
+        }
+
+        double megabytesPerSecond() {
+            return files * dataSet.pixelBytesPerFile / (1024.0 * 1024.0) / seconds;
+        }
+
+        String toCSV() {
+            return String.format(Locale.ROOT, "%s,%s,%d,%d,%.4f,%.2f,%.2f,%.2f,%.1f",
+                    operation, dataSet.name, threads, files, seconds, filesPerSecond(), megabytesPerSecond(),
+                    speedup, peakRssMegabytes);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-16s %-22s %7d %6d %9.3f %9.1f %9.1f %8.2f %7.0f MB",
+                    operation, dataSet.name, threads, files, seconds, filesPerSecond(), megabytesPerSecond(),
+                    speedup, peakRssMegabytes);
+        }
+    }
+
+
+    /**
+     * Peak resident set size of the process from {@code /proc/self/status}. The peak is reset before each run by
+     * writing to {@code /proc/self/clear_refs}; if the kernel does not allow it, the peak covers the life of the
+     * process.
+     */
+    static final class PeakMemory {
+
+        private static final File STATUS = new File("/proc/self/status");
+        private static final File CLEAR_REFS = new File("/proc/self/clear_refs");
+
+        private PeakMemory() {
+        }
+
+        static void reset() {
+            try (Writer w = new OutputStreamWriter(new FileOutputStream(CLEAR_REFS), StandardCharsets.US_ASCII)) {
+                w.write("5");
+            } catch (final IOException e) {
+                // Not on Linux or not permitted, peak will not be reset
+            }
+        }
+
+        /**
+         * @return peak resident set size in bytes, or -1 if not available.
+         */
+        static long read() {
+            if (!STATUS.isFile()) {
+                return -1;
+            }
+            try {
+                for (final String line : Files.readAllLines(STATUS.toPath(), StandardCharsets.US_ASCII)) {
+                    if (line.startsWith("VmHWM:")) {
+                        // Format is "VmHWM:     12345 kB"
+                        final String[] parts = line.substring(6).trim().split("\\s+");
+                        return Long.parseLong(parts[0]) * 1024;
+                    }
+                }
+            } catch (final IOException | NumberFormatException e) {
+                // Fall through
+            }
+            return -1;
+        }
+    }
+}
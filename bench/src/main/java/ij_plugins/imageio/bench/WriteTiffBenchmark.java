@@ -0,0 +1,74 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio.bench;
+
+import ij.ImagePlus;
+import ij_plugins.imageio.IJImageIO;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding using {@link IJImageIO#writeAsTiff(ImagePlus, File, String)}, per image type and compression.
+ *
+ * @author Jarek Sacha
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2G", "-Djava.awt.headless=true"})
+@State(Scope.Benchmark)
+public class WriteTiffBenchmark {
+
+    @Param({"GRAY8", "GRAY16", "RGB"})
+    public String imageType;
+
+    @Param({"None", "LZW", "ZLib", "Deflate", "PackBits"})
+    public String compression;
+
+    private ImagePlus imp;
+    private File file;
+
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        imp = BenchmarkData.synthetic(imageType, BenchmarkData.LARGE_SIZE, BenchmarkData.LARGE_SIZE);
+        file = Files.createTempFile("ijp-imageio-bench-", ".tif").toFile();
+    }
+
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file.toPath());
+    }
+
+
+    @Benchmark
+    public long writeAsTiff() throws Exception {
+        IJImageIO.writeAsTiff(imp, file, "None".equals(compression) ? null : compression);
+        return file.length();
+    }
+}
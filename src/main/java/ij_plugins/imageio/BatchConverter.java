@@ -0,0 +1,549 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio;
+
+import ij.ImagePlus;
+
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.spi.ImageWriterSpi;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Converts images between formats without user interaction, using a bounded pool of worker threads.
+ * <p>
+ * Each worker reads a file using {@link IJImageIO#read(File)}, converts it to the target format, and writes the
+ * result to the output directory, preserving location of the file relative to the input root. Files containing
+ * several images that cannot be combined into a single stack are written as separate files with a numeric suffix.
+ * <p>
+ * Example:
+ * <pre>
+ *     BatchConverter converter = new BatchConverter("tif", "LZW", 8);
+ *     List&lt;File&gt; files = BatchConverter.listFiles(inputDir, BatchConverter.globFilter("*.png"), true);
+ *     BatchConverter.Result result = converter.convert(files, inputDir, outputDir, null);
+ *     System.out.println(result);
+ * </pre>
+ * The converter can be also run from command line, see {@link #main(String[])}.
+ *
+ * @author Jarek Sacha
+ */
+public final class BatchConverter {
+
+    private final String formatName;
+    private final String compression;
+    private final int numberOfThreads;
+    private final String extension;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+
+    /**
+     * @param formatName      output image format, for instance, "tif" or "png".
+     * @param compression     compression type, for instance, "LZW" for TIFF. If {@code null} or empty default
+     *                        compression of the writer is used.
+     * @param numberOfThreads number of files processed concurrently.
+     * @throws IJImageIOException if there is no writer for given format.
+     */
+    public BatchConverter(final String formatName,
+                          final String compression,
+                          final int numberOfThreads) throws IJImageIOException {
+        Validate.notNull(formatName, "Argument 'formatName' cannot be null");
+        Validate.isTrue(numberOfThreads > 0, "Number of threads must be positive, got %d.", numberOfThreads);
+
+        final List<ImageWriterSpi> spis = IJImageOUtils.writerSpiByFormatName(formatName);
+        if (spis.isEmpty()) {
+            throw new IJImageIOException("Cannot find writer for format: '" + formatName + "'.");
+        }
+        final String[] suffixes = spis.get(0).getFileSuffixes();
+
+        this.formatName = formatName;
+        this.compression = compression != null && !compression.trim().isEmpty() ? compression.trim() : null;
+        this.numberOfThreads = numberOfThreads;
+        this.extension = suffixes != null && suffixes.length > 0 ? suffixes[0] : formatName.toLowerCase(Locale.US);
+    }
+
+
+    /**
+     * Create file filter matching file names against a glob pattern, for instance, "*.{tif,tiff}".
+     *
+     * @param pattern glob pattern.
+     * @return file filter.
+     * @see java.nio.file.FileSystem#getPathMatcher(String)
+     */
+    public static FileFilter globFilter(final String pattern) {
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        return f -> matcher.matches(Paths.get(f.getName()));
+    }
+
+
+    /**
+     * List files in a directory.
+     *
+     * @param dir       directory to list.
+     * @param filter    selects files to include, if {@code null} all files are included.
+     * @param recursive if {@code true} also list files in subdirectories.
+     * @return list of files, sorted by path.
+     */
+    public static List<File> listFiles(final File dir, final FileFilter filter, final boolean recursive) {
+        Validate.notNull(dir, "Argument 'dir' cannot be null");
+
+        final List<File> result = new ArrayList<>();
+        final File[] files = dir.listFiles();
+        if (files == null) {
+            return result;
+        }
+        Arrays.sort(files);
+        for (final File f : files) {
+            if (f.isDirectory()) {
+                if (recursive) {
+                    result.addAll(listFiles(f, filter, true));
+                }
+            } else if (filter == null || filter.accept(f)) {
+                result.add(f);
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Convert files. Blocks till all files are processed or conversion is cancelled.
+     * Failure to convert a file does not stop processing of other files, it is reported in the result.
+     * Files that would be written to the same output file, for instance, "a.png" and "a.jpg", are not converted,
+     * each of them is reported as an error.
+     *
+     * @param inputFiles files to convert.
+     * @param inputRoot  directory relative to which output locations are determined, if {@code null}, or if a file
+     *                   is not located under it, the output is written directly to {@code outputDir}.
+     * @param outputDir  directory where converted files are written.
+     * @param listener   notified after each file is processed, can be {@code null}. Notifications come from
+     *                   worker threads.
+     * @return summary of the conversion.
+     * @throws InterruptedException if the calling thread was interrupted while waiting for the conversion.
+     */
+    public Result convert(final List<File> inputFiles,
+                          final File inputRoot,
+                          final File outputDir,
+                          final Listener listener) throws InterruptedException {
+        Validate.notNull(inputFiles, "Argument 'inputFiles' cannot be null");
+        Validate.notNull(outputDir, "Argument 'outputDir' cannot be null");
+
+        final Map<File, File> outputFiles = new LinkedHashMap<>();
+        for (final File file : inputFiles) {
+            outputFiles.put(file, outputFile(file, inputRoot, outputDir));
+        }
+        return convert(outputFiles, listener);
+    }
+
+
+    /**
+     * Convert files to given output files.
+     *
+     * @param outputFiles maps input files to output files, in processing order.
+     * @param listener    notified after each file is processed, can be {@code null}.
+     */
+    private Result convert(final Map<File, File> outputFiles, final Listener listener) throws InterruptedException {
+        cancelled.set(false);
+        final int total = outputFiles.size();
+        final AtomicInteger done = new AtomicInteger();
+        final AtomicInteger converted = new AtomicInteger();
+        final AtomicLong bytesRead = new AtomicLong();
+        final AtomicLong bytesWritten = new AtomicLong();
+        final Map<File, String> errors = new ConcurrentSkipListMap<>();
+
+        // Concurrent writes to the same output file would corrupt it, reject such files before any work starts
+        final Map<File, String> collisions = collisions(outputFiles);
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, r -> {
+            final Thread thread = new Thread(r, "IJP-ImageIO batch converter " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        final long start = System.nanoTime();
+        try {
+            for (final Map.Entry<File, File> entry : outputFiles.entrySet()) {
+                final File file = entry.getKey();
+                final File outputFile = entry.getValue();
+                executor.execute(() -> {
+                    if (cancelled.get()) {
+                        return;
+                    }
+                    String error = collisions.get(file);
+                    if (error != null) {
+                        errors.put(file, error);
+                    } else {
+                        try {
+                            final long written = convert(file, outputFile);
+                            bytesRead.addAndGet(file.length());
+                            bytesWritten.addAndGet(written);
+                            converted.incrementAndGet();
+                        } catch (final IJImageIOCancelledException e) {
+                            cancel();
+                            error = e.getMessage();
+                        } catch (final IJImageIOException | IOException | RuntimeException e) {
+                            error = e.getMessage() != null ? e.getMessage() : e.toString();
+                            errors.put(file, error);
+                        } catch (final OutOfMemoryError e) {
+                            error = "Out of memory. " + e.getMessage();
+                            errors.put(file, error);
+                        }
+                    }
+                    final int n = done.incrementAndGet();
+                    if (listener != null) {
+                        listener.fileProcessed(file, error, n, total);
+                    }
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                // Keep waiting
+            }
+        } catch (final InterruptedException e) {
+            cancel();
+            executor.shutdownNow();
+            throw e;
+        }
+
+        return new Result(total, converted.get(), errors, bytesRead.get(), bytesWritten.get(),
+                System.nanoTime() - start, cancelled.get());
+    }
+
+
+    /**
+     * Find input files that would be written to the same output file as some other input file.
+     *
+     * @return error message for each colliding input file.
+     */
+    private static Map<File, String> collisions(final Map<File, File> outputFiles) {
+        final Map<java.nio.file.Path, List<File>> inputsByOutput = new HashMap<>();
+        for (final Map.Entry<File, File> entry : outputFiles.entrySet()) {
+            final java.nio.file.Path output = entry.getValue().getAbsoluteFile().toPath().normalize();
+            inputsByOutput.computeIfAbsent(output, k -> new ArrayList<>()).add(entry.getKey());
+        }
+
+        final Map<File, String> result = new HashMap<>();
+        for (final Map.Entry<java.nio.file.Path, List<File>> entry : inputsByOutput.entrySet()) {
+            final List<File> inputs = entry.getValue();
+            if (inputs.size() > 1) {
+                for (final File input : inputs) {
+                    result.put(input, "Output file '" + entry.getKey() + "' would be written by "
+                            + inputs.size() + " input files: " + inputs + ".");
+                }
+            }
+        }
+        return result;
+    }
+
+
+    /**
+     * Request cancellation of a running conversion. Files that are being converted will be completed,
+     * remaining files will be skipped.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+
+    /**
+     * Convert a single file. If the file contains more than one image, each is written to a separate file.
+     *
+     * @return number of bytes written.
+     */
+    private long convert(final File inputFile, final File outputFile) throws IJImageIOException, IOException {
+        final ImagePlus[] imps = IJImageIO.read(inputFile);
+        final File dir = outputFile.getParentFile();
+        if (dir != null && !dir.isDirectory() && !dir.mkdirs() && !dir.isDirectory()) {
+            throw new IOException("Cannot create output directory: " + dir.getAbsolutePath());
+        }
+
+        long written = 0;
+        for (int i = 0; i < imps.length; i++) {
+            final File f = imps.length == 1 ? outputFile : withSuffix(outputFile, "_" + (i + 1));
+            write(imps[i], f);
+            written += f.length();
+        }
+        return written;
+    }
+
+
+    private void write(final ImagePlus imp, final File file) throws IJImageIOException {
+        if (isTIFF()) {
+            // Preserves calibration in TIFF metadata
+            IJImageIO.writeAsTiff(imp, file, compression);
+            return;
+        }
+
+        // Writers are not thread safe, each file gets its own instance
+        final List<ImageWriter> writers = IJImageOUtils.getImageWritersByFormatName(formatName);
+        if (writers.isEmpty()) {
+            throw new IJImageIOException("Cannot find writer for format: '" + formatName + "'.");
+        }
+        final ImageWriter writer = writers.get(0);
+        try {
+            if (imp.getStackSize() > 1 && !writer.canWriteSequence()) {
+                throw new IJImageIOException(
+                        "Format '" + formatName + "' can save only images with a single slice, image has "
+                                + imp.getStackSize() + " slices.");
+            }
+            final ImageWriteParam param = writer.getDefaultWriteParam();
+            if (compression != null && param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionType(compression);
+            }
+            IJImageIO.write(imp, file, writer, null, param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+
+    private boolean isTIFF() {
+        final String f = formatName.toLowerCase(Locale.US);
+        return f.equals("tif") || f.equals("tiff");
+    }
+
+
+    private File outputFile(final File inputFile, final File inputRoot, final File outputDir) {
+        String relative = inputFile.getName();
+        if (inputRoot != null) {
+            final java.nio.file.Path root = inputRoot.getAbsoluteFile().toPath().normalize();
+            final java.nio.file.Path path = inputFile.getAbsoluteFile().toPath().normalize();
+            if (path.startsWith(root)) {
+                relative = root.relativize(path).toString();
+            }
+        }
+        final int dot = relative.lastIndexOf('.');
+        final int separator = relative.lastIndexOf(File.separatorChar);
+        final String base = dot > separator ? relative.substring(0, dot) : relative;
+        return new File(outputDir, base + "." + extension);
+    }
+
+
+    private static File withSuffix(final File file, final String suffix) {
+        final String name = file.getName();
+        final int dot = name.lastIndexOf('.');
+        final String newName = dot > 0
+                ? name.substring(0, dot) + suffix + name.substring(dot)
+                : name + suffix;
+        return new File(file.getParentFile(), newName);
+    }
+
+
+    /**
+     * Command line entry point.
+     * <pre>
+     * Usage: BatchConverter -o &lt;output dir&gt; [options] &lt;input dir or file&gt;...
+     *   -o &lt;dir&gt;         output directory (required)
+     *   -f &lt;format&gt;      output format, default "tif"
+     *   -c &lt;compression&gt; compression type, for instance, "LZW", "ZLib", default: writer's default
+     *   -t &lt;threads&gt;     number of worker threads, default: number of processors
+     *   -i &lt;glob&gt;        input file name filter, for instance, "*.png", default: all files
+     *   -r               include subdirectories of input directories
+     *   -m &lt;MB&gt;          limit of decoded pixels of files read concurrently, default: available heap
+     *   -l &lt;seconds&gt;     time limit of reading a file, default: none
+     *   -s               subsample images that exceed the memory limit, rather than fail
+     * </pre>
+     * Exits with status 1 if any of the files could not be converted.
+     *
+     * @param args command line arguments.
+     */
+    public static void main(final String[] args) {
+        File outputDir = null;
+        String format = "tif";
+        String compression = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String include = "*";
+        boolean recursive = false;
+        long maxMB = 0;
+        long timeLimitSeconds = 0;
+        boolean subsample = false;
+        final List<File> inputs = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-o":
+                        outputDir = new File(args[++i]);
+                        break;
+                    case "-f":
+                        format = args[++i];
+                        break;
+                    case "-c":
+                        compression = args[++i];
+                        break;
+                    case "-t":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "-i":
+                        include = args[++i];
+                        break;
+                    case "-r":
+                        recursive = true;
+                        break;
+                    case "-m":
+                        maxMB = Long.parseLong(args[++i]);
+                        break;
+                    case "-l":
+                        timeLimitSeconds = Long.parseLong(args[++i]);
+                        break;
+                    case "-s":
+                        subsample = true;
+                        break;
+                    default:
+                        inputs.add(new File(args[i]));
+                }
+            }
+        } catch (final ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            outputDir = null;
+        }
+
+        if (outputDir == null || inputs.isEmpty()) {
+            System.err.println("Usage: " + BatchConverter.class.getName()
+                    + " -o <output dir> [-f <format>] [-c <compression>] [-t <threads>] [-i <glob>] [-r]"
+                    + " [-m <memory limit MB>] [-l <time limit per file s>] [-s] <input dir or file>...");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            IJImageIO.setReadLimits(new ReadLimits(maxMB << 20, Integer.MAX_VALUE, timeLimitSeconds * 1000,
+                    subsample ? ReadLimits.Policy.SUBSAMPLE : ReadLimits.Policy.FAIL));
+            final BatchConverter converter = new BatchConverter(format, compression, threads);
+            final FileFilter filter = globFilter(include);
+            // Convert all inputs at once, so files from different inputs that map to the same output are detected
+            final Map<File, File> outputFiles = new LinkedHashMap<>();
+            for (final File input : inputs) {
+                final List<File> files = input.isDirectory()
+                        ? listFiles(input, filter, recursive)
+                        : Collections.singletonList(input);
+                final File root = input.isDirectory() ? input : input.getAbsoluteFile().getParentFile();
+                for (final File file : files) {
+                    outputFiles.put(file, converter.outputFile(file, root, outputDir));
+                }
+            }
+            final Result total = converter.convert(outputFiles, (file, error, done, n) -> {
+                if (error != null) {
+                    System.err.println("[" + done + "/" + n + "] FAILED " + file + ": " + error);
+                } else {
+                    System.out.println("[" + done + "/" + n + "] " + file);
+                }
+            });
+            System.out.println(total);
+            System.exit(total.errors.isEmpty() ? 0 : 1);
+        } catch (final IJImageIOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (final InterruptedException e) {
+            System.err.println("Interrupted.");
+            System.exit(3);
+        }
+    }
+
+
+    /**
+     * Receives notifications about processed files.
+     */
+    public interface Listener {
+
+        /**
+         * @param file  processed file.
+         * @param error error message if conversion failed, {@code null} if conversion succeeded.
+         * @param done  number of files processed so far.
+         * @param total total number of files.
+         */
+        void fileProcessed(File file, String error, int done, int total);
+    }
+
+
+    /**
+     * Summary of a conversion.
+     */
+    public static final class Result {
+        public final int numberOfFiles;
+        public final int numberConverted;
+        /**
+         * Error messages for files that could not be converted, ordered by file.
+         */
+        public final Map<File, String> errors;
+        public final long bytesRead;
+        public final long bytesWritten;
+        public final long elapsedNanos;
+        public final boolean cancelled;
+
+
+        Result(final int numberOfFiles,
+               final int numberConverted,
+               final Map<File, String> errors,
+               final long bytesRead,
+               final long bytesWritten,
+               final long elapsedNanos,
+               final boolean cancelled) {
+            this.numberOfFiles = numberOfFiles;
+            this.numberConverted = numberConverted;
+            this.errors = Collections.unmodifiableMap(new TreeMap<>(errors));
+            this.bytesRead = bytesRead;
+            this.bytesWritten = bytesWritten;
+            this.elapsedNanos = elapsedNanos;
+            this.cancelled = cancelled;
+        }
+
+
+        /**
+         * @return number of converted files per second.
+         */
+        public double filesPerSecond() {
+            return elapsedNanos > 0 ? numberConverted * 1e9 / elapsedNanos : 0;
+        }
+
+
+        /**
+         * @return input megabytes (2^20 bytes) processed per second.
+         */
+        public double megabytesPerSecond() {
+            return elapsedNanos > 0 ? bytesRead * 1e9 / elapsedNanos / (1024 * 1024) : 0;
+        }
+
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "Converted %d of %d files (%d failed%s) in %.2f s: %.1f files/s, %.1f MB/s read, %.1f MB written.",
+                    numberConverted, numberOfFiles, errors.size(), cancelled ? ", cancelled" : "",
+                    elapsedNanos / 1e9, filesPerSecond(), megabytesPerSecond(), bytesWritten / (1024.0 * 1024.0));
+        }
+    }
+}
@@ -110,6 +110,23 @@ public class BufferedImageFactory {
     }
 
     public static BufferedImage[] createFrom(final ImagePlus src, final boolean preferBinary) {
+        final IJImageIOEvents.CreateBufferedImages event = new IJImageIOEvents.CreateBufferedImages();
+        event.begin();
+        final BufferedImage[] images = create(src, preferBinary);
+        if (event.shouldCommit()) {
+            event.title = src.getTitle();
+            event.width = src.getWidth();
+            event.height = src.getHeight();
+            event.count = images.length;
+            for (final BufferedImage image : images) {
+                event.bytes += IJImageOUtils.sizeInBytes(image);
+            }
+            event.commit();
+        }
+        return images;
+    }
+
+    private static BufferedImage[] create(final ImagePlus src, final boolean preferBinary) {
         final BufferedImage[] images;
         if (isRGB48(src)) {
             CompositeImage ci = (CompositeImage) src;
@@ -334,47 +351,28 @@ public class BufferedImageFactory {
 
 
     /**
-     * Create BufferedImage from ShortProcessor.
-     * Convenience call to {@link ij.process.ShortProcessor#get16BitBufferedImage()}.
-     * As of ImageJ 1.41o this creates a copy of the data, pixels are not shared between source and destination.
+     * Create BufferedImage of type BufferedImage.TYPE_USHORT_GRAY from ShortProcessor.
+     * Pixels are shared between source and destination, they are not copied.
      *
      * @param src source image
      * @return buffered image of type BufferedImage.TYPE_USHORT_GRAY
-     * @see ij.process.ShortProcessor#get16BitBufferedImage()
      */
     public static BufferedImage createFrom(final ShortProcessor src) {
-        // TODO: create destination BufferedImage directly without creating intermediate image (save memory and time)
-        return src.get16BitBufferedImage();
-    }
 
+        final int width = src.getWidth();
+        final int height = src.getHeight();
 
-//    /**
-//     * Create BufferedImage from ShortProcessor. Pixel values are assumed to be unsigned short
-//     * integers.
-//     *
-//     * @param src ShortProcessor source.
-//     * @return BufferedImage.
-//     */
-//    public static BufferedImage createFrom2(final ShortProcessor src) {
-//
-//        final int w = src.getWidth();
-//        final int h = src.getHeight();
-//
-//        final int nbBands = 1;
-//        final int[] rgbOffset = new int[nbBands];
-//        final SampleModel sampleModel = RasterFactory.createPixelInterleavedSampleModel(
-//                DataBuffer.TYPE_USHORT, w, h, nbBands, nbBands * w, rgbOffset);
-//
-//        final ColorModel colorModel = ImageCodec.createComponentColorModel(sampleModel);
-//
-//        final short[] pixels = (short[]) src.getPixels();
-//        final DataBufferShort dataBuffer = new DataBufferShort(pixels, pixels.length);
-//
-//        final WritableRaster raster = RasterFactory.createWritableRaster(sampleModel, dataBuffer, new Point(0, 0));
-//
-//        return new BufferedImage(colorModel, raster, false, null);
-//
-//    }
+        final short[] pixels = (short[]) src.getPixels();
+        final DataBufferUShort dataBuffer = new DataBufferUShort(pixels, pixels.length);
+
+        final SampleModel sampleModel
+                = new PixelInterleavedSampleModel(DataBuffer.TYPE_USHORT, width, height, 1, width, new int[]{0});
+        final WritableRaster wr = Raster.createWritableRaster(sampleModel, dataBuffer, new Point());
+        final ColorModel colorModel = createComponentColorModel(
+                ColorSpace.getInstance(ColorSpace.CS_GRAY), 1, DataBuffer.TYPE_USHORT, false, false);
+
+        return new BufferedImage(colorModel, wr, false, null);
+    }
 
 
     /**
@@ -514,6 +512,22 @@ public class BufferedImageFactory {
         return bi;
     }
 
+    /**
+     * Convert image that uses {@link FloatDoubleColorModel} to an image that can be drawn quickly, using
+     * {@link FloatDoubleColorModel#render(Raster)}. Drawing such image directly converts each pixel separately.
+     *
+     * @param src source image.
+     * @return rendered image, or {@code src} if it does not use {@link FloatDoubleColorModel}.
+     */
+    public static BufferedImage createRenderable(final BufferedImage src) {
+        Validate.notNull(src, "Argument 'src' cannot be null.");
+
+        final ColorModel cm = src.getColorModel();
+        return cm instanceof FloatDoubleColorModel
+                ? ((FloatDoubleColorModel) cm).render(src.getRaster())
+                : src;
+    }
+
     /**
      * Create a BufferedImage that is compatible with current default screen graphics device.
      *
@@ -524,7 +538,7 @@ public class BufferedImageFactory {
     public static BufferedImage createGraphicsCompatibleFrom(final ImageProcessor src) {
         Validate.notNull(src, "Argument 'src' cannot be null.");
 
-        final BufferedImage image = createFrom(src);
+        final BufferedImage image = createRenderable(createFrom(src));
         final GraphicsEnvironment ge = GraphicsEnvironment.getLocalGraphicsEnvironment();
         final GraphicsDevice gs = ge.getDefaultScreenDevice();
         final GraphicsConfiguration gc = gs.getDefaultConfiguration();
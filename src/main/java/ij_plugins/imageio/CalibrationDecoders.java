@@ -0,0 +1,337 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import org.w3c.dom.Node;
+
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataFormatImpl;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.plugins.tiff.BaselineTIFFTagSet;
+import javax.imageio.plugins.tiff.TIFFDirectory;
+import javax.imageio.plugins.tiff.TIFFField;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Extracts {@link ImageCalibration} from image metadata, dispatching on the native metadata format name, so each
+ * format is decoded from its own representation. Formats without a dedicated decoder use the standard
+ * {@code javax_imageio_1.0} metadata format, when supported.
+ * <p>
+ * Physical pixel size is reported in centimeters or inches, following units used by TIFF files.
+ *
+ * @author Jarek Sacha
+ */
+final class CalibrationDecoders {
+
+    /**
+     * Decodes calibration from metadata in a particular native format.
+     */
+    interface Decoder {
+        /**
+         * @return calibration or {@code null} if the metadata do not contain calibration.
+         */
+        ImageCalibration decode(IIOMetadata metadata) throws IJImageIOException;
+    }
+
+    static final String TIFF_FORMAT = "javax_imageio_tiff_image_1.0";
+    static final String JAI_TIFF_FORMAT = "com_sun_media_imageio_plugins_tiff_image_1.0";
+    static final String PNG_FORMAT = "javax_imageio_png_1.0";
+    static final String JPEG_FORMAT = "javax_imageio_jpeg_image_1.0";
+    static final String BMP_FORMAT = "javax_imageio_bmp_1.0";
+
+    private static final Map<String, Decoder> DECODERS = new HashMap<>();
+
+    static {
+        DECODERS.put(TIFF_FORMAT, CalibrationDecoders::decodeTIFF);
+        DECODERS.put(JAI_TIFF_FORMAT, CalibrationDecoders::decodeTIFFTree);
+        DECODERS.put(PNG_FORMAT, CalibrationDecoders::decodePNG);
+        DECODERS.put(JPEG_FORMAT, CalibrationDecoders::decodeJPEG);
+        DECODERS.put(BMP_FORMAT, CalibrationDecoders::decodeBMP);
+    }
+
+    private CalibrationDecoders() {
+    }
+
+
+    /**
+     * @param metadata image metadata, can be {@code null}.
+     * @return calibration or {@code null} if not present or the metadata format is not supported.
+     * @throws IJImageIOException if metadata contain invalid calibration.
+     */
+    static ImageCalibration decode(final IIOMetadata metadata) throws IJImageIOException {
+        if (metadata == null) {
+            return null;
+        }
+        final String formatName = metadata.getNativeMetadataFormatName();
+        final Decoder decoder = formatName != null ? DECODERS.get(formatName) : null;
+        if (decoder != null) {
+            return decoder.decode(metadata);
+        } else if (metadata.isStandardMetadataFormatSupported()) {
+            return decodeStandard(metadata);
+        } else {
+            return null;
+        }
+    }
+
+
+    /**
+     * TIFF metadata of the JDK TIFF plugin, accessed directly without building a DOM tree.
+     */
+    private static ImageCalibration decodeTIFF(final IIOMetadata metadata) throws IJImageIOException {
+        final TIFFDirectory dir;
+        try {
+            dir = TIFFDirectory.createFromMetadata(metadata);
+        } catch (final IIOInvalidTreeException e) {
+            return null;
+        }
+
+        final TIFFField xRes = dir.getTIFFField(BaselineTIFFTagSet.TAG_X_RESOLUTION);
+        final TIFFField yRes = dir.getTIFFField(BaselineTIFFTagSet.TAG_Y_RESOLUTION);
+        final TIFFField resUnit = dir.getTIFFField(BaselineTIFFTagSet.TAG_RESOLUTION_UNIT);
+        final TIFFField description = dir.getTIFFField(BaselineTIFFTagSet.TAG_IMAGE_DESCRIPTION);
+        return createTIFF(
+                xRes != null ? xRes.getAsRational(0) : null,
+                yRes != null ? yRes.getAsRational(0) : null,
+                resUnit != null ? resUnit.getAsInt(0) : null,
+                description != null && description.getCount() > 0 ? description.getAsString(0) : null);
+    }
+
+
+    /**
+     * TIFF metadata of jai-imageio TIFF plugin, using its native tree, which has the same structure as the JDK's.
+     */
+    private static ImageCalibration decodeTIFFTree(final IIOMetadata metadata) throws IJImageIOException {
+        final Node root = metadata.getAsTree(metadata.getNativeMetadataFormatName());
+        long[] xRes = null;
+        long[] yRes = null;
+        Integer resUnit = null;
+        String description = null;
+        for (Node ifd = root.getFirstChild(); ifd != null; ifd = ifd.getNextSibling()) {
+            if (!"TIFFIFD".equals(ifd.getNodeName())) {
+                continue;
+            }
+            for (Node field = ifd.getFirstChild(); field != null; field = field.getNextSibling()) {
+                final String number = attribute(field, "number");
+                final Node values = field.getFirstChild();
+                final Node value = values != null ? values.getFirstChild() : null;
+                if (number == null || value == null) {
+                    continue;
+                }
+                final String text = attribute(value, "value");
+                if (text == null) {
+                    continue;
+                }
+                try {
+                    switch (Integer.parseInt(number)) {
+                        case BaselineTIFFTagSet.TAG_X_RESOLUTION:
+                            xRes = parseRational(text);
+                            break;
+                        case BaselineTIFFTagSet.TAG_Y_RESOLUTION:
+                            yRes = parseRational(text);
+                            break;
+                        case BaselineTIFFTagSet.TAG_RESOLUTION_UNIT:
+                            resUnit = Integer.valueOf(text);
+                            break;
+                        case BaselineTIFFTagSet.TAG_IMAGE_DESCRIPTION:
+                            description = text;
+                            break;
+                        default:
+                    }
+                } catch (final NumberFormatException e) {
+                    throw new IJImageIOException("Invalid TIFF field " + number + " value: " + text, e);
+                }
+            }
+            // Only the first IFD describes the image
+            break;
+        }
+        return createTIFF(xRes, yRes, resUnit, description);
+    }
+
+
+    static ImageCalibration createTIFF(final long[] xRes,
+                                       final long[] yRes,
+                                       final Integer resUnit,
+                                       final String description) throws IJImageIOException {
+        String unit = null;
+        if (resUnit != null) {
+            switch (resUnit) {
+                case 1:
+                    unit = " ";
+                    break;
+                case 2:
+                    unit = "inch";
+                    break;
+                case 3:
+                    unit = "cm";
+                    break;
+                default:
+                    throw new IJImageIOException("Unsupported resolution unit field value: " + resUnit);
+            }
+        }
+        return new ImageCalibration(
+                xRes != null ? xRes[1] / (double) xRes[0] : null,
+                yRes != null ? yRes[1] / (double) yRes[0] : null,
+                unit,
+                description);
+    }
+
+
+    /**
+     * PNG {@code pHYs} chunk: pixels per meter, or only aspect ratio if the unit is unknown.
+     */
+    private static ImageCalibration decodePNG(final IIOMetadata metadata) {
+        final Node pHYs = child(metadata.getAsTree(PNG_FORMAT), "pHYs");
+        if (pHYs == null || !"meter".equals(attribute(pHYs, "unitSpecifier"))) {
+            return null;
+        }
+        return fromDensity(parseDouble(attribute(pHYs, "pixelsPerUnitXAxis")),
+                parseDouble(attribute(pHYs, "pixelsPerUnitYAxis")), 100, "cm");
+    }
+
+
+    /**
+     * JPEG JFIF {@code APP0} segment: pixel density per inch or per centimeter, or only aspect ratio.
+     */
+    private static ImageCalibration decodeJPEG(final IIOMetadata metadata) {
+        final Node jfif = child(child(metadata.getAsTree(JPEG_FORMAT), "JPEGvariety"), "app0JFIF");
+        if (jfif == null) {
+            return null;
+        }
+        final double xDensity = parseDouble(attribute(jfif, "Xdensity"));
+        final double yDensity = parseDouble(attribute(jfif, "Ydensity"));
+        switch (String.valueOf(attribute(jfif, "resUnits"))) {
+            case "1":
+                return fromDensity(xDensity, yDensity, 1, "inch");
+            case "2":
+                return fromDensity(xDensity, yDensity, 1, "cm");
+            default:
+                return null;
+        }
+    }
+
+
+    /**
+     * BMP header: pixels per meter.
+     */
+    private static ImageCalibration decodeBMP(final IIOMetadata metadata) {
+        final Node ppm = child(metadata.getAsTree(BMP_FORMAT), "PixelsPerMeter");
+        if (ppm == null) {
+            return null;
+        }
+        return fromDensity(parseDouble(nodeValue(child(ppm, "X"))), parseDouble(nodeValue(child(ppm, "Y"))),
+                100, "cm");
+    }
+
+
+    /**
+     * Standard metadata: pixel size in millimeters.
+     */
+    private static ImageCalibration decodeStandard(final IIOMetadata metadata) {
+        final Node dimension = child(metadata.getAsTree(IIOMetadataFormatImpl.standardMetadataFormatName),
+                "Dimension");
+        final double width = parseDouble(attribute(child(dimension, "HorizontalPixelSize"), "value"));
+        final double height = parseDouble(attribute(child(dimension, "VerticalPixelSize"), "value"));
+        if (!isValid(width) || !isValid(height)) {
+            return null;
+        }
+        return new ImageCalibration(width / 10, height / 10, "cm", null);
+    }
+
+
+    /**
+     * @param xDensity      pixels per unit length along x axis.
+     * @param yDensity      pixels per unit length along y axis.
+     * @param unitsPerLength number of units in the length the density refers to, for instance, 100 cm per meter.
+     * @param unit          length unit of pixel size.
+     * @return calibration or {@code null} if density is not valid.
+     */
+    private static ImageCalibration fromDensity(final double xDensity,
+                                                final double yDensity,
+                                                final double unitsPerLength,
+                                                final String unit) {
+        if (!isValid(xDensity) || !isValid(yDensity)) {
+            return null;
+        }
+        return new ImageCalibration(unitsPerLength / xDensity, unitsPerLength / yDensity, unit, null);
+    }
+
+
+    private static boolean isValid(final double v) {
+        return v > 0 && !Double.isInfinite(v);
+    }
+
+
+    private static Node child(final Node parent, final String name) {
+        if (parent == null) {
+            return null;
+        }
+        for (Node c = parent.getFirstChild(); c != null; c = c.getNextSibling()) {
+            if (name.equals(c.getNodeName())) {
+                return c;
+            }
+        }
+        return null;
+    }
+
+
+    private static String attribute(final Node node, final String name) {
+        if (node == null || node.getAttributes() == null) {
+            return null;
+        }
+        final Node attribute = node.getAttributes().getNamedItem(name);
+        return attribute != null ? attribute.getNodeValue() : null;
+    }
+
+
+    private static String nodeValue(final Node node) {
+        if (node instanceof IIOMetadataNode) {
+            final Object userObject = ((IIOMetadataNode) node).getUserObject();
+            if (userObject != null) {
+                return userObject.toString();
+            }
+        }
+        return node != null ? node.getNodeValue() : null;
+    }
+
+
+    private static double parseDouble(final String s) {
+        if (s == null) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(s.trim());
+        } catch (final NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+
+    private static long[] parseRational(final String s) {
+        final int slash = s.indexOf('/');
+        return slash < 0
+                ? new long[]{Long.parseLong(s.trim()), 1}
+                : new long[]{Long.parseLong(s.substring(0, slash).trim()), Long.parseLong(s.substring(slash + 1).trim())};
+    }
+}
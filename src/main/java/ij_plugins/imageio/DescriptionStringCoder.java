@@ -1,6 +1,6 @@
 /*
  *  IJ-Plugins ImageIO
- *  Copyright (C) 2002-2021 Jarek Sacha
+ *  Copyright (C) 2002-2026 Jarek Sacha
  *  Author's email: jpsacha at gmail dot com
  *
  *  This library is free software; you can redistribute it and/or
@@ -22,6 +22,7 @@
 
 package ij_plugins.imageio;
 
+import ij.IJ;
 import ij.ImagePlus;
 import ij.io.FileSaver;
 import ij.measure.Calibration;
@@ -73,17 +74,11 @@ public class DescriptionStringCoder {
     @SuppressWarnings("ConstantConditions")
     public static void decode(final String description, final ImagePlus imp) {
 
-        if (description == null || !description.startsWith("ImageJ")) {
+        final Properties props = parse(description);
+        if (props == null) {
             return;
         }
 
-        final Properties props = new Properties();
-        try (InputStream is = new ByteArrayInputStream(description.getBytes())) {
-            props.load(is);
-        } catch (final IOException e) {
-            throw new RuntimeException("Exception reading ByteArrayInputStream, this should never happen. Format error?");
-        }
-
         Calibration cal = imp.getCalibration();
 
         // Load units
@@ -141,6 +136,68 @@ public class DescriptionStringCoder {
     }
 
 
+    /**
+     * Decode hyperstack dimensions saved by ImageJ in the `description` tag of TIFF images.
+     *
+     * @param description Description string.
+     * @return dimensions or {@code null} if the description was not created by ImageJ or does not contain
+     * number of images.
+     */
+    public static Dimensions decodeDimensions(final String description) {
+
+        final Properties props = parse(description);
+        if (props == null) {
+            return null;
+        }
+
+        final Integer images = getInteger(props, "images");
+        if (images == null || images < 1) {
+            return null;
+        }
+        final Integer channels = getInteger(props, "channels");
+        final Integer slices = getInteger(props, "slices");
+        final Integer frames = getInteger(props, "frames");
+        final Boolean hyperstack = getBoolean(props, "hyperstack");
+
+        // Same interpretation of "mode" as ImageJ's Opener
+        final String mode = props.getProperty("mode", "");
+        final int compositeMode;
+        if (mode.startsWith("composite") || mode.startsWith("sum") || mode.startsWith("max")
+                || mode.startsWith("min") || mode.startsWith("inv")) {
+            compositeMode = IJ.COMPOSITE;
+        } else if (mode.startsWith("gray")) {
+            compositeMode = IJ.GRAYSCALE;
+        } else {
+            compositeMode = IJ.COLOR;
+        }
+
+        return new Dimensions(images,
+                channels != null && channels > 0 ? channels : 1,
+                slices != null && slices > 0 ? slices : 1,
+                frames != null && frames > 0 ? frames : 1,
+                hyperstack != null && hyperstack,
+                compositeMode);
+    }
+
+
+    /**
+     * @return properties stored in the description string or {@code null} if it was not created by ImageJ.
+     */
+    private static Properties parse(final String description) {
+
+        if (description == null || !description.startsWith("ImageJ")) {
+            return null;
+        }
+
+        final Properties props = new Properties();
+        try (InputStream is = new ByteArrayInputStream(description.getBytes())) {
+            props.load(is);
+        } catch (final IOException e) {
+            throw new RuntimeException("Exception reading ByteArrayInputStream, this should never happen. Format error?");
+        }
+        return props;
+    }
+
     private static Boolean getBoolean(final Properties props, final String key) {
         final String s = props.getProperty(key);
         if (s != null) {
@@ -192,4 +249,40 @@ public class DescriptionStringCoder {
             }
         }
     }
+
+
+    /**
+     * Hyperstack dimensions stored in ImageJ's description string.
+     */
+    public static final class Dimensions {
+        /**
+         * Total number of images in the file.
+         */
+        public final int nImages;
+        public final int nChannels;
+        public final int nSlices;
+        public final int nFrames;
+        /**
+         * {@code true} if the image was saved as a hyperstack.
+         */
+        public final boolean hyperstack;
+        /**
+         * Display mode of multichannel images: {@link IJ#COMPOSITE}, {@link IJ#COLOR}, or {@link IJ#GRAYSCALE}.
+         */
+        public final int compositeMode;
+
+        public Dimensions(final int nImages,
+                          final int nChannels,
+                          final int nSlices,
+                          final int nFrames,
+                          final boolean hyperstack,
+                          final int compositeMode) {
+            this.nImages = nImages;
+            this.nChannels = nChannels;
+            this.nSlices = nSlices;
+            this.nFrames = nFrames;
+            this.hyperstack = hyperstack;
+            this.compositeMode = compositeMode;
+        }
+    }
 }
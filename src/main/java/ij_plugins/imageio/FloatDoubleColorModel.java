@@ -23,6 +23,7 @@ package ij_plugins.imageio;
 
 import java.awt.color.ColorSpace;
 import java.awt.image.*;
+import java.util.stream.IntStream;
 
 /**
  * <p>
@@ -80,6 +81,11 @@ import java.awt.image.*;
 @SuppressWarnings("WeakerAccess")
 public class FloatDoubleColorModel extends ComponentColorModel {
 
+    /**
+     * Minimum number of pixels for which {@link #render(Raster)} converts rows concurrently.
+     */
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
     /**
      * The associated <code>ColorSpace</code>.
      *
@@ -1083,6 +1089,211 @@ public class FloatDoubleColorModel extends ComponentColorModel {
 //                bandOffsets);
 //    }
 
+    /**
+     * Render a raster using this color model into an image that can be drawn quickly. All pixels are converted in
+     * a single pass, rows of large rasters are converted concurrently. Colors are the same as obtained from
+     * {@link #getRGB(Object)} for each pixel.
+     * <p>
+     * A gray raster without alpha is rendered to an 8-bit indexed image, using the lookup table, if set. Other
+     * rasters are rendered to an RGB or ARGB image.
+     *
+     * @param raster raster compatible with this color model.
+     * @return new image.
+     * @throws IllegalArgumentException if the raster is not compatible with this color model.
+     */
+    public BufferedImage render(final Raster raster) {
+        Validate.notNull(raster, "Argument 'raster' cannot be null.");
+        Validate.isTrue(raster.getTransferType() == transferType && raster.getNumBands() == numComponents,
+                "Raster is not compatible with this color model.");
+
+        final int w = raster.getWidth();
+        final int h = raster.getHeight();
+        final int[][] lut = lookupTables();
+        final boolean direct = (colorSpace.isCS_sRGB() || colorSpaceType == ColorSpace.TYPE_GRAY)
+                && !(hasAlpha && isAlphaPremultiplied);
+
+        if (direct && numColorComponents == 1 && !hasAlpha) {
+            final byte[] indices = new byte[w * h];
+            forEachRowBlock(h, w, (y0, y1) -> {
+                final Object row = createRowBuffer(w);
+                for (int y = y0; y < y1; y++) {
+                    readRow(raster, y, row);
+                    toIndices(row, w, indices, y * w);
+                }
+            });
+            final byte[][] rgb = new byte[3][256];
+            for (int c = 0; c < 3; c++) {
+                for (int i = 0; i < 256; i++) {
+                    rgb[c][i] = (byte) lut[c][i];
+                }
+            }
+            final IndexColorModel icm = new IndexColorModel(8, 256, rgb[0], rgb[1], rgb[2]);
+            final WritableRaster wr = Raster.createInterleavedRaster(
+                    new DataBufferByte(indices, indices.length), w, h, w, 1, new int[]{0}, null);
+            return new BufferedImage(icm, wr, false, null);
+        }
+
+        final BufferedImage image = new BufferedImage(w, h,
+                hasAlpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+        final int[] rgbs = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        forEachRowBlock(h, w, (y0, y1) -> {
+            if (direct) {
+                final Object row = createRowBuffer(w);
+                for (int y = y0; y < y1; y++) {
+                    readRow(raster, y, row);
+                    toRGB(row, w, lut, rgbs, y * w);
+                }
+            } else {
+                // General color space or premultiplied alpha, convert pixel by pixel
+                final int minX = raster.getMinX();
+                final int minY = raster.getMinY();
+                Object pixel = null;
+                for (int y = y0; y < y1; y++) {
+                    for (int x = 0; x < w; x++) {
+                        pixel = raster.getDataElements(minX + x, minY + y, pixel);
+                        rgbs[y * w + x] = getRGB(pixel);
+                    }
+                }
+            }
+        });
+        return image;
+    }
+
+
+    /**
+     * @return lookup table for each color component, identity if {@link #rgbLut} is not set.
+     */
+    private int[][] lookupTables() {
+        final int[][] lut = new int[3][256];
+        for (int c = 0; c < 3; c++) {
+            for (int i = 0; i < 256; i++) {
+                lut[c][i] = lookupColor(i, c);
+            }
+        }
+        return lut;
+    }
+
+
+    private Object createRowBuffer(final int width) {
+        return transferType == DataBuffer.TYPE_FLOAT
+                ? new float[width * numComponents]
+                : new double[width * numComponents];
+    }
+
+
+    /**
+     * Read samples of row {@code y}, relative to the raster origin, interleaved by pixel.
+     */
+    private void readRow(final Raster raster, final int y, final Object row) {
+        final SampleModel sm = raster.getSampleModel();
+        final DataBuffer db = raster.getDataBuffer();
+        final int w = raster.getWidth();
+        if (sm instanceof ComponentSampleModel
+                && (db instanceof DataBufferFloat || db instanceof DataBufferDouble)) {
+            // Copy directly from the data arrays
+            final ComponentSampleModel csm = (ComponentSampleModel) sm;
+            final int[] bankIndices = csm.getBankIndices();
+            final int[] bandOffsets = csm.getBandOffsets();
+            final int pixelStride = csm.getPixelStride();
+            final int x0 = raster.getMinX() - raster.getSampleModelTranslateX();
+            final int y0 = raster.getMinY() - raster.getSampleModelTranslateY() + y;
+            for (int b = 0; b < numComponents; b++) {
+                final int bank = bankIndices[b];
+                int src = db.getOffsets()[bank] + bandOffsets[b] + y0 * csm.getScanlineStride() + x0 * pixelStride;
+                if (db instanceof DataBufferFloat) {
+                    final float[] data = ((DataBufferFloat) db).getData(bank);
+                    final float[] dst = (float[]) row;
+                    for (int x = 0, i = b; x < w; x++, i += numComponents, src += pixelStride) {
+                        dst[i] = data[src];
+                    }
+                } else {
+                    final double[] data = ((DataBufferDouble) db).getData(bank);
+                    final double[] dst = (double[]) row;
+                    for (int x = 0, i = b; x < w; x++, i += numComponents, src += pixelStride) {
+                        dst[i] = data[src];
+                    }
+                }
+            }
+        } else if (row instanceof float[]) {
+            raster.getPixels(raster.getMinX(), raster.getMinY() + y, w, 1, (float[]) row);
+        } else {
+            raster.getPixels(raster.getMinX(), raster.getMinY() + y, w, 1, (double[]) row);
+        }
+    }
+
+
+    /**
+     * Convert a row of gray samples to 8-bit values, same as {@link #getSample(Object, int)} before lookup.
+     */
+    private void toIndices(final Object row, final int width, final byte[] dst, final int offset) {
+        if (row instanceof float[]) {
+            final float[] src = (float[]) row;
+            final float black = (float) blackPoint;
+            final float range = (float) (whitePoint - blackPoint);
+            for (int x = 0; x < width; x++) {
+                dst[offset + x] = (byte) clamp((src[x] - black) / range * 255);
+            }
+        } else {
+            final double[] src = (double[]) row;
+            for (int x = 0; x < width; x++) {
+                dst[offset + x] = (byte) clamp(mapBlackWhite(src[x]) * 255.0);
+            }
+        }
+    }
+
+
+    /**
+     * Convert a row of gray or sRGB samples, with optional non-premultiplied alpha, to packed ARGB values, same as
+     * {@link #getRGB(Object)}.
+     */
+    private void toRGB(final Object row, final int width, final int[][] lut, final int[] dst, final int offset) {
+        final int n = numComponents;
+        final boolean gray = numColorComponents == 1;
+        if (row instanceof float[]) {
+            final float[] src = (float[]) row;
+            final float black = (float) blackPoint;
+            final float range = (float) (whitePoint - blackPoint);
+            for (int x = 0, i = 0; x < width; x++, i += n) {
+                final int alpha = hasAlpha ? (int) (src[i + numColorComponents] * 255.0F + 0.5F) : 255;
+                final int r = clamp((src[i] - black) / range * 255);
+                final int g = gray ? r : clamp((src[i + 1] - black) / range * 255);
+                final int b = gray ? r : clamp((src[i + 2] - black) / range * 255);
+                dst[offset + x] = (alpha << 24) | (lut[0][r] << 16) | (lut[1][g] << 8) | lut[2][b];
+            }
+        } else {
+            final double[] src = (double[]) row;
+            for (int x = 0, i = 0; x < width; x++, i += n) {
+                final int alpha = hasAlpha ? (int) (src[i + numColorComponents] * 255.0 + 0.5) : 255;
+                final int r = clamp(mapBlackWhite(src[i]) * 255.0);
+                final int g = gray ? r : clamp(mapBlackWhite(src[i + 1]) * 255.0);
+                final int b = gray ? r : clamp(mapBlackWhite(src[i + 2]) * 255.0);
+                dst[offset + x] = (alpha << 24) | (lut[0][r] << 16) | (lut[1][g] << 8) | lut[2][b];
+            }
+        }
+    }
+
+
+    private interface RowBlock {
+        void process(int y0, int y1);
+    }
+
+
+    /**
+     * Process rows in blocks, concurrently if there are enough pixels to benefit from it.
+     */
+    private static void forEachRowBlock(final int height, final int width, final RowBlock block) {
+        final int blocks = (long) width * height < PARALLEL_THRESHOLD
+                ? 1
+                : Math.min(height, 4 * Runtime.getRuntime().availableProcessors());
+        if (blocks <= 1) {
+            block.process(0, height);
+        } else {
+            IntStream.range(0, blocks).parallel().forEach(i ->
+                    block.process((int) ((long) i * height / blocks), (int) ((long) (i + 1) * height / blocks)));
+        }
+    }
+
+
     /**
      * Checks whether or not the specified <code>SampleModel</code> is
      * compatible with this <code>ColorModel</code>.  A
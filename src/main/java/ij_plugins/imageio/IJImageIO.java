@@ -21,9 +21,11 @@
  */
 package ij_plugins.imageio;
 
+import ij.CompositeImage;
 import ij.IJ;
 import ij.ImagePlus;
 import ij.ImageStack;
+import ij.measure.Calibration;
 import ij.process.ImageProcessor;
 
 import javax.imageio.*;
@@ -58,6 +60,11 @@ public class IJImageIO {
 
     public static final String PREFERRED_SPI_VENDOR = "github.com/jai-imageio";
     private final static boolean useOneBitCompressionDefault = BufferedImageFactory.useOneBitCompressionDefault;
+    private static volatile ProgressSink progressSink;
+    private static volatile ReadLimits readLimits = ReadLimits.DEFAULT;
+    private static volatile boolean directTIFFReading = true;
+    private static volatile boolean directTIFFWriting = true;
+    private static volatile int regionReadingThreads;
 
     static {
         // Try to register all available ImageIO SPIs
@@ -119,6 +126,107 @@ public class IJImageIO {
         return extensions.toArray(new String[0]);
     }
 
+    /**
+     * Set the sink receiving progress of reading and writing, and deciding on cancellation.
+     *
+     * @param sink progress sink, if {@code null} the default is restored: {@link IJProgressSink} when ImageJ is
+     *             running, otherwise {@link ProgressSink#NONE}.
+     */
+    public static void setProgressSink(final ProgressSink sink) {
+        progressSink = sink;
+    }
+
+    /**
+     * @return current progress sink.
+     * @see #setProgressSink(ProgressSink)
+     */
+    public static ProgressSink getProgressSink() {
+        final ProgressSink sink = progressSink;
+        if (sink != null) {
+            return sink;
+        }
+        return IJ.getInstance() != null ? IJProgressSink.INSTANCE : ProgressSink.NONE;
+    }
+
+    /**
+     * Set limits checked before and while decoding images, protecting against files that would not fit in memory.
+     *
+     * @param limits read limits, if {@code null} {@link ReadLimits#DEFAULT} is used.
+     */
+    public static void setReadLimits(final ReadLimits limits) {
+        readLimits = limits != null ? limits : ReadLimits.DEFAULT;
+    }
+
+    /**
+     * @return current read limits.
+     * @see #setReadLimits(ReadLimits)
+     */
+    public static ReadLimits getReadLimits() {
+        return readLimits;
+    }
+
+    /**
+     * Enable reading of 8-bit, 16-bit, and float TIFF images, uncompressed or compressed with LZW, Deflate, or
+     * PackBits, directly into ImageJ pixel arrays, bypassing ImageIO. Strips or tiles of large pages are
+     * decompressed concurrently. Other files, and all files when disabled, are read using ImageIO.
+     * Enabled by default. Direct reading is not used when complete metadata are requested,
+     * see {@link MetadataPolicy#ALL}.
+     *
+     * @param enabled {@code true} to enable direct reading.
+     */
+    public static void setDirectTIFFReading(final boolean enabled) {
+        directTIFFReading = enabled;
+    }
+
+    /**
+     * @return {@code true} if uncompressed TIFF images can be read without ImageIO.
+     * @see #setDirectTIFFReading(boolean)
+     */
+    public static boolean isDirectTIFFReading() {
+        return directTIFFReading;
+    }
+
+    /**
+     * Enable writing of uncompressed TIFF images directly from ImageJ pixel arrays, bypassing ImageIO.
+     * Used by {@link #writeAsTiff(ImagePlus, File, String)} when no compression is requested, for 8-bit, 16-bit,
+     * 32-bit, and RGB images. Enabled by default.
+     *
+     * @param enabled {@code true} to enable direct writing.
+     */
+    public static void setDirectTIFFWriting(final boolean enabled) {
+        directTIFFWriting = enabled;
+    }
+
+    /**
+     * @return {@code true} if uncompressed TIFF images can be written without ImageIO.
+     * @see #setDirectTIFFWriting(boolean)
+     */
+    public static boolean isDirectTIFFWriting() {
+        return directTIFFWriting;
+    }
+
+    /**
+     * Set number of threads used to decode a single large page read using ImageIO. The page is split into regions
+     * aligned with its tiles or strips, each thread decodes some of the regions with its own reader.
+     * Helps with large tiled images, like tiled TIFF or JPEG 2000, and with TIFF stored in strips.
+     * Pages that are not tiled, like PNG or JPEG, and small pages are always decoded by a single thread.
+     * Disabled by default.
+     *
+     * @param threads number of threads, 0 or 1 to disable parallel decoding of a page.
+     */
+    public static void setRegionReadingThreads(final int threads) {
+        Validate.isTrue(threads >= 0, "Number of threads cannot be negative, got %d.", threads);
+        regionReadingThreads = threads;
+    }
+
+    /**
+     * @return number of threads used to decode a single large page, 0 or 1 if disabled.
+     * @see #setRegionReadingThreads(int)
+     */
+    public static int getRegionReadingThreads() {
+        return regionReadingThreads;
+    }
+
     /**
      * Read image from file using using {@code javax.imageio} and convert it to ImageJ representation. All
      * images contained in the file ill be read.
@@ -150,28 +258,192 @@ public class IJImageIO {
     public static ImagePlus[] read(final File file,
                                    final boolean combineStacks,
                                    final int[] pageIndex) throws IJImageIOException {
+        // Only calibration of the first image in a stack is used when stacks are combined
+        return read(file, combineStacks, pageIndex,
+                combineStacks ? MetadataPolicy.STACK_CALIBRATION : MetadataPolicy.CALIBRATION);
+    }
 
-        // FIXME: for TIFF images read description and decode stored information, like calibration, etc.
+    /**
+     * Read image from file using using {@code javax.imageio} and convert it to ImageJ representation.
+     *
+     * @param file           input image file.
+     * @param combineStacks  if {@code true} series of images of the same type and size will be combined into stacks (single ImagePlus).
+     * @param pageIndex      index of pages to read from the file. if {@code null} all pages will be read.
+     * @param metadataPolicy what metadata are read, calibration is not set with {@link MetadataPolicy#NONE}.
+     * @return Array of images read from the file.
+     * @throws IJImageIOException when images cannot be read or represented as ImagePlus.
+     * @see #read(File, boolean, int[])
+     */
+    public static ImagePlus[] read(final File file,
+                                   final boolean combineStacks,
+                                   final int[] pageIndex,
+                                   final MetadataPolicy metadataPolicy) throws IJImageIOException {
+
+        final List<ImagePlus> images = new ArrayList<>();
+        final List<ImageCalibration> calibrations = new ArrayList<>();
+        readImages(file, pageIndex, metadataPolicy, images, calibrations);
+
+        return combineStacks
+                ? attemptToCombineStacks(images, calibrations, true)
+                : images.toArray(new ImagePlus[0]);
+    }
+
+    /**
+     * Read a subset of an ImageJ hyperstack saved with its dimensions in the description string, for instance,
+     * a single channel of all frames. Only pages of the selected channels, slices, and frames are decoded.
+     * <p>
+     * Indices are 1-based, as in ImageJ. For a range of indices use, for instance,
+     * {@code IntStream.rangeClosed(100, 200).toArray()}.
+     *
+     * @param file     input image file.
+     * @param channels indices of channels to read, {@code null} to read all channels.
+     * @param slices   indices of slices to read, {@code null} to read all slices.
+     * @param frames   indices of frames to read, {@code null} to read all frames.
+     * @return hyperstack with selected channels, slices, and frames.
+     * @throws IJImageIOException when the file does not contain hyperstack dimensions, or images cannot be read.
+     * @see #readDimensions(File)
+     */
+    public static ImagePlus readHyperstack(final File file,
+                                           final int[] channels,
+                                           final int[] slices,
+                                           final int[] frames) throws IJImageIOException {
+
+        final ImageCalibration calibration = readFirstCalibration(file);
+        final DescriptionStringCoder.Dimensions dims = calibration != null
+                ? DescriptionStringCoder.decodeDimensions(calibration.description)
+                : null;
+        if (dims == null) {
+            throw new IJImageIOException("File does not contain ImageJ hyperstack dimensions: " + file.getAbsolutePath());
+        }
+
+        final int[] c = selection(channels, dims.nChannels, "channel");
+        final int[] z = selection(slices, dims.nSlices, "slice");
+        final int[] t = selection(frames, dims.nFrames, "frame");
+
+        // ImageJ saves hyperstack pages in "czt" order
+        final int[] pageIndex = new int[c.length * z.length * t.length];
+        int i = 0;
+        for (final int ti : t) {
+            for (final int zi : z) {
+                for (final int ci : c) {
+                    pageIndex[i++] = ((ti - 1) * dims.nSlices + (zi - 1)) * dims.nChannels + (ci - 1);
+                }
+            }
+        }
+
+        final List<ImagePlus> images = new ArrayList<>();
+        final List<ImageCalibration> calibrations = new ArrayList<>();
+        readImages(file, pageIndex, MetadataPolicy.NONE, images, calibrations);
+        // Calibration of the hyperstack is stored with the first page, that may not be selected
+        calibration.applyTo(images.get(0));
+
+        final ImagePlus[] imps = attemptToCombineStacks(images, calibrations, false);
+        if (imps.length != 1) {
+            throw new IJImageIOException("Hyperstack pages differ in size or type: " + file.getAbsolutePath());
+        }
+        return toHyperstack(imps[0], new DescriptionStringCoder.Dimensions(pageIndex.length,
+                c.length, z.length, t.length, true, dims.compositeMode));
+    }
+
+    /**
+     * Read hyperstack dimensions saved by ImageJ in the description string. Only metadata of the first image are
+     * read.
+     *
+     * @param file input image file.
+     * @return dimensions or {@code null} if the file does not contain ImageJ's description string.
+     * @throws IJImageIOException when metadata cannot be read.
+     * @see #readHyperstack(File, int[], int[], int[])
+     */
+    public static DescriptionStringCoder.Dimensions readDimensions(final File file) throws IJImageIOException {
+        final ImageCalibration calibration = readFirstCalibration(file);
+        return calibration != null ? DescriptionStringCoder.decodeDimensions(calibration.description) : null;
+    }
+
+    /**
+     * Read images, directly if the file is a supported TIFF, otherwise using ImageIO.
+     *
+     * @param images       receives images read from the file.
+     * @param calibrations receives calibration of each image, {@code null} if not present or not read.
+     */
+    private static void readImages(final File file,
+                                   final int[] pageIndex,
+                                   final MetadataPolicy metadataPolicy,
+                                   final List<ImagePlus> images,
+                                   final List<ImageCalibration> calibrations) throws IJImageIOException {
+        Validate.notNull(metadataPolicy, "Argument 'metadataPolicy' cannot be null.");
+        if (file == null) {
+            throw new IllegalArgumentException("Argument 'file' cannot be null.");
+        }
+
+        if (directTIFFReading && metadataPolicy != MetadataPolicy.ALL
+                && RawTIFFReader.read(file, pageIndex, metadataPolicy, readLimits, images, calibrations)) {
+            return;
+        }
 
         // Load images
-        final List<ImageAndMetadata> ims = readAsBufferedImages(file, pageIndex);
+        final List<ImageAndMetadata> ims = readAsBufferedImages(file, pageIndex, metadataPolicy);
 
         // Convert to ImageJ representation
-        final List<ImagePlus> images = new ArrayList<>();
-        for (final ImageAndMetadata im : ims) {
+        toImagePlus(file, ims, pageIndex, images, calibrations);
+    }
+
+    private static void toImagePlus(final File file,
+                                    final List<ImageAndMetadata> ims,
+                                    final int[] pageIndex,
+                                    final List<ImagePlus> images,
+                                    final List<ImageCalibration> calibrations) throws IJImageIOException {
+        for (int i = 0; i < ims.size(); i++) {
+            final ImageAndMetadata im = ims.get(i);
+            final IJImageIOEvents.CreateImagePlus event = new IJImageIOEvents.CreateImagePlus();
+            event.begin();
             final ImagePlus imp;
+            final ImageCalibration calibration = im.calibration != null
+                    ? im.calibration
+                    : ImageCalibration.from(im.metadata);
             try {
-                imp = ImagePlusFactory.create(file.getName(), im);
+                imp = ImagePlusFactory.create(file.getName(), im.image);
             } catch (final IJImageIOException e) {
                 throw new IJImageIOException("Unable to convert loaded image to ImagePlus. " + e.getMessage(), e);
             }
+            if (calibration != null) {
+                calibration.applyTo(imp);
+            }
+            if (im.subsampling > 1) {
+                // Pixels of subsampled image are proportionally larger
+                final Calibration cal = imp.getCalibration();
+                cal.pixelWidth *= im.subsampling;
+                cal.pixelHeight *= im.subsampling;
+                imp.setCalibration(cal);
+            }
+            if (event.shouldCommit()) {
+                event.file = file.getPath();
+                event.page = pageIndex != null ? pageIndex[i] : i;
+                event.width = imp.getWidth();
+                event.height = imp.getHeight();
+                event.bytes = (long) imp.getSizeInBytes();
+                event.imageType = imp.getType();
+                event.commit();
+            }
             // Add converted to the list
             images.add(imp);
+            calibrations.add(calibration);
         }
+    }
 
-        return combineStacks
-                ? attemptToCombineStacks(images)
-                : images.toArray(new ImagePlus[0]);
+    private static int[] selection(final int[] indices, final int size, final String name) {
+        if (indices == null) {
+            final int[] all = new int[size];
+            for (int i = 0; i < size; i++) {
+                all[i] = i + 1;
+            }
+            return all;
+        }
+        Validate.isTrue(indices.length > 0, "At least one %s has to be selected.", name);
+        for (final int index : indices) {
+            Validate.isTrue(index >= 1 && index <= size,
+                    "Index of %s has to be between 1 and %d, got %d.", name, size, index);
+        }
+        return indices;
     }
 
     /**
@@ -217,7 +489,24 @@ public class IJImageIO {
      */
     public static List<ImageAndMetadata> readAsBufferedImages(final File file,
                                                               final int[] pageIndex) throws IJImageIOException {
+        return readAsBufferedImages(file, pageIndex, MetadataPolicy.ALL);
+    }
+
+    /**
+     * Read images from file using using {@code javax.imageio}.
+     *
+     * @param file           input image file.
+     * @param pageIndex      index of pages to read from the file. if {@code null} all pages will be read.
+     * @param metadataPolicy what metadata are read with each image.
+     * @return images read from the file, with metadata or calibration depending on {@code metadataPolicy}.
+     * @throws IJImageIOException when I/O error occurs.
+     */
+    public static List<ImageAndMetadata> readAsBufferedImages(final File file,
+                                                              final int[] pageIndex,
+                                                              final MetadataPolicy metadataPolicy)
+            throws IJImageIOException {
 
+        Validate.notNull(metadataPolicy, "Argument 'metadataPolicy' cannot be null.");
         if (file == null) {
             throw new IllegalArgumentException("Argument 'file' cannot be null.");
         }
@@ -226,7 +515,7 @@ public class IJImageIO {
 
         try {
             // Locate all available readers
-            final List<ImageReader> readerList = getImageReaders(iis);
+            final List<ImageReader> readerList = getImageReaders(iis, file);
 
             // Try available readers till one of them reads images with no errors
             final StringBuilder errorBuffer = new StringBuilder();
@@ -234,10 +523,20 @@ public class IJImageIO {
             for (int i = 0; bufferedImages == null && i < readerList.size(); i++) {
                 final ImageReader reader = readerList.get(i);
                 IJImageIO.logDebug("Using reader: " + reader.getClass().getName());
+                final long start = System.nanoTime();
+                boolean failed = true;
                 try {
-                    bufferedImages = read(reader, iis, pageIndex);
+                    bufferedImages = read(reader, iis, pageIndex, metadataPolicy, file);
+                    failed = false;
+                } catch (final IJImageIOCancelledException | IJImageIOLimitException ex) {
+                    // Other readers will not do better
+                    throw ex;
                 } catch (final Exception ex) {
                     errorBuffer.append(reader.getClass().getName()).append(": ").append(ex.getMessage()).append("\n");
+                } finally {
+                    IJImageIOMetrics.record(IJImageIOMetrics.Operation.READ, reader.getOriginatingProvider(),
+                            System.nanoTime() - start, file.length(),
+                            failed ? 0 : pixelCount(bufferedImages), failed);
                 }
             }
 
@@ -266,27 +565,76 @@ public class IJImageIO {
      * @throws IJImageIOException In case of I/O error.
      */
     public static ImageInfo readPreviewAndInfo(final File file) throws IJImageIOException {
+        return readPreviewAndInfo(file, null);
+    }
 
+    /**
+     * Read only the first image in the <code>file</code>, reporting progress to given listener.
+     * <p>
+     * The listener is attached to each reader that is tried. It receives the {@link ImageReader} in its callbacks,
+     * so it can stop decoding of a preview that is no longer needed by calling {@link ImageReader#abort()}.
+     *
+     * @param file     Image file.
+     * @param listener read progress listener, can be {@code null}.
+     * @return ImageInfo object.
+     * @throws IJImageIOException In case of I/O error.
+     */
+    public static ImageInfo readPreviewAndInfo(final File file,
+                                               final IIOReadProgressListener listener) throws IJImageIOException {
+        return readPreviewAndInfo(file, Integer.MAX_VALUE, Integer.MAX_VALUE, listener);
+    }
+
+    /**
+     * Read a preview of the first image in the <code>file</code>, decoded at reduced resolution.
+     * <p>
+     * If the file contains an embedded thumbnail it is used as a preview. Otherwise, the first image is decoded with
+     * subsampling chosen so that the preview is not smaller than {@code maxWidth} x {@code maxHeight}, only every
+     * n-th pixel and n-th line is decoded. Readers are tried in order returned by
+     * {@link #getImageReaders(ImageInputStream)}, the first one that succeeds is used.
+     * <p>
+     * Number of pages in the file is not determined when it would require scanning the whole file, see
+     * {@link ImageInfo#getNumberOfPages()}.
+     *
+     * @param file      Image file.
+     * @param maxWidth  desired preview width.
+     * @param maxHeight desired preview height.
+     * @param listener  read progress listener, can be {@code null}.
+     * @return ImageInfo object.
+     * @throws IJImageIOException In case of I/O error.
+     */
+    public static ImageInfo readPreviewAndInfo(final File file,
+                                               final int maxWidth,
+                                               final int maxHeight,
+                                               final IIOReadProgressListener listener) throws IJImageIOException {
 
         if (file == null) {
             throw new IllegalArgumentException("Argument 'file' cannot be null.");
         }
+        Validate.isTrue(maxWidth > 0 && maxHeight > 0,
+                "Preview size must be positive, got %d x %d.", maxWidth, maxHeight);
 
         final ImageInputStream iis = createImageInputStream(file);
 
         try {
             // Locate all available readers
-            final List<ImageReader> readerList = getImageReaders(iis);
+            final List<ImageReader> readerList = getImageReaders(iis, file);
 
             // Try available readers till one of them reads images with no errors
             final StringBuilder errorBuffer = new StringBuilder();
             ImageInfo imageInfo = null;
-            for (final ImageReader reader : readerList) {
+            for (int i = 0; imageInfo == null && i < readerList.size(); i++) {
+                final ImageReader reader = readerList.get(i);
                 IJImageIO.logDebug("Using reader: " + reader.getClass().getName());
+                if (listener != null) {
+                    reader.addIIOReadProgressListener(listener);
+                }
                 try {
-                    imageInfo = readInfo(reader, iis);
+                    imageInfo = readInfo(reader, iis, maxWidth, maxHeight);
+                    imageInfo.file = file;
                 } catch (final Exception ex) {
                     errorBuffer.append(reader.getClass().getName()).append(": ").append(ex.getMessage()).append("\n");
+                } finally {
+                    reader.dispose();
                 }
             }
 
@@ -307,6 +655,67 @@ public class IJImageIO {
 
     }
 
+    /**
+     * Read a preview of a single page in the <code>file</code>, decoded at reduced resolution.
+     * <p>
+     * The page is decoded with subsampling chosen so that the preview is not smaller than {@code maxWidth} x
+     * {@code maxHeight}, other pages are not decoded.
+     *
+     * @param file      Image file.
+     * @param pageIndex index of the page to read, first page has index 0.
+     * @param maxWidth  desired preview width.
+     * @param maxHeight desired preview height.
+     * @return subsampled image.
+     * @throws IJImageIOException In case of I/O error.
+     * @see #readPreviewAndInfo(File, int, int, IIOReadProgressListener)
+     */
+    public static BufferedImage readPreview(final File file,
+                                            final int pageIndex,
+                                            final int maxWidth,
+                                            final int maxHeight) throws IJImageIOException {
+
+        if (file == null) {
+            throw new IllegalArgumentException("Argument 'file' cannot be null.");
+        }
+        Validate.isTrue(pageIndex >= 0, "Page index cannot be negative, got %d.", pageIndex);
+        Validate.isTrue(maxWidth > 0 && maxHeight > 0,
+                "Preview size must be positive, got %d x %d.", maxWidth, maxHeight);
+
+        return readWithFirstReader(file, true, "Unable to read page " + pageIndex + " from file",
+                reader -> readSubsampled(reader, reader.getMinIndex() + pageIndex, maxWidth, maxHeight));
+    }
+
+    /**
+     * Count images in the file. This may require reading the whole file, for instance, to locate all directories
+     * in a TIFF file, but no pixel data are decoded.
+     *
+     * @param file Image file.
+     * @return number of images in the file.
+     * @throws IJImageIOException In case of I/O error.
+     */
+    public static int readNumberOfPages(final File file) throws IJImageIOException {
+
+        if (file == null) {
+            throw new IllegalArgumentException("Argument 'file' cannot be null.");
+        }
+
+        return readWithFirstReader(file, true, "Unable to count images in file",
+                reader -> reader.getNumImages(true) - reader.getMinIndex());
+    }
+
+    /**
+     * Read calibration of the first image in the file, no pixel data are decoded.
+     */
+    private static ImageCalibration readFirstCalibration(final File file) throws IJImageIOException {
+
+        if (file == null) {
+            throw new IllegalArgumentException("Argument 'file' cannot be null.");
+        }
+
+        return readWithFirstReader(file, false, "Unable to read metadata from file",
+                reader -> ImageCalibration.from(reader.getImageMetadata(reader.getMinIndex())));
+    }
+
     public static void write(final ImagePlus imp,
                              final File file,
                              final ImageWriterSpi imageWriterSpi) throws IJImageIOException {
@@ -437,6 +846,16 @@ public class IJImageIO {
         Validate.notNull(writer, "Argument 'format' cannot be null");
 
 
+        final long start = System.nanoTime();
+        boolean failed = true;
+        final ProgressSink sink = getProgressSink();
+        final ProgressTracker tracker = sink != ProgressSink.NONE
+                ? new ProgressTracker(sink, "Writing", file, images.length, ProgressTracker.sizeInBytes(images))
+                : null;
+        if (tracker != null) {
+            writer.addIIOWriteProgressListener(tracker);
+        }
+
         try (ImageOutputStream outputStream = new FileImageOutputStream(file)) {
 
             writer.setOutput(outputStream);
@@ -447,22 +866,37 @@ public class IJImageIO {
 
 
             if (images.length == 1) {
-                final IIOImage iioImage = new IIOImage(images[0], null, metadata);
-                writer.write(null, iioImage, parameters);
+                if (tracker == null || !tracker.checkpoint(0)) {
+                    final IIOImage iioImage = new IIOImage(images[0], null, metadata);
+                    final IJImageIOEvents.WriteImage event = new IJImageIOEvents.WriteImage();
+                    event.begin();
+                    final long position = outputStream.getStreamPosition();
+                    writer.write(null, iioImage, parameters);
+                    commit(event, file, writer, 0, images[0], outputStream.getStreamPosition() - position);
+                }
             } else {
 
                 writer.prepareWriteSequence(metadata);
                 boolean firstImage = true;
-                for (BufferedImage image : images) {
+                for (int i = 0; i < images.length; i++) {
+                    final BufferedImage image = images[i];
+                    if (tracker != null && tracker.checkpoint(i)) {
+                        break;
+                    }
                     IIOMetadata m = firstImage ? metadata : null;
                     final IIOImage iioImage = new IIOImage(image, null, m);
                     firstImage = false;
 
                     // Write image
+                    final IJImageIOEvents.WriteImage event = new IJImageIOEvents.WriteImage();
+                    event.begin();
+                    final long position = outputStream.getStreamPosition();
                     writer.writeToSequence(iioImage, parameters);
+                    commit(event, file, writer, i, image, outputStream.getStreamPosition() - position);
                 }
                 writer.endWriteSequence();
             }
+            failed = false;
 
         } catch (final FileNotFoundException ex) {
             throw new IJImageIOException("Error creating file output stream '" + file.getAbsolutePath() + ". "
@@ -471,8 +905,22 @@ public class IJImageIO {
         } catch (final IOException ex) {
             throw new IJImageIOException("Error writing image to file '" + file.getAbsolutePath() + ". "
                     + ex.getMessage(), ex);
+        } finally {
+            if (tracker != null) {
+                writer.removeIIOWriteProgressListener(tracker);
+                tracker.finish();
+            }
+            failed = failed || (tracker != null && tracker.isAborted());
+            IJImageIOMetrics.record(IJImageIOMetrics.Operation.WRITE, writer.getOriginatingProvider(),
+                    System.nanoTime() - start, file.length(), failed ? 0 : pixelCount(images), failed);
         }
 
+        if (tracker != null && tracker.isAborted()) {
+            if (!file.delete()) {
+                logDebug("Failed to delete partially written file: " + file.getAbsolutePath());
+            }
+            throw new IJImageIOCancelledException("Writing of '" + file.getName() + "' cancelled.");
+        }
     }
 
     /**
@@ -515,11 +963,20 @@ public class IJImageIO {
      *                    If empty or {@code none}, no compression is used
      * @throws IJImageIOException writing fails or file format is not supported.
      * @see IJImageIO#getTIFFCompressionTypes()
+     * @see #setDirectTIFFWriting(boolean)
      */
     public static void writeAsTiff(final ImagePlus image,
                                    final File file,
                                    final String compression) throws IJImageIOException {
 
+        if (directTIFFWriting && (compression == null || compression.isEmpty())) {
+            Validate.notNull(image, "Argument 'image' cannot be null");
+            Validate.notNull(file, "Argument 'file' cannot be null");
+            if (RawTIFFWriter.write(image, file)) {
+                return;
+            }
+        }
+
         final BufferedImage[] images = BufferedImageFactory.createFrom(image);
         final IIOMetadata metadata = TiffMetaDataFactory.createFrom(image);
         writeAsTiff(images, file, compression, metadata);
@@ -590,6 +1047,52 @@ public class IJImageIO {
         return getTIFFWriter().getDefaultWriteParam().getCompressionTypes();
     }
 
+    /**
+     * Apply {@code function} to readers of the {@code file}, in order returned by
+     * {@link #getImageReaders(ImageInputStream)}, till it succeeds for one of them. All readers are disposed.
+     *
+     * @param file           image file.
+     * @param ignoreMetadata passed to {@link ImageReader#setInput(Object, boolean, boolean)}.
+     * @param failure        beginning of the error message when the function fails for all readers.
+     * @param function       applied to a reader with input set.
+     * @return value returned by the function.
+     * @throws IJImageIOException if the file cannot be opened or the function failed for all readers.
+     */
+    static <T> T readWithFirstReader(final File file,
+                                     final boolean ignoreMetadata,
+                                     final String failure,
+                                     final ReaderFunction<T> function) throws IJImageIOException {
+
+        final ImageInputStream iis = createImageInputStream(file);
+
+        List<ImageReader> readerList = Collections.emptyList();
+        try {
+            readerList = getImageReaders(iis, file);
+            final StringBuilder errorBuffer = new StringBuilder();
+            for (final ImageReader reader : readerList) {
+                try {
+                    iis.seek(0);
+                    reader.setInput(iis, false, ignoreMetadata);
+                    return function.apply(reader);
+                } catch (final Exception ex) {
+                    errorBuffer.append(reader.getClass().getName()).append(": ").append(ex.getMessage()).append("\n");
+                }
+            }
+            throw new IJImageIOException(failure + ": " + file.getAbsoluteFile() + ". " + errorBuffer);
+        } finally {
+            for (final ImageReader reader : readerList) {
+                reader.dispose();
+            }
+            try {
+                iis.close();
+            } catch (final IOException e) {
+                final String message = "Failed to close image input stream. " + e.getMessage();
+                e.printStackTrace();
+                logDebug(message);
+            }
+        }
+    }
+
     private static ImageInputStream createImageInputStream(File file) throws IJImageIOException {
         final ImageInputStream iis;
         try {
@@ -613,6 +1116,31 @@ public class IJImageIO {
      * @throws IJImageIOException if no readers are found.
      */
     public static List<ImageReader> getImageReaders(ImageInputStream iis) throws IJImageIOException {
+        return getImageReaders(iis, null);
+    }
+
+    private static List<ImageReader> getImageReaders(final ImageInputStream iis, final File file)
+            throws IJImageIOException {
+        final IJImageIOEvents.GetImageReaders event = new IJImageIOEvents.GetImageReaders();
+        event.begin();
+        final List<ImageReader> readers = findImageReaders(iis);
+        if (event.shouldCommit()) {
+            if (file != null) {
+                event.file = file.getPath();
+                event.bytes = file.length();
+            }
+            event.readerCount = readers.size();
+            final StringJoiner names = new StringJoiner(", ");
+            for (final ImageReader reader : readers) {
+                names.add(IJImageIOEvents.className(reader));
+            }
+            event.readers = names.toString();
+            event.commit();
+        }
+        return readers;
+    }
+
+    private static List<ImageReader> findImageReaders(final ImageInputStream iis) throws IJImageIOException {
         final Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
         final List<ImageReader> preferredReaders = new ArrayList<>();
         final List<ImageReader> otherReaders = new ArrayList<>();
@@ -637,7 +1165,9 @@ public class IJImageIO {
 
     private static List<ImageAndMetadata> read(final ImageReader reader,
                                                final ImageInputStream iis,
-                                               int[] pageIndex)
+                                               int[] pageIndex,
+                                               final MetadataPolicy metadataPolicy,
+                                               final File file)
             throws IJImageIOException {
 
         //                iis.reset();
@@ -646,54 +1176,123 @@ public class IJImageIO {
         } catch (final IOException e) {
             throw new IJImageIOException("Unable to reset input stream to position 0. ", e);
         }
-        reader.setInput(iis, false, false);
+        reader.setInput(iis, false, metadataPolicy == MetadataPolicy.NONE);
 
-        // How many images are in the file and what is the first image index
-        final int numImages;
-//        reader.addIIOReadProgressListener(new ProgressListener(numImages));
-        try {
-            numImages = reader.getNumImages(true);
-        } catch (final IOException e) {
-            throw new IJImageIOException("Failed to retrieve number of images in the file. ", e);
-        }
+        // Check number of pages and elapsed time before searching the whole file for pages
+        final long start = System.nanoTime();
         final int minIndex = reader.getMinIndex();
-
         if (pageIndex == null) {
-            pageIndex = new int[numImages - minIndex];
-            for (int i = minIndex; i < numImages; ++i) {
-                pageIndex[i] = i;
+            final int numImages = ReadAdmission.countPages(reader, file, readLimits, start);
+            pageIndex = new int[numImages];
+            for (int i = 0; i < numImages; ++i) {
+                pageIndex[i] = minIndex + i;
             }
         }
 
+        // Check size of decoded images and number of pages before decoding anything
+        final ReadAdmission admission = ReadAdmission.admit(reader, pageIndex, file, readLimits, start);
+        final ImageReadParam readParam = admission.readParam();
+        if (admission.getSubsampling() > 1) {
+            logDebug("Reading '" + file.getName() + "' with subsampling " + admission.getSubsampling()
+                    + " to fit within memory limit.");
+        }
+
+        final ProgressSink sink = getProgressSink();
+        final ProgressTracker tracker = sink != ProgressSink.NONE
+                ? new ProgressTracker(sink, "Reading", file, pageIndex.length, file.length())
+                : null;
+        if (tracker != null) {
+            reader.addIIOReadProgressListener(tracker);
+        }
+
         // Read each image and add it to list 'images'
         final List<ImageAndMetadata> images = new ArrayList<>();
-        for (int i = 0; i < pageIndex.length; i++) {
-            IJ.showProgress(i, pageIndex.length);
-
-            final BufferedImage bi;
-            final IIOMetadata md;
-            try {
-                bi = reader.read(i);
-                md = reader.getImageMetadata(i);
-            } catch (final IOException e) {
-                throw new IJImageIOException("Error reading image with internal index " + i
-                        + ". Min internal index is " + minIndex + ". " + e.getMessage(), e);
-            }
+        try (admission) {
+            for (int i = 0; i < pageIndex.length; i++) {
+                final int index = pageIndex[i];
+                if (tracker != null && tracker.checkpoint(i)) {
+                    throw new IJImageIOCancelledException("Reading of '" + file.getName() + "' cancelled.");
+                }
+                final BufferedImage bi;
+                final IIOMetadata md;
+                try {
+                    final IJImageIOEvents.ReadImage readEvent = new IJImageIOEvents.ReadImage();
+                    readEvent.begin();
+                    admission.checkTime();
+                    final BufferedImage regions = regionReadingThreads > 1 && admission.getSubsampling() == 1
+                            ? RegionReader.read(reader, file, index, regionReadingThreads, admission, tracker)
+                            : null;
+                    bi = regions != null ? regions : reader.read(index, readParam);
+                    admission.checkTime();
+                    if (readEvent.shouldCommit()) {
+                        readEvent.file = file.getPath();
+                        readEvent.format = IJImageIOEvents.formatName(reader.getOriginatingProvider());
+                        readEvent.page = index;
+                        readEvent.width = bi.getWidth();
+                        readEvent.height = bi.getHeight();
+                        readEvent.bytes = IJImageOUtils.sizeInBytes(bi);
+                        readEvent.reader = IJImageIOEvents.className(reader);
+                        readEvent.commit();
+                    }
 
-//            // Read metadata for this image
-//            final ImageReadParam imageReadParam = reader.getDefaultReadParam();
-//            final IIOImage a = reader.readAll(j, imageReadParam);
-//            final IIOMetadata metadata = a.getMetadata();
+                    final boolean needsMetadata;
+                    switch (metadataPolicy) {
+                        case ALL:
+                        case CALIBRATION:
+                            needsMetadata = true;
+                            break;
+                        case STACK_CALIBRATION:
+                            needsMetadata = images.isEmpty() || !isStackable(images.get(images.size() - 1).image, bi);
+                            break;
+                        default:
+                            needsMetadata = false;
+                    }
+                    if (needsMetadata) {
+                        final IJImageIOEvents.ReadMetadata metadataEvent = new IJImageIOEvents.ReadMetadata();
+                        metadataEvent.begin();
+                        md = reader.getImageMetadata(index);
+                        if (metadataEvent.shouldCommit()) {
+                            metadataEvent.file = file.getPath();
+                            metadataEvent.format = IJImageIOEvents.formatName(reader.getOriginatingProvider());
+                            metadataEvent.page = index;
+                            metadataEvent.metadata = IJImageIOEvents.className(md);
+                            metadataEvent.reader = IJImageIOEvents.className(reader);
+                            metadataEvent.commit();
+                        }
+                    } else {
+                        md = null;
+                    }
+                } catch (final IOException e) {
+                    // Decoder may fail after being aborted
+                    admission.checkTime();
+                    throw new IJImageIOException("Error reading image with internal index " + index
+                            + ". Min internal index is " + minIndex + ". " + e.getMessage(), e);
+                }
+                if (tracker != null && tracker.isAborted()) {
+                    throw new IJImageIOCancelledException("Reading of '" + file.getName() + "' cancelled.");
+                }
 
-            images.add(new ImageAndMetadata(bi, md));
-            IJ.showProgress(i + 1, pageIndex.length);
+                if (metadataPolicy == MetadataPolicy.ALL) {
+                    images.add(new ImageAndMetadata(bi, md, null, admission.getSubsampling()));
+                } else {
+                    // Keep only compact calibration, metadata of this page can be garbage collected
+                    images.add(new ImageAndMetadata(bi, null, ImageCalibration.from(md), admission.getSubsampling()));
+                }
+            }
+        } finally {
+            if (tracker != null) {
+                reader.removeIIOReadProgressListener(tracker);
+                tracker.finish();
+            }
         }
 
         return images;
     }
 
     private static ImageInfo readInfo(final ImageReader reader,
-                                      final ImageInputStream iis)
+                                      final ImageInputStream iis,
+                                      final int maxWidth,
+                                      final int maxHeight)
             throws IJImageIOException {
 
         //                iis.reset();
@@ -702,16 +1301,22 @@ public class IJImageIO {
         } catch (final IOException e) {
             throw new IJImageIOException("Unable to reset input stream to position 0. ", e);
         }
-        reader.setInput(iis, false, false);
+        // Metadata are not needed for a preview
+        reader.setInput(iis, false, true);
 
         final ImageInfo imageInfo = new ImageInfo();
         try {
-            imageInfo.numberOfPages = reader.getNumImages(true);
+            // Do not search the whole file only to count the images, it will be done on demand
+            final int numImages = reader.getNumImages(false);
+            imageInfo.numberOfPages = numImages < 0 ? -1 : numImages - reader.getMinIndex();
             imageInfo.codecName = reader.getFormatName();
-            if (reader.hasThumbnails(0)) {
-                imageInfo.previewImage = reader.readThumbnail(0, 0);
+            final int imageIndex = reader.getMinIndex();
+            imageInfo.width = reader.getWidth(imageIndex);
+            imageInfo.height = reader.getHeight(imageIndex);
+            if (reader.hasThumbnails(imageIndex)) {
+                imageInfo.previewImage = reader.readThumbnail(imageIndex, 0);
             } else {
-                imageInfo.previewImage = reader.read(0);
+                imageInfo.previewImage = readSubsampled(reader, imageIndex, maxWidth, maxHeight);
             }
         } catch (final IOException ex) {
             throw new IJImageIOException(ex);
@@ -720,14 +1325,39 @@ public class IJImageIO {
         return imageInfo;
     }
 
+    /**
+     * Decode every n-th pixel and line of an image, so the result is not smaller than {@code maxWidth} x
+     * {@code maxHeight}.
+     */
+    private static BufferedImage readSubsampled(final ImageReader reader,
+                                                final int imageIndex,
+                                                final int maxWidth,
+                                                final int maxHeight) throws IOException {
+        final ImageReadParam param = reader.getDefaultReadParam();
+        final int period = Math.max(1,
+                Math.min(reader.getWidth(imageIndex) / maxWidth, reader.getHeight(imageIndex) / maxHeight));
+        if (period > 1) {
+            param.setSourceSubsampling(period, period, 0, 0);
+        }
+        return reader.read(imageIndex, param);
+    }
+
     /**
      * Attempts to combine images on the list into a stack.
      * Images cannot be combined if they are of different types or different sizes.
+     * If the first image of a stack has ImageJ's description with hyperstack dimensions matching the stack size,
+     * the stack is returned as a hyperstack, or a {@link CompositeImage} if it has multiple channels.
      *
-     * @param imageList List of images to combine into a stack.
+     * @param imageList         List of images to combine into a stack.
+     * @param calibrations      calibration of each image in {@code imageList}, {@code null} if not present.
+     * @param restoreDimensions if {@code true} hyperstack dimensions are restored from the description string.
      * @return Combined image stacks.
+     * @throws IJImageIOException if metadata contain invalid calibration.
      */
-    private static ImagePlus[] attemptToCombineStacks(final List<ImagePlus> imageList) {
+    private static ImagePlus[] attemptToCombineStacks(final List<ImagePlus> imageList,
+                                                      final List<ImageCalibration> calibrations,
+                                                      final boolean restoreDimensions)
+            throws IJImageIOException {
 
         final List<ImagePlus> result = new ArrayList<>();
         int sourceIndex = 0;
@@ -736,16 +1366,31 @@ public class IJImageIO {
             final int chainLength = stackableChain(imageList, sourceIndex);
 
             // Combine
-            final ImagePlus imp = imageList.get(sourceIndex);
+            ImagePlus imp = imageList.get(sourceIndex);
             if (chainLength > 1) {
-                final ImageStack stack = imp.getStack();
-                for (int i = sourceIndex + 1; i < sourceIndex + chainLength; ++i) {
+                // Size the stack up front, pixel arrays are shared not copied
+                int size = 0;
+                for (int i = sourceIndex; i < sourceIndex + chainLength; ++i) {
+                    size += imageList.get(i).getStackSize();
+                }
+                final ImageStack stack = new ImageStack(imp.getWidth(), imp.getHeight(), size);
+                stack.setColorModel(imp.getStack().getColorModel());
+                int n = 1;
+                for (int i = sourceIndex; i < sourceIndex + chainLength; ++i) {
                     final ImageStack s2 = imageList.get(i).getStack();
                     for (int s2i = 1; s2i <= s2.getSize(); s2i++) {
-                        stack.addSlice(s2.getSliceLabel(s2i), s2.getProcessor(s2i));
+                        stack.setPixels(s2.getPixels(s2i), n);
+                        stack.setSliceLabel(s2.getSliceLabel(s2i), n);
+                        n++;
                     }
                 }
                 imp.setStack(imp.getTitle(), stack);
+                if (restoreDimensions) {
+                    final ImageCalibration calibration = calibrations.get(sourceIndex);
+                    imp = toHyperstack(imp, calibration != null
+                            ? DescriptionStringCoder.decodeDimensions(calibration.description)
+                            : null);
+                }
             }
 
             // Add to output
@@ -756,6 +1401,25 @@ public class IJImageIO {
         return result.toArray(new ImagePlus[0]);
     }
 
+    /**
+     * Set dimensions of a stack, when present and consistent with the stack size.
+     */
+    private static ImagePlus toHyperstack(final ImagePlus imp, final DescriptionStringCoder.Dimensions dims) {
+        if (dims == null || (long) dims.nChannels * dims.nSlices * dims.nFrames != imp.getStackSize()) {
+            return imp;
+        }
+
+        imp.setDimensions(dims.nChannels, dims.nSlices, dims.nFrames);
+        if (dims.hyperstack) {
+            imp.setOpenAsHyperStack(true);
+        }
+        if (dims.nChannels > 1 && imp.getBitDepth() != 24) {
+            // CompositeImage uses the stack of the source image as is
+            return new CompositeImage(imp, dims.compositeMode);
+        }
+        return imp;
+    }
+
     private static int stackableChain(final List<ImagePlus> imageList, final int startIndex) {
         if (imageList.size() <= startIndex || startIndex < 0) {
             return 0;
@@ -783,13 +1447,62 @@ public class IJImageIO {
         return count;
     }
 
+    /**
+     * Conservative test that images will be converted to ImagePlus of the same size and type, so can be combined
+     * into a stack.
+     *
+     * @see #stackableChain(List, int)
+     */
+    private static boolean isStackable(final BufferedImage a, final BufferedImage b) {
+        return a.getWidth() == b.getWidth()
+                && a.getHeight() == b.getHeight()
+                && a.getType() == b.getType()
+                && a.getSampleModel().getDataType() == b.getSampleModel().getDataType()
+                && a.getSampleModel().getNumBands() == b.getSampleModel().getNumBands()
+                && Objects.equals(a.getColorModel(), b.getColorModel());
+    }
+
+    private static long pixelCount(final List<ImageAndMetadata> images) {
+        long n = 0;
+        for (final ImageAndMetadata im : images) {
+            n += (long) im.image.getWidth() * im.image.getHeight();
+        }
+        return n;
+    }
+
+    private static long pixelCount(final BufferedImage[] images) {
+        long n = 0;
+        for (final BufferedImage image : images) {
+            n += (long) image.getWidth() * image.getHeight();
+        }
+        return n;
+    }
+
+    private static void commit(final IJImageIOEvents.WriteImage event,
+                               final File file,
+                               final ImageWriter writer,
+                               final int page,
+                               final BufferedImage image,
+                               final long bytes) {
+        if (event.shouldCommit()) {
+            event.file = file.getPath();
+            event.format = IJImageIOEvents.formatName(writer.getOriginatingProvider());
+            event.page = page;
+            event.width = image.getWidth();
+            event.height = image.getHeight();
+            event.bytes = bytes;
+            event.writer = IJImageIOEvents.className(writer);
+            event.commit();
+        }
+    }
+
     /**
      * Helper method to print log message using {@link ij.IJ#log} when {@link ij.IJ#debugMode} is
      * set to <code>true</code>.
      *
      * @param message log message
      */
-    private static void logDebug(final String message) {
+    static void logDebug(final String message) {
         if (IJ.debugMode) {
             IJ.log(message);
         }
@@ -797,85 +1510,105 @@ public class IJImageIO {
 
     public static class ImageAndMetadata {
         public final BufferedImage image;
+        /**
+         * Image metadata, {@code null} if not retained.
+         *
+         * @see MetadataPolicy
+         */
         public final IIOMetadata metadata;
+        /**
+         * Calibration extracted from metadata, {@code null} if not extracted or not present.
+         *
+         * @see MetadataPolicy
+         */
+        public final ImageCalibration calibration;
+        /**
+         * Every n-th pixel and line of the source was decoded, 1 when the image is at full resolution.
+         *
+         * @see ReadLimits.Policy#SUBSAMPLE
+         */
+        public final int subsampling;
 
         public ImageAndMetadata(BufferedImage bi, IIOMetadata md) {
+            this(bi, md, null, 1);
+        }
+
+        public ImageAndMetadata(BufferedImage bi, IIOMetadata md, ImageCalibration calibration, int subsampling) {
             this.image = bi;
             this.metadata = md;
+            this.calibration = calibration;
+            this.subsampling = subsampling;
         }
     }
 
-    private static final class ProgressListener implements IIOReadProgressListener {
-
-        final private int numberOfImages;
-
-
-        private ProgressListener(int numberOfImages) {
-            this.numberOfImages = numberOfImages;
-        }
-
-
-        @Override
-        public void sequenceStarted(ImageReader source, int minIndex) {
-            System.out.println("IJImageIO.sequenceStarted");
-        }
-
-
-        @Override
-        public void sequenceComplete(ImageReader source) {
-            System.out.println("IJImageIO.sequenceComplete");
-        }
-
-
-        @Override
-        public void imageStarted(ImageReader source, int imageIndex) {
-            System.out.println("IJImageIO.imageStarted: " + imageIndex);
-        }
-
-
-        @Override
-        public void imageProgress(ImageReader source, float percentageDone) {
-            System.out.println("IJImageIO.imageProgress: " + percentageDone);
-        }
-
-
-        @Override
-        public void imageComplete(ImageReader source) {
-            System.out.println("IJImageIO.imageComplete");
-        }
-
-
-        @Override
-        public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) {
-            System.out.println("IJImageIO.thumbnailStarted");
-        }
-
-
-        @Override
-        public void thumbnailProgress(ImageReader source, float percentageDone) {
-            System.out.println("IJImageIO.thumbnailProgress: " + percentageDone);
-        }
-
-
-        @Override
-        public void thumbnailComplete(ImageReader source) {
-            System.out.println("IJImageIO.thumbnailComplete");
-        }
-
+    /**
+     * Function applied to an image reader with input set, see {@link #readWithFirstReader(File, boolean, String,
+     * ReaderFunction)}.
+     */
+    interface ReaderFunction<T> {
+        T apply(ImageReader reader) throws IOException, IJImageIOException;
+    }
 
-        @Override
-        public void readAborted(ImageReader source) {
-            System.out.println("IJImageIO.readAborted");
-        }
+    /**
+     * What metadata is read with images. Complete metadata of each page can be large, for instance, for TIFF files
+     * each page has its own directory of tags.
+     */
+    public enum MetadataPolicy {
+        /**
+         * Keep complete metadata of each page.
+         */
+        ALL,
+        /**
+         * Extract calibration of each page into {@link ImageCalibration}, metadata are not kept.
+         */
+        CALIBRATION,
+        /**
+         * Extract calibration of the first page, and of following pages that differ from the previous page in size
+         * or type, so start a new stack. Metadata are not kept.
+         */
+        STACK_CALIBRATION,
+        /**
+         * Ignore metadata, the reader is told to skip them.
+         */
+        NONE
     }
 
     /*
      *  Basic image information including first image in the file.
      */
     public static class ImageInfo {
+        /**
+         * Preview of the first image, it may be a thumbnail or a subsampled image.
+         */
         public Image previewImage;
+        /**
+         * Number of images in the file or {@code -1} if it was not determined yet.
+         *
+         * @see #getNumberOfPages()
+         */
         public int numberOfPages;
         public String codecName;
+        /**
+         * Size of the first image in the file, it may be different from size of the {@link #previewImage}.
+         */
+        public int width;
+        public int height;
+
+        private File file;
+
+        /**
+         * Number of images in the file. If it was not determined when the preview was read, the file will be
+         * scanned to count the images.
+         *
+         * @return number of images in the file.
+         * @throws IJImageIOException In case of I/O error.
+         */
+        public synchronized int getNumberOfPages() throws IJImageIOException {
+            if (numberOfPages < 0 && file != null) {
+                numberOfPages = readNumberOfPages(file);
+            }
+            return numberOfPages;
+        }
     }
 
 
@@ -0,0 +1,217 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio;
+
+import jdk.jfr.*;
+
+/**
+ * Java Flight Recorder events emitted by IJP-ImageIO, one event type per processing stage.
+ * <p>
+ * Events are committed only when a recording with the event enabled is running. Fields are filled after
+ * {@link Event#shouldCommit()} returns {@code true}, so when recording is off the cost is an object allocation
+ * that the JIT compiler can eliminate.
+ *
+ * @author Jarek Sacha
+ */
+final class IJImageIOEvents {
+
+    private static final String CATEGORY = "IJP-ImageIO";
+
+    private IJImageIOEvents() {
+    }
+
+    /**
+     * @return name of the class of a reader or writer, {@code null} if argument is {@code null}.
+     */
+    static String className(final Object codec) {
+        return codec != null ? codec.getClass().getName() : null;
+    }
+
+    /**
+     * @return the first format name of the codec's service provider, or {@code null}.
+     */
+    static String formatName(final javax.imageio.spi.ImageReaderWriterSpi spi) {
+        if (spi == null) {
+            return null;
+        }
+        final String[] names = spi.getFormatNames();
+        return names != null && names.length > 0 ? names[0] : null;
+    }
+
+    @Name("ij_plugins.imageio.GetImageReaders")
+    @Label("Get Image Readers")
+    @Description("Locating ImageIO readers able to decode a file")
+    @Category(CATEGORY)
+    static final class GetImageReaders extends Event {
+        @Label("File")
+        String file;
+
+        @Label("File Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Number of Readers")
+        int readerCount;
+
+        @Label("Reader Classes")
+        String readers;
+    }
+
+    @Name("ij_plugins.imageio.ReadImage")
+    @Label("Read Image")
+    @Description("Decoding of a single image (page) using ImageReader.read")
+    @Category(CATEGORY)
+    static final class ReadImage extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Format")
+        String format;
+
+        @Label("Page")
+        int page;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+
+        @Label("Decoded Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Reader Class")
+        String reader;
+    }
+
+    @Name("ij_plugins.imageio.ReadMetadata")
+    @Label("Read Metadata")
+    @Description("Reading metadata of a single image (page) using ImageReader.getImageMetadata")
+    @Category(CATEGORY)
+    static final class ReadMetadata extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Format")
+        String format;
+
+        @Label("Page")
+        int page;
+
+        @Label("Metadata Class")
+        String metadata;
+
+        @Label("Reader Class")
+        String reader;
+    }
+
+    @Name("ij_plugins.imageio.CreateImagePlus")
+    @Label("Create ImagePlus")
+    @Description("Conversion of a decoded image to ImagePlus using ImagePlusFactory.create")
+    @Category(CATEGORY)
+    static final class CreateImagePlus extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Page")
+        int page;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+
+        @Label("Image Size")
+        @DataAmount
+        long bytes;
+
+        @Label("ImageJ Image Type")
+        int imageType;
+    }
+
+    @Name("ij_plugins.imageio.CreateBufferedImages")
+    @Label("Create BufferedImages")
+    @Description("Conversion of ImagePlus to BufferedImages using BufferedImageFactory.createFrom")
+    @Category(CATEGORY)
+    static final class CreateBufferedImages extends Event {
+        @Label("Image Title")
+        String title;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+
+        @Label("Number of Images")
+        int count;
+
+        @Label("Image Size")
+        @DataAmount
+        long bytes;
+    }
+
+    @Name("ij_plugins.imageio.CreateTiffMetadata")
+    @Label("Create TIFF Metadata")
+    @Description("Creation of TIFF metadata for an ImagePlus using TiffMetaDataFactory.createFrom")
+    @Category(CATEGORY)
+    static final class CreateTiffMetadata extends Event {
+        @Label("Image Title")
+        String title;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+    }
+
+    @Name("ij_plugins.imageio.WriteImage")
+    @Label("Write Image")
+    @Description("Encoding of a single image (page) using ImageWriter.write or ImageWriter.writeToSequence")
+    @Category(CATEGORY)
+    static final class WriteImage extends Event {
+        @Label("File")
+        String file;
+
+        @Label("Format")
+        String format;
+
+        @Label("Page")
+        int page;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+
+        @Label("Encoded Size")
+        @DataAmount
+        long bytes;
+
+        @Label("Writer Class")
+        String writer;
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio;
+
+import ij.IJ;
+
+import javax.imageio.spi.ImageReaderWriterSpi;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregate statistics of reading and writing done by {@link IJImageIO}, per operation and reader/writer SPI:
+ * counts, bytes, pixels, failures, and latency histograms. Statistics are always collected, recording is lock-free.
+ * <p>
+ * Statistics are also available through JMX as MBean {@value #OBJECT_NAME}.
+ * <pre>
+ *     for (IJImageIOMetrics.Statistics s : IJImageIOMetrics.getStatistics()) {
+ *         System.out.println(s.getOperation() + " " + s.getFormat() + ": " + s.getCount() + ", p99 "
+ *                 + s.getLatencyP99Millis() + " ms");
+ *     }
+ * </pre>
+ *
+ * @author Jarek Sacha
+ */
+public final class IJImageIOMetrics {
+
+    /**
+     * Name under which the metrics MBean is registered in the platform MBean server.
+     */
+    public static final String OBJECT_NAME = "ij_plugins.imageio:type=Metrics";
+
+    /**
+     * Measured operation.
+     */
+    public enum Operation {
+        /**
+         * Reading of images from a file with a reader.
+         */
+        READ,
+        /**
+         * Writing of images to a file with a writer.
+         */
+        WRITE
+    }
+
+    private static final Map<Key, Recorder> RECORDERS = new ConcurrentHashMap<>();
+
+    static {
+        registerMBean();
+    }
+
+    private IJImageIOMetrics() {
+    }
+
+
+    /**
+     * @return snapshot of statistics for all operations and codecs that were used so far.
+     */
+    public static List<Statistics> getStatistics() {
+        final List<Statistics> result = new ArrayList<>();
+        for (final Map.Entry<Key, Recorder> e : RECORDERS.entrySet()) {
+            result.add(e.getValue().snapshot(e.getKey()));
+        }
+        result.sort((a, b) -> {
+            final int c = a.operation.compareTo(b.operation);
+            return c != 0 ? c : a.spi.compareTo(b.spi);
+        });
+        return result;
+    }
+
+
+    /**
+     * Clear all statistics.
+     */
+    public static void reset() {
+        RECORDERS.clear();
+    }
+
+
+    /**
+     * Record single operation.
+     *
+     * @param operation    operation.
+     * @param spi          service provider of the reader or writer used, can be {@code null}.
+     * @param elapsedNanos duration of the operation.
+     * @param bytes        size of the file read or written.
+     * @param pixels       number of pixels read or written, in all images.
+     * @param failed       {@code true} if operation failed.
+     */
+    static void record(final Operation operation,
+                       final ImageReaderWriterSpi spi,
+                       final long elapsedNanos,
+                       final long bytes,
+                       final long pixels,
+                       final boolean failed) {
+        record(operation, spi != null ? spi.getClass().getName() : "unknown", IJImageIOEvents.formatName(spi),
+                elapsedNanos, bytes, pixels, failed);
+    }
+
+
+    /**
+     * Record an operation of a codec that does not have a service provider.
+     */
+    static void record(final Operation operation,
+                       final String codec,
+                       final String format,
+                       final long elapsedNanos,
+                       final long bytes,
+                       final long pixels,
+                       final boolean failed) {
+        final Key key = new Key(operation, codec, format);
+        RECORDERS.computeIfAbsent(key, k -> new Recorder()).record(elapsedNanos, bytes, pixels, failed);
+    }
+
+
+    private static void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new MXBeanImpl(), new ObjectName(OBJECT_NAME));
+        } catch (final Exception | LinkageError e) {
+            // For instance, already registered by another class loader
+            if (IJ.debugMode) {
+                IJ.log("Failed to register MBean " + OBJECT_NAME + ". " + e.getMessage());
+            }
+        }
+    }
+
+
+    /**
+     * Statistics of one operation and one reader/writer.
+     */
+    public static final class Statistics {
+        private final Operation operation;
+        private final String spi;
+        private final String format;
+        private final long count;
+        private final long failures;
+        private final long bytes;
+        private final long pixels;
+        private final long totalNanos;
+        private final double meanNanos;
+        private final long p50Nanos;
+        private final long p90Nanos;
+        private final long p99Nanos;
+        private final long maxNanos;
+
+
+        Statistics(final Operation operation, final String spi, final String format, final long count,
+                   final long failures, final long bytes, final long pixels, final long totalNanos,
+                   final LatencyHistogram histogram) {
+            this.operation = operation;
+            this.spi = spi;
+            this.format = format;
+            this.count = count;
+            this.failures = failures;
+            this.bytes = bytes;
+            this.pixels = pixels;
+            this.totalNanos = totalNanos;
+            this.meanNanos = histogram.getMean();
+            this.p50Nanos = histogram.getValueAtPercentile(50);
+            this.p90Nanos = histogram.getValueAtPercentile(90);
+            this.p99Nanos = histogram.getValueAtPercentile(99);
+            this.maxNanos = histogram.getMax();
+        }
+
+        public String getOperation() {
+            return operation.name();
+        }
+
+        /**
+         * @return class name of the reader or writer service provider.
+         */
+        public String getSpi() {
+            return spi;
+        }
+
+        /**
+         * @return the first format name of the service provider, may be {@code null}.
+         */
+        public String getFormat() {
+            return format;
+        }
+
+        /**
+         * @return number of operations, including failed ones.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        public long getFailures() {
+            return failures;
+        }
+
+        /**
+         * @return total size of files read or written successfully.
+         */
+        public long getBytes() {
+            return bytes;
+        }
+
+        /**
+         * @return total number of pixels read or written successfully.
+         */
+        public long getPixels() {
+            return pixels;
+        }
+
+        /**
+         * @return throughput of successful operations, in megabytes (2^20 bytes) per second.
+         */
+        public double getMegabytesPerSecond() {
+            return totalNanos > 0 ? bytes * 1e9 / totalNanos / (1024 * 1024) : 0;
+        }
+
+        public double getLatencyMeanMillis() {
+            return meanNanos / 1e6;
+        }
+
+        public double getLatencyP50Millis() {
+            return p50Nanos / 1e6;
+        }
+
+        public double getLatencyP90Millis() {
+            return p90Nanos / 1e6;
+        }
+
+        public double getLatencyP99Millis() {
+            return p99Nanos / 1e6;
+        }
+
+        public double getLatencyMaxMillis() {
+            return maxNanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return operation + " " + format + " [" + spi + "]: count=" + count + ", failures=" + failures
+                    + ", bytes=" + bytes + ", pixels=" + pixels + ", p50=" + getLatencyP50Millis()
+                    + "ms, p99=" + getLatencyP99Millis() + "ms";
+        }
+    }
+
+
+    private static final class Key {
+        final Operation operation;
+        final String spi;
+        final String format;
+
+        Key(final Operation operation, final String spi, final String format) {
+            this.operation = operation;
+            this.spi = spi;
+            this.format = format;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key key = (Key) o;
+            return operation == key.operation && spi.equals(key.spi);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * operation.hashCode() + spi.hashCode();
+        }
+    }
+
+
+    private static final class Recorder {
+        final LongAdder count = new LongAdder();
+        final LongAdder failures = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder pixels = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        void record(final long elapsedNanos, final long bytes, final long pixels, final boolean failed) {
+            count.increment();
+            latency.record(elapsedNanos);
+            if (failed) {
+                failures.increment();
+            } else {
+                this.bytes.add(bytes);
+                this.pixels.add(pixels);
+                nanos.add(elapsedNanos);
+            }
+        }
+
+        Statistics snapshot(final Key key) {
+            return new Statistics(key.operation, key.spi, key.format, count.sum(), failures.sum(), bytes.sum(),
+                    pixels.sum(), nanos.sum(), latency);
+        }
+    }
+
+
+    private static final class MXBeanImpl implements IJImageIOMetricsMXBean {
+        @Override
+        public List<Statistics> getStatistics() {
+            return IJImageIOMetrics.getStatistics();
+        }
+
+        @Override
+        public void reset() {
+            IJImageIOMetrics.reset();
+        }
+    }
+}
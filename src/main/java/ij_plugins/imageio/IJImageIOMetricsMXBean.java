@@ -0,0 +1,43 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio;
+
+import java.util.List;
+
+/**
+ * JMX view of {@link IJImageIOMetrics}.
+ *
+ * @author Jarek Sacha
+ */
+public interface IJImageIOMetricsMXBean {
+
+    /**
+     * @return statistics per operation and reader/writer.
+     * @see IJImageIOMetrics#getStatistics()
+     */
+    List<IJImageIOMetrics.Statistics> getStatistics();
+
+    /**
+     * Clear all statistics.
+     */
+    void reset();
+}
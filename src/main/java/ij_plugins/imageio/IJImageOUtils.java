@@ -34,6 +34,7 @@ import javax.imageio.ImageIO;
 import javax.imageio.ImageWriter;
 import javax.imageio.spi.IIORegistry;
 import javax.imageio.spi.ImageWriterSpi;
+import java.awt.image.BufferedImage;
 import java.awt.image.ColorModel;
 import java.awt.image.IndexColorModel;
 import java.util.ArrayList;
@@ -207,4 +208,15 @@ final public class IJImageOUtils {
     }
 
 
+
+    /**
+     * @return size of uncompressed pixel data of the image, in bytes.
+     */
+    static long sizeInBytes(final BufferedImage image) {
+        long bitsPerPixel = 0;
+        for (final int s : image.getSampleModel().getSampleSize()) {
+            bitsPerPixel += s;
+        }
+        return bitsPerPixel * image.getWidth() * image.getHeight() / 8;
+    }
 }
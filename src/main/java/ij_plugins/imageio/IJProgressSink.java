@@ -0,0 +1,75 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio;
+
+import ij.IJ;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shows progress in ImageJ status bar and progress bar, cancellation is requested by pressing Esc.
+ * Updates are throttled, so frequent progress notifications from codecs do not slow down reading and writing.
+ * <p>
+ * The Esc flag is not reset by this sink, it should be reset by the command that starts reading or writing,
+ * see {@link IJ#resetEscape()}.
+ *
+ * @author Jarek Sacha
+ */
+public final class IJProgressSink implements ProgressSink {
+
+    /**
+     * Shared instance.
+     */
+    public static final IJProgressSink INSTANCE = new IJProgressSink();
+
+    private static final long UPDATE_INTERVAL_NANOS = 100_000_000L;
+
+    private final AtomicLong lastUpdate = new AtomicLong();
+
+
+    private IJProgressSink() {
+    }
+
+
+    @Override
+    public void update(final Progress progress) {
+        final long now = System.nanoTime();
+        final long last = lastUpdate.get();
+        if (now - last < UPDATE_INTERVAL_NANOS || !lastUpdate.compareAndSet(last, now)) {
+            return;
+        }
+        IJ.showStatus(progress.toString() + " (Esc to cancel)");
+        IJ.showProgress(progress.fraction);
+    }
+
+
+    @Override
+    public void finished(final Progress progress) {
+        IJ.showProgress(1.0);
+    }
+
+
+    @Override
+    public boolean isCancelRequested() {
+        return IJ.escapePressed();
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import ij.ImagePlus;
+import ij.measure.Calibration;
+
+import javax.imageio.metadata.IIOMetadata;
+
+/**
+ * Spatial calibration extracted from image metadata, a compact alternative to keeping complete metadata of each
+ * image. Values that are not present in the metadata are {@code null}.
+ *
+ * @author Jarek Sacha
+ * @see IJImageIO.MetadataPolicy
+ */
+public final class ImageCalibration {
+
+    /**
+     * Pixel width in {@link #unit}s.
+     */
+    public final Double pixelWidth;
+    /**
+     * Pixel height in {@link #unit}s.
+     */
+    public final Double pixelHeight;
+    /**
+     * Length unit.
+     */
+    public final String unit;
+    /**
+     * ImageJ's image description string, containing calibration and display range.
+     *
+     * @see DescriptionStringCoder
+     */
+    public final String description;
+
+
+    public ImageCalibration(final Double pixelWidth,
+                            final Double pixelHeight,
+                            final String unit,
+                            final String description) {
+        this.pixelWidth = pixelWidth;
+        this.pixelHeight = pixelHeight;
+        this.unit = unit;
+        this.description = description;
+    }
+
+
+    /**
+     * Extract calibration from image metadata. TIFF, PNG, JPEG, and BMP metadata are decoded from their native
+     * format, other formats from the standard metadata format, when supported.
+     *
+     * @param metadata image metadata, can be {@code null}.
+     * @return calibration or {@code null} if metadata are {@code null} or do not contain calibration.
+     * @throws IJImageIOException if metadata contain invalid calibration.
+     */
+    public static ImageCalibration from(final IIOMetadata metadata) throws IJImageIOException {
+        return CalibrationDecoders.decode(metadata);
+    }
+
+
+    /**
+     * Set calibration of an image. Values stored in ImageJ's description string take precedence.
+     *
+     * @param imp image to update.
+     */
+    public void applyTo(final ImagePlus imp) {
+        final Calibration cal = imp.getCalibration();
+        if (pixelWidth != null) {
+            cal.pixelWidth = pixelWidth;
+        }
+        if (pixelHeight != null) {
+            cal.pixelHeight = pixelHeight;
+        }
+        if (unit != null) {
+            cal.setUnit(unit);
+        }
+        imp.setCalibration(cal);
+
+        if (description != null) {
+            DescriptionStringCoder.decode(description, imp);
+        }
+    }
+
+
+    @Override
+    public String toString() {
+        return "ImageCalibration{"
+                + "pixelWidth=" + pixelWidth
+                + ", pixelHeight=" + pixelHeight
+                + ", unit='" + unit + '\''
+                + ", description=" + (description != null ? "'" + description.replace("\n", "\\n") + "'" : "null")
+                + '}';
+    }
+}
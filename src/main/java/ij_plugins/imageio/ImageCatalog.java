@@ -0,0 +1,476 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import ij.measure.ResultsTable;
+
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import java.awt.image.DataBuffer;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Catalogs image files reading only their headers: image size, pixel type, number of pages, codec, and calibration
+ * of the first page. No pixel data are decoded, so large directories can be cataloged quickly, files are scanned
+ * concurrently.
+ * <p>
+ * Example:
+ * <pre>
+ *     List&lt;File&gt; files = BatchConverter.listFiles(dir, BatchConverter.globFilter("*.tif"), true);
+ *     List&lt;ImageCatalog.Entry&gt; catalog = ImageCatalog.scan(files, 8, null);
+ *     ImageCatalog.writeCSV(catalog, new File("catalog.csv"));
+ * </pre>
+ * The catalog can be also created from command line, see {@link #main(String[])}.
+ *
+ * @author Jarek Sacha
+ */
+public final class ImageCatalog {
+
+    private static final String[] COLUMNS = {
+            "File", "Size [B]", "Format", "Reader", "Pages", "Width", "Height", "Bands", "Bits per pixel",
+            "Data type", "Pixel width", "Pixel height", "Unit", "Channels", "Slices", "Frames", "Error"};
+
+    private ImageCatalog() {
+    }
+
+
+    /**
+     * Scan files. Blocks till all files are scanned. Failure to read a file header does not stop processing
+     * of other files, it is reported in the file's entry.
+     *
+     * @param files           files to scan.
+     * @param numberOfThreads number of files scanned concurrently.
+     * @param listener        notified after each file is scanned, can be {@code null}. Notifications come from
+     *                        worker threads.
+     * @return catalog entries in the same order as {@code files}.
+     * @throws InterruptedException if the calling thread was interrupted while waiting for the scan.
+     */
+    public static List<Entry> scan(final List<File> files,
+                                   final int numberOfThreads,
+                                   final BatchConverter.Listener listener) throws InterruptedException {
+        Validate.notNull(files, "Argument 'files' cannot be null");
+        Validate.isTrue(numberOfThreads > 0, "Number of threads must be positive, got %d.", numberOfThreads);
+
+        final int total = files.size();
+        final AtomicInteger done = new AtomicInteger();
+        final List<Callable<Entry>> tasks = new ArrayList<>(total);
+        for (final File file : files) {
+            tasks.add(() -> {
+                final Entry entry = scan(file);
+                if (listener != null) {
+                    listener.fileProcessed(file, entry.error, done.incrementAndGet(), total);
+                }
+                return entry;
+            });
+        }
+
+        final AtomicInteger threadCount = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(numberOfThreads, r -> {
+            final Thread thread = new Thread(r, "IJP-ImageIO catalog " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            final List<Entry> result = new ArrayList<>(total);
+            for (final Future<Entry> future : executor.invokeAll(tasks)) {
+                try {
+                    result.add(future.get());
+                } catch (final ExecutionException e) {
+                    // scan(File) reports errors in the entry
+                    throw new IllegalStateException("Unexpected error while scanning files.", e.getCause());
+                }
+            }
+            return Collections.unmodifiableList(result);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+
+    /**
+     * Read header of a single file.
+     *
+     * @param file file to scan.
+     * @return catalog entry, if the header could not be read it contains only the error message.
+     */
+    public static Entry scan(final File file) {
+        Validate.notNull(file, "Argument 'file' cannot be null");
+
+        try {
+            return IJImageIO.readWithFirstReader(file, false, "Unable to read header of file",
+                    reader -> scan(file, reader));
+        } catch (final IJImageIOException e) {
+            return new Entry(file, e.getMessage().trim());
+        }
+    }
+
+
+    private static Entry scan(final File file, final ImageReader reader) throws IOException, IJImageIOException {
+        final int minIndex = reader.getMinIndex();
+        int numImages = reader.getNumImages(false);
+        if (numImages < 0) {
+            numImages = reader.getNumImages(true);
+        }
+
+        final int width = reader.getWidth(minIndex);
+        final int height = reader.getHeight(minIndex);
+
+        ImageTypeSpecifier type = reader.getRawImageType(minIndex);
+        if (type == null) {
+            final Iterator<ImageTypeSpecifier> types = reader.getImageTypes(minIndex);
+            type = types != null && types.hasNext() ? types.next() : null;
+        }
+        int bands = 0;
+        int bitsPerPixel = 0;
+        String dataType = null;
+        if (type != null) {
+            bands = type.getNumBands();
+            for (int b = 0; b < bands; b++) {
+                bitsPerPixel += type.getBitsPerBand(b);
+            }
+            dataType = dataTypeName(type.getSampleModel(1, 1).getDataType());
+        }
+
+        final ImageCalibration calibration = ImageCalibration.from(reader.getImageMetadata(minIndex));
+        final DescriptionStringCoder.Dimensions dims = calibration != null
+                ? DescriptionStringCoder.decodeDimensions(calibration.description)
+                : null;
+
+        return new Entry(file,
+                file.length(),
+                IJImageIOEvents.formatName(reader.getOriginatingProvider()),
+                reader.getClass().getName(),
+                numImages - minIndex,
+                width,
+                height,
+                bands,
+                bitsPerPixel,
+                dataType,
+                calibration != null ? calibration.pixelWidth : null,
+                calibration != null ? calibration.pixelHeight : null,
+                calibration != null ? calibration.unit : null,
+                dims != null ? dims.nChannels : 0,
+                dims != null ? dims.nSlices : 0,
+                dims != null ? dims.nFrames : 0,
+                null);
+    }
+
+
+    private static String dataTypeName(final int dataType) {
+        switch (dataType) {
+            case DataBuffer.TYPE_BYTE:
+                return "byte";
+            case DataBuffer.TYPE_USHORT:
+                return "ushort";
+            case DataBuffer.TYPE_SHORT:
+                return "short";
+            case DataBuffer.TYPE_INT:
+                return "int";
+            case DataBuffer.TYPE_FLOAT:
+                return "float";
+            case DataBuffer.TYPE_DOUBLE:
+                return "double";
+            default:
+                return "unknown";
+        }
+    }
+
+
+    /**
+     * Create table with one row per catalog entry.
+     *
+     * @param entries catalog entries.
+     * @return results table.
+     */
+    public static ResultsTable toResultsTable(final List<Entry> entries) {
+        Validate.notNull(entries, "Argument 'entries' cannot be null");
+
+        final ResultsTable rt = new ResultsTable();
+        for (final Entry e : entries) {
+            rt.incrementCounter();
+            final Object[] values = e.values();
+            for (int i = 0; i < COLUMNS.length; i++) {
+                if (values[i] instanceof Number) {
+                    rt.addValue(COLUMNS[i], ((Number) values[i]).doubleValue());
+                } else {
+                    rt.addValue(COLUMNS[i], values[i] != null ? values[i].toString() : "");
+                }
+            }
+        }
+        return rt;
+    }
+
+
+    /**
+     * Write catalog as comma separated values, with a header line.
+     *
+     * @param entries catalog entries.
+     * @param file    output file.
+     * @throws IOException when the file cannot be written.
+     */
+    public static void writeCSV(final List<Entry> entries, final File file) throws IOException {
+        Validate.notNull(file, "Argument 'file' cannot be null");
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file),
+                StandardCharsets.UTF_8))) {
+            writeCSV(entries, writer);
+        }
+    }
+
+
+    /**
+     * Write catalog as comma separated values, with a header line.
+     *
+     * @param entries catalog entries.
+     * @param writer  output.
+     * @throws IOException when the output cannot be written.
+     */
+    public static void writeCSV(final List<Entry> entries, final Writer writer) throws IOException {
+        Validate.notNull(entries, "Argument 'entries' cannot be null");
+        Validate.notNull(writer, "Argument 'writer' cannot be null");
+
+        writeCSVLine(COLUMNS, writer);
+        for (final Entry e : entries) {
+            writeCSVLine(e.values(), writer);
+        }
+        writer.flush();
+    }
+
+
+    private static void writeCSVLine(final Object[] values, final Writer writer) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                final String s = values[i].toString();
+                if (s.indexOf(',') >= 0 || s.indexOf('"') >= 0 || s.indexOf('\n') >= 0 || s.indexOf('\r') >= 0) {
+                    writer.write('"');
+                    writer.write(s.replace("\"", "\"\""));
+                    writer.write('"');
+                } else {
+                    writer.write(s);
+                }
+            }
+        }
+        writer.write('\n');
+    }
+
+
+    /**
+     * Catalog files from command line and write the catalog as CSV.
+     * <pre>
+     * Usage: ImageCatalog [options] &lt;input dir or file&gt;...
+     *   -o &lt;file&gt;        output CSV file, default: standard output
+     *   -t &lt;threads&gt;     number of files scanned concurrently, default: number of processors
+     *   -i &lt;glob&gt;        files to include, for instance, "*.{tif,tiff}", default: "*"
+     *   -r               include subdirectories
+     * </pre>
+     * Exits with status 1 if header of any of the files could not be read.
+     *
+     * @param args command line arguments.
+     */
+    public static void main(final String[] args) {
+        File output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        String include = "*";
+        boolean recursive = false;
+        final List<File> inputs = new ArrayList<>();
+        boolean valid = true;
+
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "-o":
+                        output = new File(args[++i]);
+                        break;
+                    case "-t":
+                        threads = Integer.parseInt(args[++i]);
+                        break;
+                    case "-i":
+                        include = args[++i];
+                        break;
+                    case "-r":
+                        recursive = true;
+                        break;
+                    default:
+                        inputs.add(new File(args[i]));
+                }
+            }
+        } catch (final ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            valid = false;
+        }
+
+        if (!valid || inputs.isEmpty()) {
+            System.err.println("Usage: " + ImageCatalog.class.getName()
+                    + " [-o <output CSV>] [-t <threads>] [-i <glob>] [-r] <input dir or file>...");
+            System.exit(2);
+            return;
+        }
+
+        try {
+            final FileFilter filter = BatchConverter.globFilter(include);
+            final List<File> files = new ArrayList<>();
+            for (final File input : inputs) {
+                if (input.isDirectory()) {
+                    files.addAll(BatchConverter.listFiles(input, filter, recursive));
+                } else {
+                    files.add(input);
+                }
+            }
+
+            final long start = System.nanoTime();
+            final List<Entry> entries = scan(files, threads, null);
+            final double seconds = (System.nanoTime() - start) / 1e9;
+
+            if (output != null) {
+                writeCSV(entries, output);
+            } else {
+                writeCSV(entries, new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            }
+            final long failed = entries.stream().filter(e -> e.error != null).count();
+            System.err.printf("Cataloged %d files (%d failed) in %.2f s.%n", entries.size(), failed, seconds);
+            System.exit(failed == 0 ? 0 : 1);
+        } catch (final IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+        } catch (final InterruptedException e) {
+            System.err.println("Interrupted.");
+            System.exit(3);
+        }
+    }
+
+
+    /**
+     * Header information of an image file. Values describe the first image in the file.
+     */
+    public static final class Entry {
+        public final File file;
+        /**
+         * File size in bytes.
+         */
+        public final long fileSize;
+        /**
+         * Format name of the reader, {@code null} if the header could not be read.
+         */
+        public final String format;
+        /**
+         * Class name of the reader.
+         */
+        public final String reader;
+        public final int numberOfPages;
+        public final int width;
+        public final int height;
+        public final int numberOfBands;
+        public final int bitsPerPixel;
+        /**
+         * Data type of samples, for instance, "byte", "ushort", or "float".
+         */
+        public final String dataType;
+        /**
+         * Pixel width, {@code null} if not present in metadata.
+         */
+        public final Double pixelWidth;
+        /**
+         * Pixel height, {@code null} if not present in metadata.
+         */
+        public final Double pixelHeight;
+        public final String unit;
+        /**
+         * Number of channels of ImageJ hyperstack, 0 if the file does not contain ImageJ's description string.
+         */
+        public final int nChannels;
+        public final int nSlices;
+        public final int nFrames;
+        /**
+         * Error message if the header could not be read, {@code null} otherwise.
+         */
+        public final String error;
+
+
+        Entry(final File file, final String error) {
+            this(file, file.length(), null, null, 0, 0, 0, 0, 0, null, null, null, null, 0, 0, 0,
+                    error != null ? error : "Unknown error.");
+        }
+
+
+        Entry(final File file,
+              final long fileSize,
+              final String format,
+              final String reader,
+              final int numberOfPages,
+              final int width,
+              final int height,
+              final int numberOfBands,
+              final int bitsPerPixel,
+              final String dataType,
+              final Double pixelWidth,
+              final Double pixelHeight,
+              final String unit,
+              final int nChannels,
+              final int nSlices,
+              final int nFrames,
+              final String error) {
+            this.file = file;
+            this.fileSize = fileSize;
+            this.format = format;
+            this.reader = reader;
+            this.numberOfPages = numberOfPages;
+            this.width = width;
+            this.height = height;
+            this.numberOfBands = numberOfBands;
+            this.bitsPerPixel = bitsPerPixel;
+            this.dataType = dataType;
+            this.pixelWidth = pixelWidth;
+            this.pixelHeight = pixelHeight;
+            this.unit = unit;
+            this.nChannels = nChannels;
+            this.nSlices = nSlices;
+            this.nFrames = nFrames;
+            this.error = error;
+        }
+
+
+        private Object[] values() {
+            return new Object[]{file.getPath(), fileSize, format, reader, numberOfPages, width, height,
+                    numberOfBands, bitsPerPixel, dataType, pixelWidth, pixelHeight, unit, nChannels, nSlices, nFrames,
+                    error};
+        }
+
+
+        @Override
+        public String toString() {
+            return error != null
+                    ? file + ": " + error
+                    : file + ": " + format + " " + width + "x" + height + "x" + numberOfPages + ", "
+                    + bitsPerPixel + " bits per pixel";
+        }
+    }
+}
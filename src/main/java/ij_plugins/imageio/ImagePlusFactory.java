@@ -27,10 +27,6 @@ import ij.ImageStack;
 import ij.measure.Calibration;
 import ij.process.*;
 
-import javax.imageio.metadata.IIOInvalidTreeException;
-import javax.imageio.plugins.tiff.BaselineTIFFTagSet;
-import javax.imageio.plugins.tiff.TIFFDirectory;
-import javax.imageio.plugins.tiff.TIFFField;
 import java.awt.image.*;
 
 import static java.awt.image.DataBuffer.TYPE_USHORT;
@@ -144,7 +140,8 @@ public class ImagePlusFactory {
         ) {
             // If image has multiple banks or multiple color components, assume that it
             // is a color image and relay on AWT for proper decoding.
-            return new ColorProcessor(src);
+            final ColorProcessor cp = createColorProcessor(raster, colorModel);
+            return cp != null ? cp : new ColorProcessor(src);
         } else if (sm.getSampleSize(0) < 8) {
             // Temporary fix for less then 8 bit images
             return new ByteProcessor(src);
@@ -160,6 +157,53 @@ public class ImagePlusFactory {
     }
 
 
+    /**
+     * Pack interleaved 8-bit RGB samples, the common output of JPEG, PNG, and TIFF decoders, directly into
+     * ColorProcessor pixels. Decoding through AWT, as done by {@link ColorProcessor#ColorProcessor(java.awt.Image)},
+     * allocates several times the size of the image.
+     *
+     * @return new color processor or {@code null} if the raster is not 3-band interleaved 8-bit sRGB.
+     */
+    private static ColorProcessor createColorProcessor(final Raster r, final ColorModel cm) {
+        if (!(cm instanceof ComponentColorModel)
+                || !cm.getColorSpace().isCS_sRGB()
+                || cm.hasAlpha()
+                || !(r.getSampleModel() instanceof PixelInterleavedSampleModel)
+                || r.getDataBuffer().getDataType() != DataBuffer.TYPE_BYTE
+                || r.getDataBuffer().getNumBanks() != 1
+                || r.getNumBands() != 3) {
+            return null;
+        }
+
+        final PixelInterleavedSampleModel sm = (PixelInterleavedSampleModel) r.getSampleModel();
+        final int width = r.getWidth();
+        final int height = r.getHeight();
+        final int x0 = r.getMinX() - r.getSampleModelTranslateX();
+        final int y0 = r.getMinY() - r.getSampleModelTranslateY();
+        final int pixelStride = sm.getPixelStride();
+        final int scanlineStride = sm.getScanlineStride();
+        final int[] bandOffsets = sm.getBandOffsets();
+        final int offsetR = bandOffsets[0];
+        final int offsetG = bandOffsets[1];
+        final int offsetB = bandOffsets[2];
+        final byte[] src = ((DataBufferByte) r.getDataBuffer()).getData();
+        final int srcOffset = r.getDataBuffer().getOffset();
+
+        final int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            int s = srcOffset + (y0 + y) * scanlineStride + x0 * pixelStride;
+            int d = y * width;
+            for (int x = 0; x < width; x++, s += pixelStride, d++) {
+                pixels[d] = 0xff000000
+                        | (src[s + offsetR] & 0xff) << 16
+                        | (src[s + offsetG] & 0xff) << 8
+                        | (src[s + offsetB] & 0xff);
+            }
+        }
+        return new ColorProcessor(width, height, pixels);
+    }
+
+
     /**
      * Create instance of ImagePlus from a BufferedImage.
      *
@@ -174,57 +218,24 @@ public class ImagePlusFactory {
         return create(title, bi.getRaster(), bi.getColorModel());
     }
 
+    /**
+     * Create instance of ImagePlus from an image and its metadata, setting spatial calibration from the
+     * calibration record, or, if not present, from the metadata.
+     *
+     * @param title name of the output image.
+     * @param mi    source image and metadata.
+     * @return new image.
+     * @throws IJImageIOException when enable to create ImagePlus.
+     * @see ImageCalibration
+     */
     public static ImagePlus create(final String title, final IJImageIO.ImageAndMetadata mi) throws IJImageIOException {
-        ImagePlus imp = create(title, mi.image.getRaster(), mi.image.getColorModel());
-
-        try {
-            // WE will assume that this is a TIFF file, if it not an exception from the fallowing will get us out of here
-            TIFFDirectory tmd = TIFFDirectory.createFromMetadata(mi.metadata);
-
-            TIFFField xResField = tmd.getTIFFField(BaselineTIFFTagSet.TAG_X_RESOLUTION);
-            if (xResField != null) {
-                long[] ls = xResField.getAsRational(0);
-                Calibration cal = imp.getCalibration();
-                cal.pixelWidth = ls[1] / (double) ls[0];
-                imp.setCalibration(cal);
-            }
-
-            TIFFField yResField = tmd.getTIFFField(BaselineTIFFTagSet.TAG_Y_RESOLUTION);
-            if (yResField != null) {
-                long[] ls = yResField.getAsRational(0);
-                Calibration cal = imp.getCalibration();
-                cal.pixelHeight = ls[1] / (double) ls[0];
-                imp.setCalibration(cal);
-            }
+        final ImagePlus imp = create(title, mi.image.getRaster(), mi.image.getColorModel());
 
-            TIFFField resolutionUnitField = tmd.getTIFFField(BaselineTIFFTagSet.TAG_RESOLUTION_UNIT);
-            if (resolutionUnitField != null) {
-                Calibration cal = imp.getCalibration();
-                switch (resolutionUnitField.getAsInt(0)) {
-                    case 1:
-                        cal.setUnit(" ");
-                        break;
-                    case 2:
-                        cal.setUnit("inch");
-                        break;
-                    case 3:
-                        cal.setUnit("cm");
-                        break;
-                    default:
-                        throw new IJImageIOException("Unsupported resolution unit field value: " + resolutionUnitField.getAsInt(0));
-                }
-                imp.setCalibration(cal);
-            }
-
-            {
-                TIFFField field = tmd.getTIFFField(BaselineTIFFTagSet.TAG_IMAGE_DESCRIPTION);
-                if (field != null && field.getCount() > 0) {
-                    String description = field.getAsString(0);
-                    DescriptionStringCoder.decode(description, imp);
-                }
-            }
-        } catch (IIOInvalidTreeException ex) {
-            // Ignore attempt to treat this as a TIFF file
+        final ImageCalibration calibration = mi.calibration != null
+                ? mi.calibration
+                : ImageCalibration.from(mi.metadata);
+        if (calibration != null) {
+            calibration.applyTo(imp);
         }
         return imp;
     }
@@ -280,8 +291,10 @@ public class ImagePlusFactory {
             } else {
                 // If image has multiple banks or multiple color components, assume that it
                 // is a color image and relay on AWT for proper decoding.
-                final BufferedImage bi = new BufferedImage(cm, r, false, null);
-                result = new ImagePlus(title, new ColorProcessor(bi));
+                final ColorProcessor cp = createColorProcessor(r, cm);
+                result = new ImagePlus(title, cp != null
+                        ? cp
+                        : new ColorProcessor(new BufferedImage(cm, r, false, null)));
             }
         } else if (sm.getSampleSize(0) < 8) {
             // Temporary fix for less then 8 bit images
@@ -0,0 +1,130 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of latencies with logarithmic buckets, similar to HdrHistogram. Each power of two range is divided into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so values are recorded with a relative error below 12.5%.
+ * <p>
+ * Recording is lock-free and can be done concurrently from multiple threads.
+ *
+ * @author Jarek Sacha
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUMBER_OF_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(NUMBER_OF_BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+
+    /**
+     * @param value non-negative value, for instance, latency in nanoseconds. Negative values are recorded as 0.
+     */
+    void record(final long value) {
+        final long v = Math.max(0, value);
+        counts.incrementAndGet(bucketIndex(v));
+        totalCount.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    long getCount() {
+        return totalCount.sum();
+    }
+
+    long getMax() {
+        return max.get();
+    }
+
+    double getMean() {
+        final long n = totalCount.sum();
+        return n > 0 ? (double) sum.sum() / n : 0;
+    }
+
+    /**
+     * @param percentile percentile, between 0 and 100.
+     * @return the highest value that is equivalent, within histogram precision, to the value at given percentile;
+     * 0 if no values were recorded.
+     */
+    long getValueAtPercentile(final double percentile) {
+        final long[] snapshot = new long[NUMBER_OF_BUCKETS];
+        long n = 0;
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            n += snapshot[i];
+        }
+        if (n == 0) {
+            return 0;
+        }
+
+        final long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    void reset() {
+        for (int i = 0; i < NUMBER_OF_BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.reset();
+        sum.reset();
+        max.reset();
+    }
+
+
+    static int bucketIndex(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    static long lowestEquivalentValue(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        final long subBucket = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    static long highestEquivalentValue(final int index) {
+        return index + 1 < NUMBER_OF_BUCKETS ? lowestEquivalentValue(index + 1) - 1 : Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * Receives progress of image reading and writing done by {@link IJImageIO}, and can request cancellation.
+ * <p>
+ * Updates may come from several threads at once, when multiple files are processed concurrently.
+ * Implementations should be thread safe and return quickly, they are called from within the codecs.
+ *
+ * @author Jarek Sacha
+ * @see IJImageIO#setProgressSink(ProgressSink)
+ */
+public interface ProgressSink {
+
+    /**
+     * Ignores all progress and never cancels. When this sink is used no progress listeners are attached to codecs.
+     */
+    ProgressSink NONE = new ProgressSink() {
+        @Override
+        public void update(final Progress progress) {
+        }
+
+        @Override
+        public void finished(final Progress progress) {
+        }
+
+        @Override
+        public boolean isCancelRequested() {
+            return false;
+        }
+    };
+
+
+    /**
+     * Called when reading or writing makes progress.
+     *
+     * @param progress current progress.
+     */
+    void update(Progress progress);
+
+    /**
+     * Called when reading or writing of a file ends, successfully or not.
+     *
+     * @param progress final progress.
+     */
+    void finished(Progress progress);
+
+    /**
+     * Polled during reading and writing. When it returns {@code true} the codec is aborted and
+     * {@link IJImageIOCancelledException} is thrown.
+     *
+     * @return {@code true} if current operations should be cancelled.
+     */
+    boolean isCancelRequested();
+
+
+    /**
+     * Snapshot of progress of reading or writing a single file.
+     */
+    final class Progress {
+        /**
+         * "Reading" or "Writing".
+         */
+        public final String operation;
+        public final File file;
+        /**
+         * Fraction of work done, between 0 and 1.
+         */
+        public final double fraction;
+        /**
+         * Number of bytes processed, estimated from the fraction done. For reading this is based on the file size,
+         * for writing on the size of uncompressed pixel data.
+         */
+        public final long bytesDone;
+        public final double bytesPerSecond;
+        /**
+         * Estimated time remaining, {@link Double#NaN} if not known yet.
+         */
+        public final double secondsRemaining;
+
+
+        public Progress(final String operation,
+                        final File file,
+                        final double fraction,
+                        final long bytesDone,
+                        final double bytesPerSecond,
+                        final double secondsRemaining) {
+            this.operation = operation;
+            this.file = file;
+            this.fraction = fraction;
+            this.bytesDone = bytesDone;
+            this.bytesPerSecond = bytesPerSecond;
+            this.secondsRemaining = secondsRemaining;
+        }
+
+
+        /**
+         * @return throughput in megabytes (2^20 bytes) per second.
+         */
+        public double megabytesPerSecond() {
+            return bytesPerSecond / (1024 * 1024);
+        }
+
+
+        @Override
+        public String toString() {
+            final StringBuilder sb = new StringBuilder();
+            sb.append(operation).append(' ').append(file.getName()).append(": ")
+                    .append(Math.round(fraction * 100)).append('%');
+            if (bytesPerSecond > 0) {
+                sb.append(String.format(Locale.US, ", %.1f MB/s", megabytesPerSecond()));
+            }
+            if (!Double.isNaN(secondsRemaining) && fraction < 1) {
+                sb.append(", ").append(Math.round(Math.ceil(secondsRemaining))).append(" s left");
+            }
+            return sb.toString();
+        }
+    }
+}
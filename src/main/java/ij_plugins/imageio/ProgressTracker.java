@@ -0,0 +1,239 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio;
+
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriter;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.event.IIOWriteProgressListener;
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+/**
+ * Translates progress notifications of image readers and writers into {@link ProgressSink.Progress} updates,
+ * and aborts the codec when the sink requests cancellation.
+ * <p>
+ * A tracker follows reading or writing of a sequence of images from a single file. Some codecs do not notify
+ * listeners at all, for instance, the JDK TIFF writer, so the caller also reports each image using
+ * {@link #checkpoint(int)}. For such codecs progress and cancellation have granularity of a single image.
+ *
+ * @author Jarek Sacha
+ */
+final class ProgressTracker implements IIOReadProgressListener, IIOWriteProgressListener {
+
+    private final ProgressSink sink;
+    private final String operation;
+    private final File file;
+    private final int numberOfImages;
+    private final long totalBytes;
+    private final long startNanos = System.nanoTime();
+
+    private int imagesCompleted;
+    private volatile boolean aborted;
+
+
+    /**
+     * @param sink           receives progress.
+     * @param operation      "Reading" or "Writing".
+     * @param file           file being read or written.
+     * @param numberOfImages number of images that will be read or written.
+     * @param totalBytes     number of bytes to process, used to compute throughput.
+     */
+    ProgressTracker(final ProgressSink sink,
+                    final String operation,
+                    final File file,
+                    final int numberOfImages,
+                    final long totalBytes) {
+        this.sink = sink;
+        this.operation = operation;
+        this.file = file;
+        this.numberOfImages = Math.max(1, numberOfImages);
+        this.totalBytes = totalBytes;
+    }
+
+
+    /**
+     * @return size of uncompressed pixel data of the images, in bytes.
+     */
+    static long sizeInBytes(final BufferedImage[] images) {
+        long bytes = 0;
+        for (final BufferedImage image : images) {
+            bytes += IJImageOUtils.sizeInBytes(image);
+        }
+        return bytes;
+    }
+
+
+    /**
+     * @return {@code true} if the codec was aborted by this tracker.
+     */
+    boolean isAborted() {
+        return aborted;
+    }
+
+
+    /**
+     * Report that given number of images was processed, regardless of notifications from the codec,
+     * and check if cancellation was requested.
+     *
+     * @param imagesCompleted number of images completed so far.
+     * @return {@code true} if processing should be aborted.
+     */
+    boolean checkpoint(final int imagesCompleted) {
+        this.imagesCompleted = Math.max(this.imagesCompleted, imagesCompleted);
+        return update(0);
+    }
+
+
+    /**
+     * Report progress of the current image, for images decoded in parts by several readers that cannot
+     * notify this tracker directly. Not thread safe, callers from several threads have to synchronize on the tracker.
+     *
+     * @param percentageDone percentage of the current image processed so far.
+     * @return {@code true} if processing should be aborted.
+     */
+    boolean imagePartProgress(final float percentageDone) {
+        return update(percentageDone);
+    }
+
+
+    /**
+     * Notify the sink that processing of the file ended.
+     */
+    void finish() {
+        sink.finished(progress(aborted ? currentFraction(0) : 1));
+    }
+
+
+    private double currentFraction(final float percentageDone) {
+        return Math.min(1, (imagesCompleted + percentageDone / 100.0) / numberOfImages);
+    }
+
+
+    private ProgressSink.Progress progress(final double fraction) {
+        final double seconds = (System.nanoTime() - startNanos) / 1e9;
+        final long bytesDone = Math.round(totalBytes * fraction);
+        final double bytesPerSecond = seconds > 0 ? bytesDone / seconds : 0;
+        final double secondsRemaining = fraction > 0 ? seconds * (1 - fraction) / fraction : Double.NaN;
+        return new ProgressSink.Progress(operation, file, fraction, bytesDone, bytesPerSecond, secondsRemaining);
+    }
+
+
+    private boolean update(final float percentageDone) {
+        sink.update(progress(currentFraction(percentageDone)));
+        if (!aborted && sink.isCancelRequested()) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+
+    //
+    // IIOReadProgressListener
+    //
+
+    @Override
+    public void sequenceStarted(final ImageReader source, final int minIndex) {
+    }
+
+    @Override
+    public void sequenceComplete(final ImageReader source) {
+    }
+
+    @Override
+    public void imageStarted(final ImageReader source, final int imageIndex) {
+        if (update(0)) {
+            source.abort();
+        }
+    }
+
+    @Override
+    public void imageProgress(final ImageReader source, final float percentageDone) {
+        if (update(percentageDone)) {
+            source.abort();
+        }
+    }
+
+    @Override
+    public void imageComplete(final ImageReader source) {
+        imagesCompleted++;
+        update(0);
+    }
+
+    @Override
+    public void thumbnailStarted(final ImageReader source, final int imageIndex, final int thumbnailIndex) {
+    }
+
+    @Override
+    public void thumbnailProgress(final ImageReader source, final float percentageDone) {
+    }
+
+    @Override
+    public void thumbnailComplete(final ImageReader source) {
+    }
+
+    @Override
+    public void readAborted(final ImageReader source) {
+    }
+
+
+    //
+    // IIOWriteProgressListener
+    //
+
+    @Override
+    public void imageStarted(final ImageWriter source, final int imageIndex) {
+        // Writers clear abort request when each image in a sequence is started
+        if (update(0)) {
+            source.abort();
+        }
+    }
+
+    @Override
+    public void imageProgress(final ImageWriter source, final float percentageDone) {
+        if (update(percentageDone)) {
+            source.abort();
+        }
+    }
+
+    @Override
+    public void imageComplete(final ImageWriter source) {
+        imagesCompleted++;
+        update(0);
+    }
+
+    @Override
+    public void thumbnailStarted(final ImageWriter source, final int imageIndex, final int thumbnailIndex) {
+    }
+
+    @Override
+    public void thumbnailProgress(final ImageWriter source, final float percentageDone) {
+    }
+
+    @Override
+    public void thumbnailComplete(final ImageWriter source) {
+    }
+
+    @Override
+    public void writeAborted(final ImageWriter source) {
+    }
+}
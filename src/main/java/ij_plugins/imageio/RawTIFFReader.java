@@ -0,0 +1,881 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import ij.ImagePlus;
+import ij.process.ByteProcessor;
+import ij.process.FloatProcessor;
+import ij.process.ImageProcessor;
+import ij.process.ShortProcessor;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Reads single-sample TIFF images, 8-bit and 16-bit unsigned integer, and 32-bit float, directly into ImageJ pixel
+ * arrays. Image file directories are parsed without ImageIO, pixel data are read using {@link FileChannel} and
+ * converted from file byte order using buffer views, so no intermediate {@code BufferedImage} is created.
+ * <p>
+ * Uncompressed strips are read as they are. Strips and tiles compressed with LZW or Deflate, with optional
+ * horizontal predictor, or with PackBits, are decompressed by {@link TIFFDecompressor}; for large pages independent
+ * strips or tiles are decompressed concurrently.
+ * <p>
+ * Files with other layouts, for instance, JPEG compressed, RGB, or with a color map, are not read, the caller falls
+ * back to ImageIO.
+ *
+ * @author Jarek Sacha
+ */
+final class RawTIFFReader {
+
+    static final String FORMAT_NAME = "tif";
+
+    private static final int TAG_IMAGE_WIDTH = 256;
+    private static final int TAG_IMAGE_LENGTH = 257;
+    private static final int TAG_BITS_PER_SAMPLE = 258;
+    private static final int TAG_COMPRESSION = 259;
+    private static final int TAG_PHOTOMETRIC_INTERPRETATION = 262;
+    private static final int TAG_FILL_ORDER = 266;
+    private static final int TAG_IMAGE_DESCRIPTION = 270;
+    private static final int TAG_STRIP_OFFSETS = 273;
+    private static final int TAG_SAMPLES_PER_PIXEL = 277;
+    private static final int TAG_ROWS_PER_STRIP = 278;
+    private static final int TAG_STRIP_BYTE_COUNTS = 279;
+    private static final int TAG_X_RESOLUTION = 282;
+    private static final int TAG_Y_RESOLUTION = 283;
+    private static final int TAG_RESOLUTION_UNIT = 296;
+    private static final int TAG_COLOR_MAP = 320;
+    private static final int TAG_PREDICTOR = 317;
+    private static final int TAG_TILE_WIDTH = 322;
+    private static final int TAG_TILE_LENGTH = 323;
+    private static final int TAG_TILE_OFFSETS = 324;
+    private static final int TAG_TILE_BYTE_COUNTS = 325;
+    private static final int TAG_EXTRA_SAMPLES = 338;
+    private static final int TAG_SAMPLE_FORMAT = 339;
+
+    private static final int PREDICTOR_HORIZONTAL = 2;
+
+    private static final int TYPE_BYTE = 1;
+    private static final int TYPE_ASCII = 2;
+    private static final int TYPE_SHORT = 3;
+    private static final int TYPE_LONG = 4;
+    private static final int TYPE_RATIONAL = 5;
+
+    /**
+     * Limit on number of values of a single field, larger fields indicate a corrupted file.
+     */
+    private static final int MAX_FIELD_COUNT = 1 << 24;
+
+    /**
+     * Size of buffer used to convert 16-bit and 32-bit samples from file byte order.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final ThreadLocal<ByteBuffer> BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    /**
+     * Pages with at least this many bytes of decoded pixels have their strips or tiles decoded concurrently.
+     */
+    private static final long PARALLEL_THRESHOLD = 1 << 20;
+
+    private RawTIFFReader() {
+    }
+
+
+    /**
+     * Read pages of a TIFF file, if all of them have a supported layout.
+     *
+     * @param file            input file.
+     * @param pageIndex       index of pages to read, if {@code null} all pages are read.
+     * @param metadataPolicy  which pages have their calibration read, same as when reading using ImageIO.
+     * @param limits          limits on size of decoded pages and reading time.
+     * @param images          receives images that were read.
+     * @param calibrations    receives calibration of each image, {@code null} if not present.
+     * @return {@code false} if the file is not a TIFF, or some of the pages cannot be read by this reader, nothing
+     * was added to {@code images} and {@code calibrations}.
+     * @throws IJImageIOException if a supported file cannot be read, or the read exceeds limits.
+     */
+    static boolean read(final File file,
+                        final int[] pageIndex,
+                        final IJImageIO.MetadataPolicy metadataPolicy,
+                        final ReadLimits limits,
+                        final List<ImagePlus> images,
+                        final List<ImageCalibration> calibrations) throws IJImageIOException {
+
+        final long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // Locate only directories that will be read, checking limits before the whole file is searched
+            int maxDirectories = limits.maxPages == Integer.MAX_VALUE ? Integer.MAX_VALUE : limits.maxPages + 1;
+            if (pageIndex != null) {
+                if (pageIndex.length > limits.maxPages) {
+                    throw new IJImageIOLimitException("File '" + file.getName() + "' has " + pageIndex.length
+                            + " pages, the limit is " + limits.maxPages + ".");
+                }
+                maxDirectories = 0;
+                for (final int index : pageIndex) {
+                    maxDirectories = Math.max(maxDirectories, index + 1);
+                }
+            }
+            final List<Directory> directories = readDirectories(channel, maxDirectories, file, limits, start);
+            if (directories == null) {
+                return false;
+            }
+            if (pageIndex == null) {
+                ReadAdmission.checkPagesFound(directories.size(), file, limits);
+            }
+
+            // Select pages, all of them have to be supported
+            final List<Directory> selected = new ArrayList<>();
+            long bytes = 0;
+            for (int i = 0; i < (pageIndex != null ? pageIndex.length : directories.size()); i++) {
+                final int index = pageIndex != null ? pageIndex[i] : i;
+                if (index < 0 || index >= directories.size() || !directories.get(index).isSupported(channel.size())) {
+                    return false;
+                }
+                final Directory d = directories.get(index);
+                selected.add(d);
+                bytes += (long) d.width * d.height * (d.bitsPerSample / 8);
+            }
+
+            final ReadAdmission admission = ReadAdmission.tryAdmit(bytes, selected.size(), file, limits, start);
+            if (admission == null) {
+                // Needs subsampling or cannot be read at all, let ImageIO path decide
+                return false;
+            }
+
+            final ProgressSink sink = IJImageIO.getProgressSink();
+            final ProgressTracker tracker = sink != ProgressSink.NONE
+                    ? new ProgressTracker(sink, "Reading", file, selected.size(), file.length())
+                    : null;
+            final List<ImagePlus> pageImages = new ArrayList<>();
+            final List<ImageCalibration> pageCalibrations = new ArrayList<>();
+            long pixels = 0;
+            try (admission) {
+                for (int i = 0; i < selected.size(); i++) {
+                    if (tracker != null && tracker.checkpoint(i)) {
+                        throw new IJImageIOCancelledException("Reading of '" + file.getName() + "' cancelled.");
+                    }
+                    final Directory d = selected.get(i);
+
+                    final IJImageIOEvents.ReadImage event = new IJImageIOEvents.ReadImage();
+                    event.begin();
+                    final ImageProcessor ip = readPixels(channel, d, admission);
+                    if (event.shouldCommit()) {
+                        event.file = file.getPath();
+                        event.format = FORMAT_NAME;
+                        event.page = pageIndex != null ? pageIndex[i] : i;
+                        event.width = d.width;
+                        event.height = d.height;
+                        event.bytes = (long) d.width * d.height * (d.bitsPerSample / 8);
+                        event.reader = RawTIFFReader.class.getName();
+                        event.commit();
+                    }
+
+                    final ImagePlus imp = new ImagePlus(file.getName(), ip);
+                    final boolean needsCalibration;
+                    switch (metadataPolicy) {
+                        case ALL:
+                        case CALIBRATION:
+                            needsCalibration = true;
+                            break;
+                        case STACK_CALIBRATION:
+                            needsCalibration = i == 0 || !d.isStackable(selected.get(i - 1));
+                            break;
+                        default:
+                            needsCalibration = false;
+                    }
+                    final ImageCalibration calibration = needsCalibration ? readCalibration(channel, d) : null;
+                    if (calibration != null) {
+                        calibration.applyTo(imp);
+                    }
+                    pageImages.add(imp);
+                    pageCalibrations.add(calibration);
+                    pixels += (long) d.width * d.height;
+                }
+            } finally {
+                if (tracker != null) {
+                    tracker.finish();
+                }
+            }
+
+            IJImageIOMetrics.record(IJImageIOMetrics.Operation.READ, RawTIFFReader.class.getName(), FORMAT_NAME,
+                    System.nanoTime() - start, file.length(), pixels, false);
+            images.addAll(pageImages);
+            calibrations.addAll(pageCalibrations);
+            return true;
+        } catch (final IOException e) {
+            IJImageIOMetrics.record(IJImageIOMetrics.Operation.READ, RawTIFFReader.class.getName(), FORMAT_NAME,
+                    System.nanoTime() - start, file.length(), 0, true);
+            throw new IJImageIOException("Error reading TIFF file '" + file.getName() + "'. " + e.getMessage(), e);
+        }
+    }
+
+
+    /**
+     * @param maxDirectories directories following the first {@code maxDirectories} are not read.
+     * @param file           file being read, used in messages.
+     * @param limits         time limit is checked before each directory is read.
+     * @param startNanos     {@link System#nanoTime()} when reading of the file started.
+     * @return image file directories, or {@code null} if this is not a classic TIFF file or its directories are
+     * not valid.
+     * @throws IJImageIOLimitException if the time limit expired.
+     */
+    private static List<Directory> readDirectories(final FileChannel channel,
+                                                   final int maxDirectories,
+                                                   final File file,
+                                                   final ReadLimits limits,
+                                                   final long startNanos) throws IOException, IJImageIOException {
+        final ByteBuffer header = ByteBuffer.allocate(8);
+        if (!readFully(channel, header, 0)) {
+            return null;
+        }
+        header.flip();
+        final ByteOrder order;
+        if (header.get(0) == 'I' && header.get(1) == 'I') {
+            order = ByteOrder.LITTLE_ENDIAN;
+        } else if (header.get(0) == 'M' && header.get(1) == 'M') {
+            order = ByteOrder.BIG_ENDIAN;
+        } else {
+            return null;
+        }
+        header.order(order);
+        if (header.getShort(2) != 42) {
+            // Not a TIFF, or BigTIFF
+            return null;
+        }
+
+        final List<Directory> directories = new ArrayList<>();
+        final Set<Long> visited = new HashSet<>();
+        long offset = header.getInt(4) & 0xFFFFFFFFL;
+        final long size = channel.size();
+        while (offset != 0 && directories.size() < maxDirectories) {
+            ReadAdmission.checkTime(file, limits, startNanos);
+            if (offset < 8 || offset + 2 > size || !visited.add(offset)) {
+                return null;
+            }
+            final ByteBuffer count = ByteBuffer.allocate(2).order(order);
+            if (!readFully(channel, count, offset)) {
+                return null;
+            }
+            final int numEntries = count.getShort(0) & 0xFFFF;
+            final ByteBuffer ifd = ByteBuffer.allocate(numEntries * 12 + 4).order(order);
+            if (!readFully(channel, ifd, offset + 2)) {
+                return null;
+            }
+            final Directory d = new Directory(order);
+            for (int i = 0; i < numEntries; i++) {
+                if (!d.set(channel, ifd, i * 12)) {
+                    return null;
+                }
+            }
+            directories.add(d);
+            offset = ifd.getInt(numEntries * 12) & 0xFFFFFFFFL;
+        }
+        return directories;
+    }
+
+
+    private static ImageProcessor readPixels(final FileChannel channel,
+                                             final Directory d,
+                                             final ReadAdmission admission) throws IOException, IJImageIOException {
+        final int w = d.width;
+        final int h = d.height;
+        final Object pixels;
+        switch (d.bitsPerSample) {
+            case 8:
+                pixels = new byte[w * h];
+                break;
+            case 16:
+                pixels = new short[w * h];
+                break;
+            default:
+                pixels = new float[w * h];
+        }
+
+        if (d.compression != TIFFDecompressor.COMPRESSION_NONE || d.isTiled() || d.predictor != 1) {
+            decodeSegments(channel, d, pixels, admission);
+        } else {
+            readStrips(channel, d, pixels, admission);
+        }
+
+        switch (d.bitsPerSample) {
+            case 8:
+                return new ByteProcessor(w, h, (byte[]) pixels);
+            case 16:
+                return new ShortProcessor(w, h, (short[]) pixels, null);
+            default:
+                return new FloatProcessor(w, h, (float[]) pixels);
+        }
+    }
+
+
+    /**
+     * Read uncompressed strips, runs of contiguous strips are read at once.
+     */
+    private static void readStrips(final FileChannel channel,
+                                   final Directory d,
+                                   final Object pixels,
+                                   final ReadAdmission admission) throws IOException, IJImageIOException {
+        final int w = d.width;
+        final int h = d.height;
+        final int bytesPerSample = d.bitsPerSample / 8;
+        final long rowsPerStrip = Math.min(d.rowsPerStrip, h);
+        int strip = 0;
+        int row = 0;
+        while (strip < d.stripOffsets.length) {
+            final long runOffset = d.stripOffsets[strip];
+            int runRows = 0;
+            do {
+                final int rows = (int) Math.min(rowsPerStrip, h - row - runRows);
+                runRows += rows;
+                strip++;
+            } while (strip < d.stripOffsets.length
+                    && d.stripOffsets[strip] == runOffset + (long) runRows * w * bytesPerSample);
+
+            readSamples(channel, runOffset, pixels, row * w, runRows * w, d.order, admission);
+            row += runRows;
+        }
+    }
+
+
+    /**
+     * Decode strips or tiles, that may be compressed. Segments are independent, for large pages they are decoded
+     * concurrently, each thread with its own {@link TIFFDecompressor}.
+     */
+    private static void decodeSegments(final FileChannel channel,
+                                       final Directory d,
+                                       final Object pixels,
+                                       final ReadAdmission admission) throws IOException, IJImageIOException {
+        final int n = d.segmentOffsets().length;
+        final long bytes = (long) d.width * d.height * (d.bitsPerSample / 8);
+        if (n > 1 && bytes >= PARALLEL_THRESHOLD) {
+            try {
+                IntStream.range(0, n).parallel().forEach(i -> {
+                    if (admission.isTimedOut()) {
+                        return;
+                    }
+                    try {
+                        decodeSegment(channel, d, i, pixels);
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (final UncheckedIOException e) {
+                throw e.getCause();
+            }
+            admission.checkTime();
+        } else {
+            for (int i = 0; i < n; i++) {
+                decodeSegment(channel, d, i, pixels);
+                admission.checkTime();
+            }
+        }
+    }
+
+
+    /**
+     * Decode strip or tile {@code index} into its part of {@code pixels}.
+     */
+    private static void decodeSegment(final FileChannel channel,
+                                      final Directory d,
+                                      final int index,
+                                      final Object pixels) throws IOException {
+        final TIFFDecompressor decompressor = TIFFDecompressor.get();
+        final int count = (int) d.segmentByteCounts()[index];
+        final byte[] in = decompressor.input(count);
+        if (!readFully(channel, ByteBuffer.wrap(in, 0, count), d.segmentOffsets()[index])) {
+            throw new EOFException("Unexpected end of file.");
+        }
+
+        final int w = d.width;
+        final int segmentWidth = d.segmentWidth();
+        final int segmentLength = d.segmentLength();
+        final int across = (w + segmentWidth - 1) / segmentWidth;
+        final int x0 = (index % across) * segmentWidth;
+        final int y0 = (index / across) * segmentLength;
+        final int cols = Math.min(segmentWidth, w - x0);
+        final int rows = Math.min(segmentLength, d.height - y0);
+        final int bytesPerSample = d.bitsPerSample / 8;
+        final int rowBytes = segmentWidth * bytesPerSample;
+
+        if (pixels instanceof byte[] && !d.isTiled()) {
+            // Rows of a strip are contiguous in the pixel array
+            decompressor.decompress(d.compression, in, count, (byte[]) pixels, y0 * w, rows * w);
+        } else {
+            // Tiles are padded to full size, the last strip has only remaining rows
+            final int length = (d.isTiled() ? segmentLength : rows) * rowBytes;
+            final byte[] out = decompressor.output(length);
+            final int decoded = decompressor.decompress(d.compression, in, count, out, 0, length);
+            Arrays.fill(out, decoded, length, (byte) 0);
+            if (pixels instanceof byte[]) {
+                for (int r = 0; r < rows; r++) {
+                    System.arraycopy(out, r * rowBytes, pixels, (y0 + r) * w + x0, cols);
+                }
+            } else {
+                final ByteBuffer buffer = ByteBuffer.wrap(out, 0, length).order(d.order);
+                // Rows can be copied at once when segment has the same width as the image
+                final int runs = cols == segmentWidth && cols == w ? 1 : rows;
+                final int runLength = runs == 1 ? rows * cols : cols;
+                for (int r = 0; r < runs; r++) {
+                    buffer.position(r * rowBytes);
+                    if (pixels instanceof short[]) {
+                        buffer.asShortBuffer().get((short[]) pixels, (y0 + r) * w + x0, runLength);
+                    } else {
+                        buffer.asFloatBuffer().get((float[]) pixels, (y0 + r) * w + x0, runLength);
+                    }
+                }
+            }
+        }
+
+        if (d.predictor == PREDICTOR_HORIZONTAL) {
+            // Undo horizontal differencing, it restarts at each row of a segment
+            for (int r = 0; r < rows; r++) {
+                final int start = (y0 + r) * w + x0;
+                if (pixels instanceof byte[]) {
+                    final byte[] p = (byte[]) pixels;
+                    for (int i = start + 1; i < start + cols; i++) {
+                        p[i] += p[i - 1];
+                    }
+                } else {
+                    final short[] p = (short[]) pixels;
+                    for (int i = start + 1; i < start + cols; i++) {
+                        p[i] += p[i - 1];
+                    }
+                }
+            }
+        }
+    }
+
+
+    /**
+     * Read {@code count} samples starting at file {@code position} into {@code pixels}, starting at {@code index}.
+     */
+    private static void readSamples(final FileChannel channel,
+                                    long position,
+                                    final Object pixels,
+                                    int index,
+                                    final int count,
+                                    final ByteOrder order,
+                                    final ReadAdmission admission) throws IOException, IJImageIOException {
+        if (pixels instanceof byte[]) {
+            if (!readFully(channel, ByteBuffer.wrap((byte[]) pixels, index, count), position)) {
+                throw new EOFException("Unexpected end of file.");
+            }
+            admission.checkTime();
+            return;
+        }
+
+        final int bytesPerSample = pixels instanceof short[] ? 2 : 4;
+        final ByteBuffer buffer = BUFFER.get();
+        final int end = index + count;
+        while (index < end) {
+            final int n = Math.min(end - index, BUFFER_SIZE / bytesPerSample);
+            buffer.clear().limit(n * bytesPerSample);
+            if (!readFully(channel, buffer, position)) {
+                throw new EOFException("Unexpected end of file.");
+            }
+            buffer.flip();
+            buffer.order(order);
+            if (pixels instanceof short[]) {
+                buffer.asShortBuffer().get((short[]) pixels, index, n);
+            } else {
+                buffer.asFloatBuffer().get((float[]) pixels, index, n);
+            }
+            position += (long) n * bytesPerSample;
+            index += n;
+            admission.checkTime();
+        }
+    }
+
+
+    private static ImageCalibration readCalibration(final FileChannel channel, final Directory d)
+            throws IOException, IJImageIOException {
+        if (d.xResolution == null && d.yResolution == null && d.resolutionUnit == null
+                && d.descriptionLength == 0) {
+            return null;
+        }
+
+        String description = null;
+        if (d.descriptionLength > 0) {
+            final ByteBuffer bytes;
+            if (d.descriptionInline != null) {
+                bytes = ByteBuffer.wrap(d.descriptionInline);
+            } else {
+                bytes = ByteBuffer.allocate(d.descriptionLength);
+                if (!readFully(channel, bytes, d.descriptionOffset)) {
+                    throw new EOFException("Unexpected end of file.");
+                }
+            }
+            // The first of NUL terminated strings
+            int length = 0;
+            while (length < d.descriptionLength && bytes.get(length) != 0) {
+                length++;
+            }
+            description = new String(bytes.array(), 0, length, StandardCharsets.US_ASCII);
+        }
+
+        return CalibrationDecoders.createTIFF(d.xResolution, d.yResolution, d.resolutionUnit, description);
+    }
+
+
+    /**
+     * @return {@code false} if end of file was reached before {@code buffer} was filled.
+     */
+    private static boolean readFully(final FileChannel channel, final ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            final int n = channel.read(buffer, position);
+            if (n < 0) {
+                return false;
+            }
+            position += n;
+        }
+        return true;
+    }
+
+
+    /**
+     * Fields of an image file directory used by this reader.
+     */
+    private static final class Directory {
+        final ByteOrder order;
+        int width;
+        int height;
+        int bitsPerSample = 1;
+        int samplesPerPixel = 1;
+        int sampleFormat = 1;
+        int compression = 1;
+        int photometric = -1;
+        int fillOrder = 1;
+        int predictor = 1;
+        long rowsPerStrip = 0xFFFFFFFFL;
+        long[] stripOffsets;
+        long[] stripByteCounts;
+        int tileWidth;
+        int tileLength;
+        long[] tileOffsets;
+        long[] tileByteCounts;
+        boolean hasUnsupportedFields;
+        long[] xResolution;
+        long[] yResolution;
+        Integer resolutionUnit;
+        long descriptionOffset;
+        int descriptionLength;
+        byte[] descriptionInline;
+
+        Directory(final ByteOrder order) {
+            this.order = order;
+        }
+
+
+        /**
+         * Set field from IFD entry at {@code pos}.
+         *
+         * @return {@code false} if the entry is not valid.
+         */
+        boolean set(final FileChannel channel, final ByteBuffer ifd, final int pos) throws IOException {
+            final int tag = ifd.getShort(pos) & 0xFFFF;
+            final int type = ifd.getShort(pos + 2) & 0xFFFF;
+            final long count = ifd.getInt(pos + 4) & 0xFFFFFFFFL;
+            if (count > MAX_FIELD_COUNT) {
+                return false;
+            }
+
+            switch (tag) {
+                case TAG_IMAGE_DESCRIPTION:
+                    if (type != TYPE_ASCII) {
+                        return false;
+                    }
+                    descriptionLength = (int) count;
+                    descriptionOffset = count <= 4
+                            ? -1
+                            : ifd.getInt(pos + 8) & 0xFFFFFFFFL;
+                    if (count <= 4) {
+                        // Value is stored in the entry itself
+                        descriptionInline = new byte[(int) count];
+                        ifd.duplicate().position(pos + 8).get(descriptionInline);
+                    }
+                    return true;
+                case TAG_X_RESOLUTION:
+                case TAG_Y_RESOLUTION:
+                    if (type != TYPE_RATIONAL || count < 1) {
+                        return false;
+                    }
+                    final long[] rational = values(channel, ifd, pos, type, 1);
+                    if (rational == null) {
+                        return false;
+                    }
+                    if (tag == TAG_X_RESOLUTION) {
+                        xResolution = rational;
+                    } else {
+                        yResolution = rational;
+                    }
+                    return true;
+                case TAG_COLOR_MAP:
+                case TAG_EXTRA_SAMPLES:
+                    hasUnsupportedFields = true;
+                    return true;
+                default:
+            }
+
+            if (tag != TAG_IMAGE_WIDTH && tag != TAG_IMAGE_LENGTH && tag != TAG_BITS_PER_SAMPLE
+                    && tag != TAG_COMPRESSION && tag != TAG_PHOTOMETRIC_INTERPRETATION && tag != TAG_FILL_ORDER
+                    && tag != TAG_STRIP_OFFSETS && tag != TAG_SAMPLES_PER_PIXEL && tag != TAG_ROWS_PER_STRIP
+                    && tag != TAG_STRIP_BYTE_COUNTS && tag != TAG_RESOLUTION_UNIT && tag != TAG_SAMPLE_FORMAT
+                    && tag != TAG_PREDICTOR && tag != TAG_TILE_WIDTH && tag != TAG_TILE_LENGTH
+                    && tag != TAG_TILE_OFFSETS && tag != TAG_TILE_BYTE_COUNTS) {
+                // Not used
+                return true;
+            }
+
+            if (count < 1 || (type != TYPE_BYTE && type != TYPE_SHORT && type != TYPE_LONG)) {
+                hasUnsupportedFields = true;
+                return true;
+            }
+            final long[] v = values(channel, ifd, pos, type, (int) count);
+            if (v == null) {
+                return false;
+            }
+            switch (tag) {
+                case TAG_IMAGE_WIDTH:
+                    width = (int) Math.min(v[0], Integer.MAX_VALUE);
+                    break;
+                case TAG_IMAGE_LENGTH:
+                    height = (int) Math.min(v[0], Integer.MAX_VALUE);
+                    break;
+                case TAG_BITS_PER_SAMPLE:
+                    bitsPerSample = (int) v[0];
+                    for (final long b : v) {
+                        if (b != v[0]) {
+                            hasUnsupportedFields = true;
+                        }
+                    }
+                    break;
+                case TAG_COMPRESSION:
+                    compression = (int) v[0];
+                    break;
+                case TAG_PHOTOMETRIC_INTERPRETATION:
+                    photometric = (int) v[0];
+                    break;
+                case TAG_FILL_ORDER:
+                    fillOrder = (int) v[0];
+                    break;
+                case TAG_STRIP_OFFSETS:
+                    stripOffsets = v;
+                    break;
+                case TAG_SAMPLES_PER_PIXEL:
+                    samplesPerPixel = (int) v[0];
+                    break;
+                case TAG_ROWS_PER_STRIP:
+                    rowsPerStrip = v[0];
+                    break;
+                case TAG_STRIP_BYTE_COUNTS:
+                    stripByteCounts = v;
+                    break;
+                case TAG_RESOLUTION_UNIT:
+                    resolutionUnit = (int) v[0];
+                    break;
+                case TAG_SAMPLE_FORMAT:
+                    sampleFormat = (int) v[0];
+                    break;
+                case TAG_PREDICTOR:
+                    predictor = (int) v[0];
+                    break;
+                case TAG_TILE_WIDTH:
+                    tileWidth = (int) Math.min(v[0], Integer.MAX_VALUE);
+                    break;
+                case TAG_TILE_LENGTH:
+                    tileLength = (int) Math.min(v[0], Integer.MAX_VALUE);
+                    break;
+                case TAG_TILE_OFFSETS:
+                    tileOffsets = v;
+                    break;
+                case TAG_TILE_BYTE_COUNTS:
+                    tileByteCounts = v;
+                    break;
+                default:
+            }
+            return true;
+        }
+
+
+        /**
+         * @return values of the field, a pair of numerator and denominator for each rational, or {@code null} if
+         * they cannot be read.
+         */
+        private long[] values(final FileChannel channel,
+                              final ByteBuffer ifd,
+                              final int pos,
+                              final int type,
+                              final int count) throws IOException {
+            final int typeSize = type == TYPE_BYTE ? 1 : type == TYPE_SHORT ? 2 : type == TYPE_LONG ? 4 : 8;
+            final int size = typeSize * count;
+            final ByteBuffer data;
+            if (size <= 4) {
+                data = ifd.duplicate().order(order);
+                data.position(pos + 8);
+            } else {
+                data = ByteBuffer.allocate(size).order(order);
+                if (!readFully(channel, data, ifd.getInt(pos + 8) & 0xFFFFFFFFL)) {
+                    return null;
+                }
+                data.flip();
+            }
+
+            final int n = type == TYPE_RATIONAL ? 2 * count : count;
+            final long[] v = new long[n];
+            for (int i = 0; i < n; i++) {
+                switch (type) {
+                    case TYPE_BYTE:
+                        v[i] = data.get() & 0xFF;
+                        break;
+                    case TYPE_SHORT:
+                        v[i] = data.getShort() & 0xFFFF;
+                        break;
+                    default:
+                        v[i] = data.getInt() & 0xFFFFFFFFL;
+                }
+            }
+            return v;
+        }
+
+
+        /**
+         * @return {@code true} if images have the same size and pixel type, so will be combined into a stack.
+         */
+        boolean isStackable(final Directory other) {
+            return width == other.width && height == other.height && bitsPerSample == other.bitsPerSample;
+        }
+
+
+        /**
+         * @param fileSize size of the file, pixel data have to be within it.
+         * @return {@code true} if pixels are stored in a layout supported by this reader.
+         */
+        boolean isSupported(final long fileSize) {
+            if (hasUnsupportedFields || !TIFFDecompressor.isSupported(compression) || samplesPerPixel != 1
+                    || photometric != 1 || fillOrder != 1 || width <= 0 || height <= 0
+                    || (long) width * height > Integer.MAX_VALUE - 8) {
+                return false;
+            }
+            if (!(bitsPerSample == 8 && sampleFormat == 1)
+                    && !(bitsPerSample == 16 && sampleFormat == 1)
+                    && !(bitsPerSample == 32 && sampleFormat == 3)) {
+                return false;
+            }
+            // ImageIO applies the predictor only with LZW and Deflate compression
+            if (predictor != 1 && !(predictor == PREDICTOR_HORIZONTAL && bitsPerSample != 32
+                    && (compression == TIFFDecompressor.COMPRESSION_LZW
+                    || compression == TIFFDecompressor.COMPRESSION_ZLIB
+                    || compression == TIFFDecompressor.COMPRESSION_DEFLATE))) {
+                return false;
+            }
+
+            final long[] offsets = segmentOffsets();
+            final long[] byteCounts = segmentByteCounts();
+            if (offsets == null || byteCounts == null || offsets.length != byteCounts.length) {
+                return false;
+            }
+            final int bytesPerSample = bitsPerSample / 8;
+            final long segmentBytes;
+            if (isTiled()) {
+                if (tileWidth < 1 || tileLength < 1) {
+                    return false;
+                }
+                final long across = (width + (long) tileWidth - 1) / tileWidth;
+                final long down = (height + (long) tileLength - 1) / tileLength;
+                if (offsets.length != across * down) {
+                    return false;
+                }
+                segmentBytes = (long) tileWidth * tileLength * bytesPerSample;
+            } else {
+                if (rowsPerStrip < 1) {
+                    return false;
+                }
+                final long rows = Math.min(rowsPerStrip, height);
+                if (offsets.length != (height + rows - 1) / rows) {
+                    return false;
+                }
+                segmentBytes = rows * width * bytesPerSample;
+            }
+            if (segmentBytes > Integer.MAX_VALUE - 8) {
+                return false;
+            }
+
+            for (int i = 0; i < byteCounts.length; i++) {
+                // Corrupted offset or size tables, let ImageIO report the error
+                if (byteCounts[i] > Integer.MAX_VALUE - 8 || offsets[i] + byteCounts[i] > fileSize) {
+                    return false;
+                }
+                if (compression == TIFFDecompressor.COMPRESSION_NONE) {
+                    // The last strip has only remaining rows
+                    final long expected = isTiled()
+                            ? segmentBytes
+                            : Math.min(segmentLength(), height - (long) i * segmentLength())
+                            * width * bytesPerSample;
+                    if (byteCounts[i] < expected) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+
+        boolean isTiled() {
+            return tileWidth > 0 || tileOffsets != null;
+        }
+
+
+        int segmentWidth() {
+            return isTiled() ? tileWidth : width;
+        }
+
+
+        int segmentLength() {
+            return isTiled() ? tileLength : (int) Math.min(rowsPerStrip, height);
+        }
+
+
+        long[] segmentOffsets() {
+            return isTiled() ? tileOffsets : stripOffsets;
+        }
+
+
+        long[] segmentByteCounts() {
+            return isTiled() ? tileByteCounts : stripByteCounts;
+        }
+    }
+}
@@ -0,0 +1,500 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import ij.ImagePlus;
+import ij.ImageStack;
+import ij.process.ByteProcessor;
+import ij.process.ColorProcessor;
+import ij.process.FloatProcessor;
+import ij.process.ImageProcessor;
+import ij.process.ShortProcessor;
+
+import javax.imageio.plugins.tiff.BaselineTIFFTagSet;
+import javax.imageio.plugins.tiff.TIFFField;
+import javax.imageio.plugins.tiff.TIFFTag;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static ij_plugins.imageio.IJImageOUtils.isRGB48;
+
+/**
+ * Writes ImageJ images and stacks, 8-bit, 16-bit, 32-bit float, and RGB, as uncompressed TIFF directly from ImageJ
+ * pixel arrays, using gathering writes to a {@link FileChannel}, so no intermediate {@code BufferedImage} is created.
+ * Samples are written in native byte order, so 16-bit and 32-bit data are copied to the output buffer without
+ * per-sample conversion. Pixels of all pages are stored contiguously, the same way as ImageJ saves stacks, so the
+ * files can be also opened by ImageJ's own TIFF reader.
+ * <p>
+ * Calibration and description fields are the same as created by {@link TiffMetaDataFactory} for the ImageIO TIFF
+ * writer, and are stored with the first page.
+ *
+ * @author Jarek Sacha
+ */
+final class RawTIFFWriter {
+
+    static final String FORMAT_NAME = "tif";
+
+    /**
+     * Target size of a strip, the same as used by ImageIO TIFF writer.
+     */
+    private static final int STRIP_SIZE = 8192;
+
+    /**
+     * Size of buffer used to convert 16-bit, 32-bit, and RGB samples to bytes.
+     */
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final ThreadLocal<ByteBuffer> BUFFER =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder()));
+
+    /**
+     * Fields describing pixel layout, they are set by this writer.
+     */
+    private static final int[] LAYOUT_TAGS = {
+            BaselineTIFFTagSet.TAG_IMAGE_WIDTH,
+            BaselineTIFFTagSet.TAG_IMAGE_LENGTH,
+            BaselineTIFFTagSet.TAG_BITS_PER_SAMPLE,
+            BaselineTIFFTagSet.TAG_COMPRESSION,
+            BaselineTIFFTagSet.TAG_PHOTOMETRIC_INTERPRETATION,
+            BaselineTIFFTagSet.TAG_STRIP_OFFSETS,
+            BaselineTIFFTagSet.TAG_SAMPLES_PER_PIXEL,
+            BaselineTIFFTagSet.TAG_ROWS_PER_STRIP,
+            BaselineTIFFTagSet.TAG_STRIP_BYTE_COUNTS,
+            BaselineTIFFTagSet.TAG_PLANAR_CONFIGURATION,
+            BaselineTIFFTagSet.TAG_SAMPLE_FORMAT,
+    };
+
+    private RawTIFFWriter() {
+    }
+
+
+    /**
+     * Write image as an uncompressed TIFF, if its type is supported.
+     *
+     * @param imp  image to write, each slice is written as a separate page.
+     * @param file output file.
+     * @return {@code false} if the image cannot be written by this writer, the file was not created.
+     * @throws IJImageIOException if writing failed.
+     */
+    static boolean write(final ImagePlus imp, final File file) throws IJImageIOException {
+        if (isRGB48(imp)) {
+            return false;
+        }
+        final ImageStack stack = imp.getStack();
+        final int n = stack.getSize();
+        final int width = stack.getWidth();
+        final int height = stack.getHeight();
+        final int bytesPerPixel;
+        switch (imp.getBitDepth()) {
+            case 8:
+                bytesPerPixel = 1;
+                break;
+            case 16:
+                bytesPerPixel = 2;
+                break;
+            case 24:
+                bytesPerPixel = 3;
+                break;
+            case 32:
+                bytesPerPixel = 4;
+                break;
+            default:
+                return false;
+        }
+
+        final Map<Integer, TIFFField> metadata = new TreeMap<>();
+        for (final TIFFField field : TiffMetaDataFactory.createDirectory(imp).getTIFFFields()) {
+            if (!isLayoutTag(field.getTagNumber()) && isSupported(field.getType())) {
+                metadata.put(field.getTagNumber(), field);
+            }
+        }
+
+        // Same layout as used by ImageJ: header, the first directory, pixels of all pages, other directories.
+        // ImageJ reads stacks with contiguous pixels without decoding directories of other pages.
+        final ImageProcessor first = stack.getProcessor(1);
+        final Map<Integer, Field> firstFields = fields(first, metadata);
+        final Map<Integer, Field> otherFields = fields(first, null);
+        final int firstSize = align(directorySize(firstFields));
+        final int otherSize = align(directorySize(otherFields));
+        final long pageBytes = (long) width * height * bytesPerPixel;
+        final long pixelsStart = 8 + firstSize;
+        final long directoriesStart = align(pixelsStart + pageBytes * n);
+
+        // Offsets in classic TIFF are limited to 32 bits, other directories are written from a single buffer
+        final long directoriesBytes = (long) otherSize * (n - 1);
+        if (directoriesStart + directoriesBytes > 0xFFFFFFFFL || directoriesBytes > Integer.MAX_VALUE - 8) {
+            return false;
+        }
+
+        final long start = System.nanoTime();
+        boolean failed = true;
+        final ProgressSink sink = IJImageIO.getProgressSink();
+        final ProgressTracker tracker = sink != ProgressSink.NONE
+                ? new ProgressTracker(sink, "Writing", file, n, pageBytes * n)
+                : null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+
+            final ByteOrder order = ByteOrder.nativeOrder();
+            final ByteBuffer header = ByteBuffer.allocate(8 + firstSize).order(order);
+            header.put((byte) (order == ByteOrder.LITTLE_ENDIAN ? 'I' : 'M'));
+            header.put(header.get(0));
+            header.putShort((short) 42);
+            header.putInt(8);
+            encode(header, firstFields, 8, pixelsStart, n > 1 ? directoriesStart : 0);
+            header.flip();
+
+            for (int i = 0; i < n; i++) {
+                if (tracker != null && tracker.checkpoint(i)) {
+                    break;
+                }
+                final IJImageIOEvents.WriteImage event = new IJImageIOEvents.WriteImage();
+                event.begin();
+                writePixels(channel, i == 0 ? header : ByteBuffer.allocate(0), stack.getProcessor(i + 1));
+                if (event.shouldCommit()) {
+                    event.file = file.getPath();
+                    event.format = FORMAT_NAME;
+                    event.page = i;
+                    event.width = width;
+                    event.height = height;
+                    event.bytes = pageBytes;
+                    event.writer = RawTIFFWriter.class.getName();
+                    event.commit();
+                }
+            }
+
+            if (n > 1 && (tracker == null || !tracker.isAborted())) {
+                final ByteBuffer directories = ByteBuffer.allocate(
+                        (int) (directoriesStart - pixelsStart - pageBytes * n) + otherSize * (n - 1)).order(order);
+                directories.position((int) (directoriesStart - pixelsStart - pageBytes * n));
+                for (int i = 1; i < n; i++) {
+                    final long position = directoriesStart + (long) (i - 1) * otherSize;
+                    encode(directories, otherFields, position, pixelsStart + pageBytes * i,
+                            i < n - 1 ? position + otherSize : 0);
+                }
+                directories.flip();
+                writeFully(channel, directories);
+            }
+            failed = false;
+        } catch (final IOException ex) {
+            throw new IJImageIOException("Error writing image to file '" + file.getAbsolutePath() + ". "
+                    + ex.getMessage(), ex);
+        } finally {
+            if (tracker != null) {
+                tracker.finish();
+            }
+            failed = failed || (tracker != null && tracker.isAborted());
+            IJImageIOMetrics.record(IJImageIOMetrics.Operation.WRITE, RawTIFFWriter.class.getName(), FORMAT_NAME,
+                    System.nanoTime() - start, file.length(), failed ? 0 : (long) width * height * n, failed);
+        }
+
+        if (tracker != null && tracker.isAborted()) {
+            if (!file.delete()) {
+                IJImageIO.logDebug("Failed to delete partially written file: " + file.getAbsolutePath());
+            }
+            throw new IJImageIOCancelledException("Writing of '" + file.getName() + "' cancelled.");
+        }
+        return true;
+    }
+
+
+    /**
+     * @param metadata additional fields, may be {@code null}.
+     * @return fields of an image file directory describing page {@code ip}, sorted by tag, as required by TIFF
+     * specification. Strip offsets are set when the directory is encoded.
+     */
+    private static Map<Integer, Field> fields(final ImageProcessor ip, final Map<Integer, TIFFField> metadata) {
+        final int width = ip.getWidth();
+        final int height = ip.getHeight();
+        final int samplesPerPixel = ip instanceof ColorProcessor ? 3 : 1;
+        final int bitsPerSample = ip instanceof ColorProcessor ? 8 : ip.getBitDepth();
+        final int bytesPerRow = width * samplesPerPixel * bitsPerSample / 8;
+        final int rowsPerStrip = Math.max(1, Math.min(height, STRIP_SIZE / bytesPerRow));
+        final int nbStrips = (height + rowsPerStrip - 1) / rowsPerStrip;
+
+        final Map<Integer, Field> fields = new TreeMap<>();
+        fields.put(BaselineTIFFTagSet.TAG_IMAGE_WIDTH, Field.longs(BaselineTIFFTagSet.TAG_IMAGE_WIDTH, width));
+        fields.put(BaselineTIFFTagSet.TAG_IMAGE_LENGTH, Field.longs(BaselineTIFFTagSet.TAG_IMAGE_LENGTH, height));
+        final int[] bitsPerSamples = new int[samplesPerPixel];
+        Arrays.fill(bitsPerSamples, bitsPerSample);
+        fields.put(BaselineTIFFTagSet.TAG_BITS_PER_SAMPLE,
+                Field.shorts(BaselineTIFFTagSet.TAG_BITS_PER_SAMPLE, bitsPerSamples));
+        fields.put(BaselineTIFFTagSet.TAG_COMPRESSION,
+                Field.shorts(BaselineTIFFTagSet.TAG_COMPRESSION, BaselineTIFFTagSet.COMPRESSION_NONE));
+        fields.put(BaselineTIFFTagSet.TAG_PHOTOMETRIC_INTERPRETATION,
+                Field.shorts(BaselineTIFFTagSet.TAG_PHOTOMETRIC_INTERPRETATION, samplesPerPixel == 3
+                        ? BaselineTIFFTagSet.PHOTOMETRIC_INTERPRETATION_RGB
+                        : BaselineTIFFTagSet.PHOTOMETRIC_INTERPRETATION_BLACK_IS_ZERO));
+        final long[] stripByteCounts = new long[nbStrips];
+        for (int s = 0; s < nbStrips; s++) {
+            stripByteCounts[s] = (long) Math.min(rowsPerStrip, height - s * rowsPerStrip) * bytesPerRow;
+        }
+        fields.put(BaselineTIFFTagSet.TAG_STRIP_OFFSETS,
+                Field.longs(BaselineTIFFTagSet.TAG_STRIP_OFFSETS, new long[nbStrips]));
+        fields.put(BaselineTIFFTagSet.TAG_SAMPLES_PER_PIXEL,
+                Field.shorts(BaselineTIFFTagSet.TAG_SAMPLES_PER_PIXEL, samplesPerPixel));
+        fields.put(BaselineTIFFTagSet.TAG_ROWS_PER_STRIP,
+                Field.longs(BaselineTIFFTagSet.TAG_ROWS_PER_STRIP, rowsPerStrip));
+        fields.put(BaselineTIFFTagSet.TAG_STRIP_BYTE_COUNTS,
+                Field.longs(BaselineTIFFTagSet.TAG_STRIP_BYTE_COUNTS, stripByteCounts));
+        if (bitsPerSample > 8) {
+            fields.put(BaselineTIFFTagSet.TAG_SAMPLE_FORMAT,
+                    Field.shorts(BaselineTIFFTagSet.TAG_SAMPLE_FORMAT, ip instanceof FloatProcessor
+                            ? BaselineTIFFTagSet.SAMPLE_FORMAT_FLOATING_POINT
+                            : BaselineTIFFTagSet.SAMPLE_FORMAT_UNSIGNED_INTEGER));
+        }
+        if (metadata != null) {
+            for (final TIFFField f : metadata.values()) {
+                fields.put(f.getTagNumber(), Field.from(f));
+            }
+        }
+        return fields;
+    }
+
+
+    /**
+     * @return size of image file directory, including values that do not fit in directory entries.
+     */
+    private static int directorySize(final Map<Integer, Field> fields) {
+        int size = 2 + fields.size() * 12 + 4;
+        for (final Field f : fields.values()) {
+            if (f.size() > 4) {
+                size += align(f.size());
+            }
+        }
+        return size;
+    }
+
+
+    /**
+     * Put image file directory, followed by values that do not fit in directory entries, into {@code buffer}.
+     *
+     * @param position     file position of the directory.
+     * @param pixelsOffset file position of the first strip, strips are contiguous.
+     * @param next         file position of the next directory, 0 if this is the last one.
+     */
+    private static void encode(final ByteBuffer buffer,
+                               final Map<Integer, Field> fields,
+                               final long position,
+                               final long pixelsOffset,
+                               final long next) {
+        final long[] stripOffsets = fields.get(BaselineTIFFTagSet.TAG_STRIP_OFFSETS).values;
+        final long[] stripByteCounts = fields.get(BaselineTIFFTagSet.TAG_STRIP_BYTE_COUNTS).values;
+        long offset = pixelsOffset;
+        for (int s = 0; s < stripOffsets.length; s++) {
+            stripOffsets[s] = offset;
+            offset += stripByteCounts[s];
+        }
+
+        final int start = buffer.position();
+        final int entriesSize = 2 + fields.size() * 12 + 4;
+        int valueOffset = entriesSize;
+        buffer.putShort((short) fields.size());
+        for (final Field f : fields.values()) {
+            buffer.putShort((short) f.tag);
+            buffer.putShort((short) f.type);
+            buffer.putInt(f.count);
+            if (f.size() > 4) {
+                buffer.putInt((int) (position + valueOffset));
+                f.put(buffer.duplicate().order(buffer.order()).position(start + valueOffset));
+                valueOffset += align(f.size());
+            } else {
+                final int entryEnd = buffer.position() + 4;
+                f.put(buffer);
+                buffer.position(entryEnd);
+            }
+        }
+        buffer.putInt((int) next);
+        buffer.position(start + align(valueOffset));
+    }
+
+
+    /**
+     * Write {@code header} followed by pixels of {@code ip}, using gathering writes.
+     */
+    private static void writePixels(final FileChannel channel,
+                                    final ByteBuffer header,
+                                    final ImageProcessor ip) throws IOException {
+        if (ip instanceof ByteProcessor) {
+            // Write pixel array as is
+            writeFully(channel, header, ByteBuffer.wrap((byte[]) ip.getPixels()));
+            return;
+        }
+
+        final Object pixels = ip.getPixels();
+        final int length = ip.getPixelCount();
+        final int bytesPerPixel = ip instanceof ColorProcessor ? 3 : ip instanceof ShortProcessor ? 2 : 4;
+        final ByteBuffer buffer = BUFFER.get();
+        final int chunk = BUFFER_SIZE / bytesPerPixel;
+        for (int offset = 0; offset < length; offset += chunk) {
+            final int count = Math.min(chunk, length - offset);
+            buffer.clear();
+            if (pixels instanceof short[]) {
+                buffer.asShortBuffer().put((short[]) pixels, offset, count);
+            } else if (pixels instanceof float[]) {
+                buffer.asFloatBuffer().put((float[]) pixels, offset, count);
+            } else {
+                final int[] rgb = (int[]) pixels;
+                for (int i = offset; i < offset + count; i++) {
+                    final int c = rgb[i];
+                    buffer.put((byte) (c >> 16)).put((byte) (c >> 8)).put((byte) c);
+                }
+            }
+            buffer.position(0).limit(count * bytesPerPixel);
+            writeFully(channel, header, buffer);
+        }
+    }
+
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer... buffers) throws IOException {
+        long remaining = 0;
+        for (final ByteBuffer b : buffers) {
+            remaining += b.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+
+
+    /**
+     * @return size rounded up to an even number of bytes, values and directories start on word boundary.
+     */
+    private static long align(final long size) {
+        return (size + 1) & ~1L;
+    }
+
+
+    private static int align(final int size) {
+        return (size + 1) & ~1;
+    }
+
+
+    private static boolean isLayoutTag(final int tag) {
+        for (final int t : LAYOUT_TAGS) {
+            if (t == tag) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+
+    private static boolean isSupported(final int type) {
+        return type == TIFFTag.TIFF_ASCII || type == TIFFTag.TIFF_SHORT || type == TIFFTag.TIFF_LONG
+                || type == TIFFTag.TIFF_RATIONAL;
+    }
+
+
+    /**
+     * Field of an image file directory with its value encoded as bytes.
+     */
+    private static final class Field {
+        final int tag;
+        final int type;
+        final int count;
+        private final byte[] ascii;
+        final long[] values;
+
+        private Field(final int tag, final int type, final int count, final byte[] ascii, final long[] values) {
+            this.tag = tag;
+            this.type = type;
+            this.count = count;
+            this.ascii = ascii;
+            this.values = values;
+        }
+
+        static Field shorts(final int tag, final int... values) {
+            final long[] v = new long[values.length];
+            for (int i = 0; i < values.length; i++) {
+                v[i] = values[i];
+            }
+            return new Field(tag, TIFFTag.TIFF_SHORT, values.length, null, v);
+        }
+
+        static Field longs(final int tag, final long... values) {
+            return new Field(tag, TIFFTag.TIFF_LONG, values.length, null, values);
+        }
+
+        static Field from(final TIFFField f) {
+            switch (f.getType()) {
+                case TIFFTag.TIFF_ASCII: {
+                    // NUL terminated strings
+                    final StringBuilder sb = new StringBuilder();
+                    for (int i = 0; i < f.getCount(); i++) {
+                        sb.append(f.getAsString(i)).append('\0');
+                    }
+                    final byte[] bytes = sb.toString().getBytes(StandardCharsets.US_ASCII);
+                    return new Field(f.getTagNumber(), TIFFTag.TIFF_ASCII, bytes.length, bytes, null);
+                }
+                case TIFFTag.TIFF_RATIONAL: {
+                    final long[] v = new long[2 * f.getCount()];
+                    for (int i = 0; i < f.getCount(); i++) {
+                        final long[] r = f.getAsRational(i);
+                        v[2 * i] = r[0];
+                        v[2 * i + 1] = r[1];
+                    }
+                    return new Field(f.getTagNumber(), TIFFTag.TIFF_RATIONAL, f.getCount(), null, v);
+                }
+                default: {
+                    final long[] v = new long[f.getCount()];
+                    for (int i = 0; i < v.length; i++) {
+                        v[i] = f.getAsLong(i);
+                    }
+                    return new Field(f.getTagNumber(), f.getType(), v.length, null, v);
+                }
+            }
+        }
+
+        /**
+         * @return size of the value in bytes.
+         */
+        int size() {
+            if (ascii != null) {
+                return ascii.length;
+            }
+            return values.length * (type == TIFFTag.TIFF_SHORT ? 2 : 4);
+        }
+
+        void put(final ByteBuffer buffer) {
+            if (ascii != null) {
+                buffer.put(ascii);
+                return;
+            }
+            for (final long v : values) {
+                if (type == TIFFTag.TIFF_SHORT) {
+                    buffer.putShort((short) v);
+                } else {
+                    buffer.putInt((int) v);
+                }
+            }
+        }
+    }
+}
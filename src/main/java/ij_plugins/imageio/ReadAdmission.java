@@ -0,0 +1,445 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission of a single read to decoding, enforcing {@link ReadLimits}: checks estimated size of decoded pixels
+ * against the memory budget, selects subsampling when needed, reserves memory shared by concurrent reads, and aborts
+ * the reader when the time limit expires.
+ *
+ * @author Jarek Sacha
+ */
+final class ReadAdmission implements AutoCloseable {
+
+    private static final Object LOCK = new Object();
+    private static long reservedBytes;
+
+    private final ImageReader reader;
+    private final File file;
+    private final long reserved;
+    private final int subsampling;
+    private final ReadLimits limits;
+    private final ScheduledFuture<?> timer;
+    private final List<ImageReader> otherReaders = new CopyOnWriteArrayList<>();
+    private volatile boolean timedOut;
+
+
+    private ReadAdmission(final ImageReader reader,
+                          final File file,
+                          final long reserved,
+                          final int subsampling,
+                          final ReadLimits limits,
+                          final long startNanos) {
+        this.reader = reader;
+        this.file = file;
+        this.reserved = reserved;
+        this.subsampling = subsampling;
+        this.limits = limits;
+        this.timer = limits.timeLimitMillis > 0
+                ? Timer.EXECUTOR.schedule(this::abort,
+                limits.timeLimitMillis - (System.nanoTime() - startNanos) / 1_000_000, TimeUnit.MILLISECONDS)
+                : null;
+    }
+
+
+    /**
+     * Count pages in a file, without reading more than {@link ReadLimits#maxPages} pages, when the reader does
+     * not know the number of pages without searching the file.
+     *
+     * @param reader     reader with input set.
+     * @param file       file being read, used in messages.
+     * @param limits     limits to enforce.
+     * @param startNanos {@link System#nanoTime()} when reading of the file started.
+     * @return number of pages, not including pages before {@link ImageReader#getMinIndex()}.
+     * @throws IJImageIOLimitException if the number of pages exceeds the limit or the time limit expired.
+     * @throws IJImageIOException      if the number of pages cannot be read.
+     */
+    static int countPages(final ImageReader reader,
+                          final File file,
+                          final ReadLimits limits,
+                          final long startNanos) throws IJImageIOException {
+        try {
+            final int minIndex = reader.getMinIndex();
+            int numImages = reader.getNumImages(false);
+            if (numImages < 0 && limits.maxPages < Integer.MAX_VALUE) {
+                // Locate pages one by one, so a file with too many pages is not searched to the end
+                for (int n = 0; n <= limits.maxPages; n++) {
+                    checkTime(file, limits, startNanos);
+                    try {
+                        reader.getWidth(minIndex + n);
+                    } catch (final IndexOutOfBoundsException e) {
+                        numImages = minIndex + n;
+                        break;
+                    }
+                }
+                if (numImages < 0) {
+                    checkPagesFound(limits.maxPages + 1, file, limits);
+                }
+            } else if (numImages < 0) {
+                numImages = reader.getNumImages(true);
+            }
+            checkTime(file, limits, startNanos);
+            return numImages - minIndex;
+        } catch (final IOException e) {
+            throw new IJImageIOException("Failed to retrieve number of images in the file. ", e);
+        }
+    }
+
+
+    /**
+     * Check that pages can be decoded within the limits, waiting for memory reserved by other reads if needed.
+     *
+     * @param reader     reader with input set.
+     * @param pageIndex  pages that will be read.
+     * @param file       file being read, used in messages.
+     * @param limits     limits to enforce.
+     * @param startNanos {@link System#nanoTime()} when reading of the file started, the time limit is counted
+     *                   from it.
+     * @return admission that has to be closed when decoding is completed.
+     * @throws IJImageIOLimitException     if the read exceeds the limits.
+     * @throws IJImageIOCancelledException if the thread was interrupted while waiting for memory.
+     * @throws IJImageIOException          if image headers cannot be read.
+     */
+    static ReadAdmission admit(final ImageReader reader,
+                               final int[] pageIndex,
+                               final File file,
+                               final ReadLimits limits,
+                               final long startNanos) throws IJImageIOException {
+
+        if (pageIndex.length > limits.maxPages) {
+            throw new IJImageIOLimitException("File '" + file.getName() + "' has " + pageIndex.length
+                    + " pages, the limit is " + limits.maxPages + ".");
+        }
+        checkTime(file, limits, startNanos);
+
+        try {
+            long estimate = estimateBytes(reader, pageIndex, 1);
+            final long budget = limits.maxBytes > 0 ? limits.maxBytes : availableHeap(estimate);
+            int subsampling = 1;
+            if (estimate > budget) {
+                if (limits.policy == ReadLimits.Policy.FAIL) {
+                    throw new IJImageIOLimitException("Decoded '" + file.getName() + "' needs "
+                            + toMB(estimate) + " MB, more than the limit of " + toMB(budget) + " MB.");
+                }
+                // Start with a guess based on area, then increase till the estimate fits
+                subsampling = Math.max(2, (int) Math.ceil(Math.sqrt((double) estimate / Math.max(1, budget))));
+                estimate = estimateBytes(reader, pageIndex, subsampling);
+                while (estimate > budget) {
+                    if (subsampling >= maxDimension(reader, pageIndex)) {
+                        throw new IJImageIOLimitException("Cannot subsample '" + file.getName()
+                                + "' to fit within " + toMB(budget) + " MB.");
+                    }
+                    subsampling++;
+                    estimate = estimateBytes(reader, pageIndex, subsampling);
+                }
+            }
+
+            if (limits.maxBytes > 0) {
+                reserve(estimate, limits.maxBytes);
+                return new ReadAdmission(reader, file, estimate, subsampling, limits, startNanos);
+            } else {
+                return new ReadAdmission(reader, file, 0, subsampling, limits, startNanos);
+            }
+        } catch (final IOException e) {
+            throw new IJImageIOException("Failed to read image size. " + e.getMessage(), e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IJImageIOCancelledException("Reading of '" + file.getName()
+                    + "' interrupted while waiting for memory.");
+        }
+    }
+
+
+    /**
+     * Check that pages of known decoded size can be read at full resolution within the limits, without
+     * an {@link ImageReader}, waiting for memory reserved by other reads if needed.
+     *
+     * @param bytes      size of decoded pages.
+     * @param pages      number of pages that will be read.
+     * @param file       file being read, used in messages.
+     * @param limits     limits to enforce.
+     * @param startNanos {@link System#nanoTime()} when reading of the file started, the time limit is counted
+     *                   from it.
+     * @return admission that has to be closed when reading is completed, or {@code null} if pages do not fit
+     * and have to be read through {@link #admit(ImageReader, int[], File, ReadLimits, long)}, that can fail or
+     * subsample.
+     * @throws IJImageIOLimitException     if the number of pages exceeds the limit.
+     * @throws IJImageIOCancelledException if the thread was interrupted while waiting for memory.
+     */
+    static ReadAdmission tryAdmit(final long bytes,
+                                  final int pages,
+                                  final File file,
+                                  final ReadLimits limits,
+                                  final long startNanos) throws IJImageIOException {
+
+        if (pages > limits.maxPages) {
+            throw new IJImageIOLimitException("File '" + file.getName() + "' has " + pages
+                    + " pages, the limit is " + limits.maxPages + ".");
+        }
+        checkTime(file, limits, startNanos);
+
+        final long budget = limits.maxBytes > 0 ? limits.maxBytes : availableHeap(bytes);
+        if (bytes > budget) {
+            return null;
+        }
+
+        if (limits.maxBytes > 0) {
+            try {
+                reserve(bytes, limits.maxBytes);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IJImageIOCancelledException("Reading of '" + file.getName()
+                        + "' interrupted while waiting for memory.");
+            }
+            return new ReadAdmission(null, file, bytes, 1, limits, startNanos);
+        } else {
+            return new ReadAdmission(null, file, 0, 1, limits, startNanos);
+        }
+    }
+
+
+    /**
+     * @return parameters for decoding, including subsampling if needed, {@code null} when defaults can be used.
+     */
+    ImageReadParam readParam() {
+        if (subsampling == 1) {
+            return null;
+        }
+        final ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        return param;
+    }
+
+
+    /**
+     * @return every n-th pixel and line is decoded, 1 when the image is decoded at full resolution.
+     */
+    int getSubsampling() {
+        return subsampling;
+    }
+
+
+    /**
+     * @throws IJImageIOLimitException if the time limit expired and the reader was aborted.
+     */
+    void checkTime() throws IJImageIOLimitException {
+        if (timedOut) {
+            throw new IJImageIOLimitException("Reading of '" + file.getName() + "' exceeded time limit of "
+                    + limits.timeLimitMillis + " ms.");
+        }
+    }
+
+
+    /**
+     * Check the time limit before a read is admitted, for instance, while its pages are located.
+     *
+     * @param file       file being read, used in messages.
+     * @param limits     limits to enforce.
+     * @param startNanos {@link System#nanoTime()} when reading of the file started.
+     * @throws IJImageIOLimitException if the time limit expired.
+     */
+    static void checkTime(final File file,
+                          final ReadLimits limits,
+                          final long startNanos) throws IJImageIOLimitException {
+        if (limits.timeLimitMillis > 0 && System.nanoTime() - startNanos >= limits.timeLimitMillis * 1_000_000) {
+            throw new IJImageIOLimitException("Reading of '" + file.getName() + "' exceeded time limit of "
+                    + limits.timeLimitMillis + " ms.");
+        }
+    }
+
+
+    /**
+     * Check number of pages located so far while searching a file, before all of its pages are found.
+     *
+     * @param found  number of pages located so far.
+     * @param file   file being read, used in messages.
+     * @param limits limits to enforce.
+     * @throws IJImageIOLimitException if more pages than the limit were found.
+     */
+    static void checkPagesFound(final int found,
+                                final File file,
+                                final ReadLimits limits) throws IJImageIOLimitException {
+        if (found > limits.maxPages) {
+            throw new IJImageIOLimitException("File '" + file.getName() + "' has more than "
+                    + limits.maxPages + " pages, the limit is " + limits.maxPages + ".");
+        }
+    }
+
+
+    /**
+     * @return {@code true} if the time limit expired.
+     */
+    boolean isTimedOut() {
+        return timedOut;
+    }
+
+
+    /**
+     * Abort also given reader when the time limit expires, for instance, a reader decoding part of a page
+     * in another thread.
+     *
+     * @param other reader to abort, has to be removed using {@link #removeReader(ImageReader)} when no longer used.
+     */
+    void addReader(final ImageReader other) {
+        otherReaders.add(other);
+    }
+
+
+    /**
+     * @param other reader added using {@link #addReader(ImageReader)}.
+     */
+    void removeReader(final ImageReader other) {
+        otherReaders.remove(other);
+    }
+
+
+    /**
+     * Release reserved memory and cancel the timer.
+     */
+    @Override
+    public void close() {
+        if (timer != null) {
+            timer.cancel(false);
+        }
+        if (reserved > 0) {
+            synchronized (LOCK) {
+                reservedBytes -= reserved;
+                LOCK.notifyAll();
+            }
+        }
+    }
+
+
+    private void abort() {
+        timedOut = true;
+        if (reader != null) {
+            reader.abort();
+        }
+        for (final ImageReader other : otherReaders) {
+            other.abort();
+        }
+    }
+
+
+    /**
+     * Size of decoded pixels, from image headers: width x height x bits per pixel, summed over pages.
+     */
+    static long estimateBytes(final ImageReader reader,
+                              final int[] pageIndex,
+                              final int subsampling) throws IOException {
+        long total = 0;
+        for (final int index : pageIndex) {
+            final long width = (reader.getWidth(index) + subsampling - 1) / subsampling;
+            final long height = (reader.getHeight(index) + subsampling - 1) / subsampling;
+            total += (width * height * bitsPerPixel(reader, index) + 7) / 8;
+        }
+        return total;
+    }
+
+
+    private static int bitsPerPixel(final ImageReader reader, final int index) throws IOException {
+        ImageTypeSpecifier type = reader.getRawImageType(index);
+        if (type == null) {
+            final Iterator<ImageTypeSpecifier> types = reader.getImageTypes(index);
+            type = types.hasNext() ? types.next() : null;
+        }
+        if (type == null) {
+            // Unknown, assume 4 bytes per pixel
+            return 32;
+        }
+        int bits = 0;
+        for (final int s : type.getSampleModel().getSampleSize()) {
+            bits += s;
+        }
+        return bits;
+    }
+
+
+    private static int maxDimension(final ImageReader reader, final int[] pageIndex) throws IOException {
+        int max = 1;
+        for (final int index : pageIndex) {
+            max = Math.max(max, Math.max(reader.getWidth(index), reader.getHeight(index)));
+        }
+        return max;
+    }
+
+
+    /**
+     * Memory that can be allocated in the Java heap. Garbage is collected first if {@code needed} does not fit, so
+     * the result is not underestimated due to unreachable objects.
+     */
+    private static long availableHeap(final long needed) {
+        final Runtime runtime = Runtime.getRuntime();
+        long available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        if (needed > available) {
+            System.gc();
+            available = runtime.maxMemory() - (runtime.totalMemory() - runtime.freeMemory());
+        }
+        return available;
+    }
+
+
+    private static void reserve(final long bytes, final long maxBytes) throws InterruptedException {
+        synchronized (LOCK) {
+            // A read that fits within the budget alone is admitted when no other read holds memory
+            while (reservedBytes > 0 && reservedBytes + bytes > maxBytes) {
+                LOCK.wait();
+            }
+            reservedBytes += bytes;
+        }
+    }
+
+
+    private static String toMB(final long bytes) {
+        return String.format("%.1f", bytes / (1024.0 * 1024.0));
+    }
+
+
+    /**
+     * Lazily created timer thread aborting readers that exceed the time limit.
+     */
+    private static final class Timer {
+        static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, r -> {
+            final Thread thread = new Thread(r, "IJP-ImageIO read timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static {
+            // Most reads complete in time, do not keep their cancelled timers in the queue
+            EXECUTOR.setRemoveOnCancelPolicy(true);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+/**
+ * Limits applied by {@link IJImageIO} before and while decoding images, protecting the application from files that
+ * would not fit in memory, such as decompression bombs or files with an excessive number of pages.
+ * <p>
+ * Size of decoded pixels is estimated from image headers before any pixels are decoded: width x height x bits per
+ * pixel, summed over all pages that will be read. When the estimate exceeds the memory budget, the read fails with
+ * {@link IJImageIOLimitException}, or with {@link Policy#SUBSAMPLE} images are decoded at reduced resolution, reading
+ * only every n-th pixel and line, so they fit within the budget.
+ * <p>
+ * Example, limiting pixels of all concurrent reads to 2 GB and each file to 60 seconds:
+ * <pre>
+ *     IJImageIO.setReadLimits(new ReadLimits(2L &lt;&lt; 30, 10_000, 60_000, ReadLimits.Policy.FAIL));
+ * </pre>
+ *
+ * @author Jarek Sacha
+ * @see IJImageIO#setReadLimits(ReadLimits)
+ */
+public final class ReadLimits {
+
+    /**
+     * What to do when decoded images would exceed the memory budget.
+     */
+    public enum Policy {
+        /**
+         * Fail with {@link IJImageIOLimitException} before decoding.
+         */
+        FAIL,
+        /**
+         * Decode images with subsampling, the smallest that fits within the budget.
+         */
+        SUBSAMPLE
+    }
+
+    /**
+     * Reads limited only by memory available in the Java heap.
+     */
+    public static final ReadLimits DEFAULT = new ReadLimits(0, Integer.MAX_VALUE, 0, Policy.FAIL);
+
+    /**
+     * Maximum number of bytes of decoded pixels of all reads in progress. Reads that fit within the limit, but not
+     * together with other reads in progress, wait for them to complete. If {@code 0}, each read is checked against
+     * memory available in the Java heap.
+     */
+    public final long maxBytes;
+
+    /**
+     * Maximum number of pages read from a single file.
+     */
+    public final int maxPages;
+
+    /**
+     * Maximum time of reading a single file, in milliseconds. If exceeded, decoding is aborted using
+     * {@link javax.imageio.ImageReader#abort()}. If {@code 0}, time is not limited.
+     */
+    public final long timeLimitMillis;
+
+    /**
+     * What to do when the memory budget is exceeded.
+     */
+    public final Policy policy;
+
+
+    /**
+     * @param maxBytes        maximum bytes of decoded pixels of all reads in progress, {@code 0} to use available
+     *                        heap memory.
+     * @param maxPages        maximum number of pages in a file.
+     * @param timeLimitMillis maximum time of reading a file in milliseconds, {@code 0} for no limit.
+     * @param policy          what to do when the memory budget is exceeded.
+     */
+    public ReadLimits(final long maxBytes, final int maxPages, final long timeLimitMillis, final Policy policy) {
+        Validate.isTrue(maxBytes >= 0, "Memory limit cannot be negative, got %d.", maxBytes);
+        Validate.isTrue(maxPages > 0, "Maximum number of pages must be positive, got %d.", maxPages);
+        Validate.isTrue(timeLimitMillis >= 0, "Time limit cannot be negative, got %d.", timeLimitMillis);
+        Validate.notNull(policy, "Argument 'policy' cannot be null.");
+        this.maxBytes = maxBytes;
+        this.maxPages = maxPages;
+        this.timeLimitMillis = timeLimitMillis;
+        this.policy = policy;
+    }
+
+
+    @Override
+    public String toString() {
+        return "ReadLimits{"
+                + "maxBytes=" + (maxBytes > 0 ? maxBytes : "heap")
+                + ", maxPages=" + maxPages
+                + ", timeLimitMillis=" + timeLimitMillis
+                + ", policy=" + policy
+                + '}';
+    }
+}
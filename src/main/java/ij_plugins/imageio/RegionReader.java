@@ -0,0 +1,359 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decodes a single large page using several threads. The page is split into regions aligned with its tiles, or
+ * strips, as reported by {@link ImageReader#getTileWidth(int)} and {@link ImageReader#getTileHeight(int)}. Each
+ * thread has its own reader and input stream and decodes regions selected with
+ * {@link ImageReadParam#setSourceRegion(Rectangle)} directly into their place in the shared destination image.
+ * <p>
+ * Pages that are not split into tiles or strips, for instance, PNG or JPEG, have to be decoded from the start to
+ * reach any region, so they are not decoded in parallel.
+ *
+ * @author Jarek Sacha
+ */
+final class RegionReader {
+
+    /**
+     * Pages with fewer pixels are decoded by a single reader.
+     */
+    static final long MIN_PIXELS = 1 << 22;
+
+    /**
+     * Number of regions per thread, more regions balance load better when some of them decode slower.
+     */
+    private static final int REGIONS_PER_THREAD = 4;
+
+    private RegionReader() {
+    }
+
+
+    /**
+     * Decode page {@code index} in parallel, if it is large enough and split into tiles or strips.
+     *
+     * @param reader    reader with input set, used to get page layout and to create readers for other threads.
+     * @param file      file being read.
+     * @param index     page to read.
+     * @param threads   number of threads to use.
+     * @param admission admission of this read, aborts readers of all threads when the time limit expires.
+     * @param tracker   receives progress of the page and aborts readers of all threads when cancellation is
+     *                  requested, can be {@code null}.
+     * @return decoded page, or {@code null} if the page cannot be decoded in parallel. If {@code tracker} was
+     * aborted the page is decoded only partially.
+     * @throws IOException        if decoding of a region failed.
+     * @throws IJImageIOException if the time limit expired or the thread was interrupted.
+     */
+    static BufferedImage read(final ImageReader reader,
+                              final File file,
+                              final int index,
+                              final int threads,
+                              final ReadAdmission admission,
+                              final ProgressTracker tracker) throws IOException, IJImageIOException {
+
+        final ImageReaderSpi spi = reader.getOriginatingProvider();
+        final int width = reader.getWidth(index);
+        final int height = reader.getHeight(index);
+        if (threads < 2 || spi == null || (long) width * height < MIN_PIXELS) {
+            return null;
+        }
+        final int tileWidth = Math.min(reader.getTileWidth(index), width);
+        final int tileHeight = Math.min(reader.getTileHeight(index), height);
+        if (tileWidth < 1 || tileHeight < 1 || (tileWidth == width && tileHeight == height)) {
+            return null;
+        }
+
+        // Destination of the same type as reader would create
+        final Iterator<ImageTypeSpecifier> types = reader.getImageTypes(index);
+        if (types == null || !types.hasNext()) {
+            return null;
+        }
+        final ImageTypeSpecifier type = types.next();
+        final BufferedImage destination = type.createBufferedImage(width, height);
+
+        // Regions are aligned with tiles. Bit-packed samples can share bytes across a tile boundary,
+        // so such images are split only into full-width bands.
+        final List<Rectangle> regions = regions(width, height, tileWidth, tileHeight,
+                threads * REGIONS_PER_THREAD, type.getSampleModel().getSampleSize(0) >= 8);
+        if (regions.size() < 2) {
+            return null;
+        }
+
+        final Page page = new Page(spi, file, index, destination, regions, admission, tracker);
+        final List<Callable<Void>> tasks = new ArrayList<>();
+        for (int t = 0; t < Math.min(threads, regions.size()); t++) {
+            tasks.add(() -> {
+                page.decodeRegions();
+                return null;
+            });
+        }
+
+        try {
+            for (final Future<Void> future : Pool.EXECUTOR.invokeAll(tasks)) {
+                try {
+                    future.get();
+                } catch (final ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException("Error decoding region of page " + index + ". " + cause.getMessage(),
+                            cause);
+                }
+            }
+        } catch (final InterruptedException e) {
+            page.abort();
+            Thread.currentThread().interrupt();
+            throw new IJImageIOCancelledException("Reading of '" + file.getName() + "' interrupted.");
+        }
+        admission.checkTime();
+
+        return destination;
+    }
+
+
+    /**
+     * Split image into regions aligned with its tiles.
+     *
+     * @param count        desired number of regions.
+     * @param splitColumns if {@code false} regions have full width of the image.
+     * @return regions covering the image, ordered by rows.
+     */
+    static List<Rectangle> regions(final int width,
+                                   final int height,
+                                   final int tileWidth,
+                                   final int tileHeight,
+                                   final int count,
+                                   final boolean splitColumns) {
+        final int tilesAcross = (width + tileWidth - 1) / tileWidth;
+        final int tilesDown = (height + tileHeight - 1) / tileHeight;
+
+        // Prefer full-width bands, split columns only when there are not enough tile rows
+        final int tileRowsPerRegion = Math.max(1, tilesDown / count);
+        final int regionsDown = (tilesDown + tileRowsPerRegion - 1) / tileRowsPerRegion;
+        final int regionsAcross = splitColumns
+                ? Math.min(tilesAcross, Math.max(1, (count + regionsDown - 1) / regionsDown))
+                : 1;
+        final int tileColumnsPerRegion = (tilesAcross + regionsAcross - 1) / regionsAcross;
+
+        final List<Rectangle> regions = new ArrayList<>();
+        for (int ty = 0; ty < tilesDown; ty += tileRowsPerRegion) {
+            final int y = ty * tileHeight;
+            final int h = Math.min(tileRowsPerRegion * tileHeight, height - y);
+            for (int tx = 0; tx < tilesAcross; tx += tileColumnsPerRegion) {
+                final int x = tx * tileWidth;
+                final int w = Math.min(tileColumnsPerRegion * tileWidth, width - x);
+                regions.add(new Rectangle(x, y, w, h));
+            }
+        }
+        return regions;
+    }
+
+
+    /**
+     * Decoding of a single page, shared by threads decoding its regions.
+     */
+    private static final class Page {
+        private final ImageReaderSpi spi;
+        private final File file;
+        private final int index;
+        private final BufferedImage destination;
+        private final List<Rectangle> regions;
+        private final ReadAdmission admission;
+        private final ProgressTracker tracker;
+        private final AtomicInteger next = new AtomicInteger();
+        private final AtomicLong pixelsDone = new AtomicLong();
+        private final double pixelsTotal;
+        private final List<ImageReader> readers = new CopyOnWriteArrayList<>();
+        private volatile boolean aborted;
+
+
+        Page(final ImageReaderSpi spi,
+             final File file,
+             final int index,
+             final BufferedImage destination,
+             final List<Rectangle> regions,
+             final ReadAdmission admission,
+             final ProgressTracker tracker) {
+            this.spi = spi;
+            this.file = file;
+            this.index = index;
+            this.destination = destination;
+            this.regions = regions;
+            this.admission = admission;
+            this.tracker = tracker;
+            this.pixelsTotal = (double) destination.getWidth() * destination.getHeight();
+        }
+
+
+        /**
+         * Decode regions, taking the next one from the shared counter, until all are decoded or decoding is
+         * aborted.
+         */
+        void decodeRegions() throws IOException {
+            final ImageReader reader = spi.createReaderInstance();
+            final RegionListener listener = new RegionListener();
+            reader.addIIOReadProgressListener(listener);
+            readers.add(reader);
+            admission.addReader(reader);
+            try (ImageInputStream iis = ImageIO.createImageInputStream(file)) {
+                if (iis == null) {
+                    throw new IOException("Cannot open file '" + file.getName() + "'.");
+                }
+                reader.setInput(iis, false, true);
+                final ImageReadParam param = reader.getDefaultReadParam();
+                param.setDestination(destination);
+                for (int i = next.getAndIncrement(); i < regions.size(); i = next.getAndIncrement()) {
+                    if (aborted || admission.isTimedOut()) {
+                        return;
+                    }
+                    final Rectangle region = regions.get(i);
+                    listener.regionPixels = (long) region.width * region.height;
+                    param.setSourceRegion(region);
+                    param.setDestinationOffset(new Point(region.x, region.y));
+                    reader.read(index, param);
+                }
+            } catch (final IOException | RuntimeException e) {
+                // No need to decode other regions
+                abort();
+                throw e;
+            } finally {
+                admission.removeReader(reader);
+                readers.remove(reader);
+                reader.dispose();
+            }
+        }
+
+
+        void abort() {
+            aborted = true;
+            for (final ImageReader reader : readers) {
+                reader.abort();
+            }
+        }
+
+
+        /**
+         * Forwards progress of a single thread to the tracker of the page.
+         */
+        private final class RegionListener implements IIOReadProgressListener {
+            private long regionPixels;
+
+            private void update(final float regionPercentageDone) {
+                if (tracker == null) {
+                    return;
+                }
+                final double done = pixelsDone.get() + regionPixels * regionPercentageDone / 100.0;
+                final boolean abort;
+                synchronized (tracker) {
+                    abort = tracker.imagePartProgress((float) (100 * done / pixelsTotal));
+                }
+                if (abort) {
+                    abort();
+                }
+            }
+
+            @Override
+            public void sequenceStarted(final ImageReader source, final int minIndex) {
+            }
+
+            @Override
+            public void sequenceComplete(final ImageReader source) {
+            }
+
+            @Override
+            public void imageStarted(final ImageReader source, final int imageIndex) {
+                update(0);
+            }
+
+            @Override
+            public void imageProgress(final ImageReader source, final float percentageDone) {
+                update(percentageDone);
+            }
+
+            @Override
+            public void imageComplete(final ImageReader source) {
+                pixelsDone.addAndGet(regionPixels);
+                update(0);
+            }
+
+            @Override
+            public void thumbnailStarted(final ImageReader source, final int imageIndex, final int thumbnailIndex) {
+            }
+
+            @Override
+            public void thumbnailProgress(final ImageReader source, final float percentageDone) {
+            }
+
+            @Override
+            public void thumbnailComplete(final ImageReader source) {
+            }
+
+            @Override
+            public void readAborted(final ImageReader source) {
+            }
+        }
+    }
+
+
+    /**
+     * Lazily created pool of threads decoding regions, shared by all reads.
+     */
+    private static final class Pool {
+        static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+            private final AtomicInteger threadCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                final Thread thread = new Thread(r, "IJP-ImageIO region reader " + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+}
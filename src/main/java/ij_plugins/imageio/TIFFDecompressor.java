@@ -0,0 +1,275 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import java.io.IOException;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses a single TIFF strip or tile compressed with LZW, Deflate, or PackBits. Instances keep their
+ * {@link Inflater}, LZW string table, and small buffers between segments, so are not thread-safe; each decoding thread
+ * uses its own instance, see {@link #get()}.
+ *
+ * @author Jarek Sacha
+ */
+final class TIFFDecompressor {
+
+    static final int COMPRESSION_NONE = 1;
+    static final int COMPRESSION_LZW = 5;
+    static final int COMPRESSION_ZLIB = 8;
+    static final int COMPRESSION_PACKBITS = 32773;
+    static final int COMPRESSION_DEFLATE = 32946;
+
+    private static final int LZW_CLEAR = 256;
+    private static final int LZW_EOI = 257;
+    private static final int LZW_FIRST = 258;
+    private static final int LZW_TABLE_SIZE = 4096;
+
+    /**
+     * Larger buffers are allocated for a single segment and not kept by the thread, so memory retained by decoding
+     * threads stays small and is not outside of memory limits of reads.
+     */
+    private static final int MAX_RETAINED_BUFFER = 4 << 20;
+
+    private static final ThreadLocal<TIFFDecompressor> INSTANCE = ThreadLocal.withInitial(TIFFDecompressor::new);
+
+    private final Inflater inflater = new Inflater();
+    // LZW table entries are strings already written to the output, stored as their offset and length
+    private final int[] lzwOffsets = new int[LZW_TABLE_SIZE];
+    private final int[] lzwLengths = new int[LZW_TABLE_SIZE];
+    private byte[] input = new byte[0];
+    private byte[] output = new byte[0];
+
+    private TIFFDecompressor() {
+    }
+
+
+    /**
+     * @return decompressor of the current thread.
+     */
+    static TIFFDecompressor get() {
+        return INSTANCE.get();
+    }
+
+
+    /**
+     * @return {@code true} if segments compressed using {@code compression} can be decompressed.
+     */
+    static boolean isSupported(final int compression) {
+        return compression == COMPRESSION_NONE || compression == COMPRESSION_LZW || compression == COMPRESSION_ZLIB
+                || compression == COMPRESSION_PACKBITS || compression == COMPRESSION_DEFLATE;
+    }
+
+
+    /**
+     * @return buffer for compressed data, at least {@code length} long. Small buffers are reused by this thread.
+     */
+    byte[] input(final int length) {
+        if (length > MAX_RETAINED_BUFFER) {
+            return new byte[length];
+        }
+        if (input.length < length) {
+            input = new byte[length];
+        }
+        return input;
+    }
+
+
+    /**
+     * @return buffer for decompressed data, at least {@code length} long. Small buffers are reused by this thread.
+     */
+    byte[] output(final int length) {
+        if (length > MAX_RETAINED_BUFFER) {
+            return new byte[length];
+        }
+        if (output.length < length) {
+            output = new byte[length];
+        }
+        return output;
+    }
+
+
+    /**
+     * Decompress {@code inLength} bytes of {@code in} into {@code out}, starting at {@code outOffset}.
+     *
+     * @param outLength expected size of decompressed data, any data beyond it are ignored.
+     * @return number of bytes decompressed, less than {@code outLength} if data are truncated.
+     * @throws IOException if compressed data are not valid.
+     */
+    int decompress(final int compression,
+                   final byte[] in,
+                   final int inLength,
+                   final byte[] out,
+                   final int outOffset,
+                   final int outLength) throws IOException {
+        switch (compression) {
+            case COMPRESSION_NONE: {
+                final int n = Math.min(inLength, outLength);
+                System.arraycopy(in, 0, out, outOffset, n);
+                return n;
+            }
+            case COMPRESSION_LZW:
+                return decodeLZW(in, inLength, out, outOffset, outLength);
+            case COMPRESSION_ZLIB:
+            case COMPRESSION_DEFLATE:
+                return inflate(in, inLength, out, outOffset, outLength);
+            case COMPRESSION_PACKBITS:
+                return decodePackBits(in, inLength, out, outOffset, outLength);
+            default:
+                throw new IOException("Unsupported TIFF compression: " + compression + ".");
+        }
+    }
+
+
+    private int inflate(final byte[] in,
+                        final int inLength,
+                        final byte[] out,
+                        final int outOffset,
+                        final int outLength) throws IOException {
+        inflater.reset();
+        inflater.setInput(in, 0, inLength);
+        int n = 0;
+        try {
+            while (n < outLength && !inflater.finished()) {
+                final int count = inflater.inflate(out, outOffset + n, outLength - n);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                n += count;
+            }
+        } catch (final DataFormatException e) {
+            throw new IOException("Invalid Deflate compressed data. " + e.getMessage(), e);
+        }
+        return n;
+    }
+
+
+    private int decodeLZW(final byte[] in,
+                          final int inLength,
+                          final byte[] out,
+                          final int outOffset,
+                          final int outLength) throws IOException {
+        if (inLength >= 2 && in[0] == 0 && (in[1] & 0x01) != 0) {
+            throw new IOException("TIFF 5.0-style LZW compression is not supported.");
+        }
+
+        final int end = outOffset + outLength;
+        int op = outOffset;
+        int next = LZW_FIRST;
+        int codeWidth = 9;
+        int prevOffset = 0;
+        int prevLength = 0;
+        int bitBuffer = 0;
+        int bitCount = 0;
+        int ip = 0;
+        while (op < end) {
+            // Read next code, most significant bit first
+            while (bitCount < codeWidth && ip < inLength) {
+                bitBuffer = (bitBuffer << 8) | (in[ip++] & 0xFF);
+                bitCount += 8;
+            }
+            if (bitCount < codeWidth) {
+                break;
+            }
+            final int code = (bitBuffer >>> (bitCount - codeWidth)) & ((1 << codeWidth) - 1);
+            bitCount -= codeWidth;
+
+            if (code == LZW_EOI) {
+                break;
+            }
+            if (code == LZW_CLEAR) {
+                next = LZW_FIRST;
+                codeWidth = 9;
+                prevLength = 0;
+                continue;
+            }
+
+            // Output string of the code, it immediately follows the previous one
+            final int offset = op;
+            final int length;
+            if (code < LZW_CLEAR) {
+                out[op++] = (byte) code;
+                length = 1;
+            } else if (code < next) {
+                length = lzwLengths[code];
+                final int n = Math.min(length, end - op);
+                System.arraycopy(out, lzwOffsets[code], out, op, n);
+                op += n;
+            } else if (code == next && prevLength > 0) {
+                // String is the previous one followed by its first byte
+                length = prevLength + 1;
+                final int n = Math.min(prevLength, end - op);
+                System.arraycopy(out, prevOffset, out, op, n);
+                op += n;
+                if (op < end) {
+                    out[op++] = out[prevOffset];
+                }
+            } else {
+                throw new IOException("Invalid LZW code " + code + ".");
+            }
+
+            if (prevLength > 0 && next < LZW_TABLE_SIZE) {
+                lzwOffsets[next] = prevOffset;
+                lzwLengths[next] = prevLength + 1;
+                next++;
+                // TIFF LZW switches to a wider code one entry early
+                if (next >= (1 << codeWidth) - 1 && codeWidth < 12) {
+                    codeWidth++;
+                }
+            }
+            prevOffset = offset;
+            prevLength = length;
+        }
+        return op - outOffset;
+    }
+
+
+    private static int decodePackBits(final byte[] in,
+                                      final int inLength,
+                                      final byte[] out,
+                                      final int outOffset,
+                                      final int outLength) {
+        final int end = outOffset + outLength;
+        int op = outOffset;
+        int ip = 0;
+        while (op < end && ip < inLength) {
+            final int b = in[ip++];
+            if (b >= 0) {
+                // Literal run of b + 1 bytes
+                final int n = Math.min(Math.min(b + 1, inLength - ip), end - op);
+                System.arraycopy(in, ip, out, op, n);
+                ip += b + 1;
+                op += n;
+            } else if (b != -128 && ip < inLength) {
+                // Next byte repeated 1 - b times
+                final int n = Math.min(1 - b, end - op);
+                final byte v = in[ip++];
+                for (int i = 0; i < n; i++) {
+                    out[op++] = v;
+                }
+            }
+        }
+        return op - outOffset;
+    }
+}
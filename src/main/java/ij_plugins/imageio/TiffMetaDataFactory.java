@@ -42,6 +42,29 @@ public final class TiffMetaDataFactory {
      * @return metadata corresponding to the source image
      */
     public static IIOMetadata createFrom(final ImagePlus image) {
+        return createDirectory(image).getAsMetadata();
+    }
+
+    /**
+     * Create TIFF fields from an image and its calibration information
+     *
+     * @param image source image
+     * @return directory with fields corresponding to the source image
+     */
+    static TIFFDirectory createDirectory(final ImagePlus image) {
+        final IJImageIOEvents.CreateTiffMetadata event = new IJImageIOEvents.CreateTiffMetadata();
+        event.begin();
+        final TIFFDirectory dir = create(image);
+        if (event.shouldCommit()) {
+            event.title = image.getTitle();
+            event.width = image.getWidth();
+            event.height = image.getHeight();
+            event.commit();
+        }
+        return dir;
+    }
+
+    private static TIFFDirectory create(final ImagePlus image) {
 
         final Calibration calibration = image.getCalibration();
 
@@ -115,6 +138,6 @@ public final class TiffMetaDataFactory {
 
         }
 
-        return dir.getAsMetadata();
+        return dir;
     }
 }
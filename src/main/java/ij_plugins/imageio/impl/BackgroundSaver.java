@@ -0,0 +1,195 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio.impl;
+
+import ij.IJ;
+import ij.ImagePlus;
+import ij.Macro;
+import ij.Prefs;
+import ij_plugins.imageio.BufferedImageFactory;
+import ij_plugins.imageio.IJImageIO;
+import ij_plugins.imageio.IJImageIOCancelledException;
+import ij_plugins.imageio.IJImageIOException;
+
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import java.awt.EventQueue;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves images in a background thread, so ImageJ remains responsive while large files are written.
+ * <p>
+ * When a save is requested, a copy of the image pixels is taken on the calling thread, so the image can be
+ * edited or closed while it is being saved. Saves are performed one at a time, in the order requested. At most
+ * {@link #MAX_PENDING} saves can be waiting, further requests block the caller till a previous save completes.
+ * This also limits memory used by the copies of pixels.
+ * <p>
+ * Progress is reported to {@link IJImageIO#getProgressSink()}, in ImageJ it is shown in the status bar and
+ * pressing Esc aborts the current save and removes the partially written file.
+ *
+ * @author Jarek Sacha
+ */
+public final class BackgroundSaver {
+
+    /**
+     * Preference key for enabling background saves.
+     */
+    public static final String PREF_ENABLED = "ijp-imageio.save.background";
+
+    /**
+     * Maximum number of saves being written or waiting to be written.
+     */
+    public static final int MAX_PENDING = 2;
+
+    private static final BackgroundSaver INSTANCE = new BackgroundSaver();
+
+    private final Semaphore permits = new Semaphore(MAX_PENDING, true);
+    private final ThreadPoolExecutor executor;
+
+
+    private BackgroundSaver() {
+        executor = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            // Not a daemon thread, JVM should not exit in the middle of writing a file.
+            final Thread thread = new Thread(r, "IJP-ImageIO background saver");
+            thread.setDaemon(false);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+
+    /**
+     * @return shared instance.
+     */
+    public static BackgroundSaver getInstance() {
+        return INSTANCE;
+    }
+
+
+    /**
+     * Background saves are enabled in preferences and the save is not requested by a macro. Macros expect the file
+     * to be written when the save command returns.
+     *
+     * @return {@code true} if saves should be done in the background.
+     */
+    public static boolean isEnabled() {
+        return Prefs.get(PREF_ENABLED, false) && !IJ.isMacro() && Macro.getOptions() == null;
+    }
+
+
+    /**
+     * @return number of saves that are in progress or waiting.
+     */
+    public int getPendingCount() {
+        return MAX_PENDING - permits.availablePermits();
+    }
+
+
+    /**
+     * Copy image pixels and schedule writing of the copy. Blocks if the maximum number of pending saves is reached.
+     * Errors are reported using {@link IJ#error(String, String)}.
+     *
+     * @param imp                  image to save.
+     * @param file                 destination file.
+     * @param writer               writer to use, it should not be used by the caller after this call.
+     * @param metadata             image metadata, can be {@code null}.
+     * @param param                writer parameters, can be {@code null}.
+     * @param useOneBitCompression save two level binary images using 1 bit per pixel.
+     * @param title                title of error messages.
+     * @throws InterruptedException if interrupted while waiting for previous saves to complete.
+     */
+    public void save(final ImagePlus imp,
+                     final File file,
+                     final ImageWriter writer,
+                     final IIOMetadata metadata,
+                     final ImageWriteParam param,
+                     final boolean useOneBitCompression,
+                     final String title) throws InterruptedException {
+
+        if (!permits.tryAcquire()) {
+            IJ.showStatus("Waiting for previous saves to complete...");
+            permits.acquire();
+        }
+
+        final ImagePlus snapshot;
+        try {
+            snapshot = imp.duplicate();
+        } catch (final RuntimeException | OutOfMemoryError e) {
+            permits.release();
+            throw e;
+        }
+
+        IJ.showStatus("Saving " + file.getName() + " in background...");
+        executor.execute(() -> {
+            try {
+                if (write(snapshot, file, writer, metadata, param, useOneBitCompression, title)) {
+                    // Image window is updated on the event dispatch thread
+                    EventQueue.invokeLater(() -> imp.setTitle(file.getName()));
+                }
+            } finally {
+                snapshot.flush();
+                writer.dispose();
+                permits.release();
+            }
+        });
+    }
+
+
+    /**
+     * @return {@code true} if the file was written, {@code false} if writing failed or was cancelled.
+     */
+    private static boolean write(final ImagePlus snapshot,
+                                 final File file,
+                                 final ImageWriter writer,
+                                 final IIOMetadata metadata,
+                                 final ImageWriteParam param,
+                                 final boolean useOneBitCompression,
+                                 final String title) {
+
+        final BufferedImage[] images = BufferedImageFactory.createFrom(snapshot, useOneBitCompression);
+        IJ.resetEscape();
+        try {
+            // Progress and cancellation are handled by IJImageIO's progress sink
+            IJImageIO.write(images, file, writer, metadata,
+                    param != null ? param : writer.getDefaultWriteParam());
+            IJ.showStatus("Saved " + file.getName());
+            return true;
+        } catch (final IJImageIOCancelledException e) {
+            IJ.showStatus(e.getMessage());
+            return false;
+        } catch (final IJImageIOException | RuntimeException e) {
+            e.printStackTrace();
+            IJ.showStatus("");
+            IJ.error(title, "Error writing file: " + file.getAbsolutePath() + ".\n\n"
+                    + (e.getMessage() == null ? e.toString() : e.getMessage()));
+            return false;
+        } finally {
+            IJ.showProgress(1.0);
+        }
+    }
+}
@@ -28,9 +28,15 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ComponentEvent;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Arrays;
 
 /**
  * Dialog for selecting pages/slices in multi-image files.
+ * <p>
+ * Pages can be selected by range or by picking them in a strip of page thumbnails. Thumbnails are loaded lazily,
+ * only for pages that are visible, by {@link PageThumbnailLoader}.
  *
  * @author Jarek Sacha
  */
@@ -41,8 +47,11 @@ class ImagePageSelectionDialog extends JDialog {
      *
      */
     private static final long serialVersionUID = 1L;
+    private static final int THUMBNAIL_SIZE = 96;
     private int numPages = 1;
     private int[] pageIndex = null;
+    private File file = null;
+    private final PageThumbnailLoader thumbnailLoader = new PageThumbnailLoader(THUMBNAIL_SIZE);
 
     private final JPanel jPanel1 = new JPanel();
     private final BorderLayout borderLayout1 = new BorderLayout();
@@ -59,6 +68,10 @@ class ImagePageSelectionDialog extends JDialog {
     private final JPanel jPanel2 = new JPanel();
     private final JButton cancelButton = new JButton();
     private final JButton okButton = new JButton();
+    private final DefaultListModel<Integer> pageListModel = new DefaultListModel<>();
+    private final JList<Integer> pageList = new JList<>(pageListModel);
+    private final JScrollPane pageScrollPane = new JScrollPane(pageList);
+    private final JLabel pageListLabel = new JLabel();
 
 
     /**
@@ -107,6 +120,17 @@ class ImagePageSelectionDialog extends JDialog {
     }
 
 
+    /**
+     * Set file which pages are selected, used to show page thumbnails. This method should be called before
+     * showing the dialog.
+     *
+     * @param file current image file, can be {@code null}.
+     */
+    public void setFile(final File file) {
+        this.file = file;
+    }
+
+
     /**
      * Gets number of pages.
      *
@@ -201,6 +225,25 @@ class ImagePageSelectionDialog extends JDialog {
         jPanel2.setLayout(new GridLayout(0, 2, 0, 0));
         jPanel2.add(okButton);
         jPanel2.add(cancelButton);
+
+        // Strip of page thumbnails, fixed cell size prevents rendering of all cells to compute list size
+        pageList.setLayoutOrientation(JList.VERTICAL_WRAP);
+        pageList.setVisibleRowCount(1);
+        pageList.setFixedCellWidth(THUMBNAIL_SIZE + 8);
+        pageList.setFixedCellHeight(THUMBNAIL_SIZE + 24);
+        pageList.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
+        pageList.setCellRenderer(new PageCellRenderer());
+        pageScrollPane.setHorizontalScrollBarPolicy(ScrollPaneConstants.HORIZONTAL_SCROLLBAR_ALWAYS);
+        pageScrollPane.setVerticalScrollBarPolicy(ScrollPaneConstants.VERTICAL_SCROLLBAR_NEVER);
+        pageScrollPane.setPreferredSize(new Dimension(5 * (THUMBNAIL_SIZE + 8),
+                THUMBNAIL_SIZE + 24 + pageScrollPane.getHorizontalScrollBar().getPreferredSize().height + 4));
+        pageScrollPane.getHorizontalScrollBar().setUnitIncrement(THUMBNAIL_SIZE + 8);
+        pageScrollPane.getViewport().addChangeListener(e -> updateVisibleRange());
+        pageListLabel.setText("Select pages on thumbnails (Ctrl/Shift-click) or enter a range above");
+        final JPanel pageListPanel = new JPanel(new BorderLayout(4, 4));
+        pageListPanel.add(pageListLabel, BorderLayout.NORTH);
+        pageListPanel.add(pageScrollPane, BorderLayout.CENTER);
+        this.getContentPane().add(pageListPanel, BorderLayout.CENTER);
     }
 
 
@@ -208,6 +251,13 @@ class ImagePageSelectionDialog extends JDialog {
      *
      */
     void okButtonAction() {
+        if (!pageList.isSelectionEmpty()) {
+            // Pages picked on the thumbnails take precedence over the range
+            pageIndex = pageList.getSelectedIndices();
+            closeDialog();
+            return;
+        }
+
         int firstPage;
         int lastPage;
         int pageIncrement;
@@ -235,7 +285,7 @@ class ImagePageSelectionDialog extends JDialog {
                 pageIndex[i] = firstPage - 1 + i * pageIncrement;
             }
         }
-        setVisible(false);
+        closeDialog();
     }
 
 
@@ -244,10 +294,25 @@ class ImagePageSelectionDialog extends JDialog {
      */
     void cancelButtonAction() {
         pageIndex = null;
+        closeDialog();
+    }
+
+
+    private void closeDialog() {
+        thumbnailLoader.cancel();
         setVisible(false);
     }
 
 
+    private void updateVisibleRange() {
+        final int first = pageList.getFirstVisibleIndex();
+        final int last = pageList.getLastVisibleIndex();
+        if (first >= 0 && last >= first) {
+            thumbnailLoader.setVisibleRange(first, last);
+        }
+    }
+
+
     /*
      *
      */
@@ -256,6 +321,19 @@ class ImagePageSelectionDialog extends JDialog {
         firstPageTF.setText("1");
         lastPageTF.setText("" + numPages);
         pageIncrementTF.setText("1");
+
+        thumbnailLoader.setFile(file);
+        pageList.clearSelection();
+        pageListModel.clear();
+        if (file != null) {
+            final Integer[] pages = new Integer[numPages];
+            for (int i = 0; i < numPages; i++) {
+                pages[i] = i;
+            }
+            pageListModel.addAll(Arrays.asList(pages));
+        }
+        pageList.ensureIndexIsVisible(0);
+        updateVisibleRange();
     }
 
 
@@ -278,4 +356,58 @@ class ImagePageSelectionDialog extends JDialog {
 
         return r;
     }
+
+
+    /**
+     * Shows page thumbnail with page number, requesting thumbnail loading when it is not available yet.
+     */
+    private final class PageCellRenderer extends DefaultListCellRenderer {
+
+        private static final long serialVersionUID = 1L;
+        private final Icon placeholderIcon = new PlaceholderIcon();
+
+
+        PageCellRenderer() {
+            setHorizontalAlignment(SwingConstants.CENTER);
+            setHorizontalTextPosition(SwingConstants.CENTER);
+            setVerticalTextPosition(SwingConstants.BOTTOM);
+        }
+
+
+        @Override
+        public Component getListCellRendererComponent(final JList<?> list,
+                                                      final Object value,
+                                                      final int index,
+                                                      final boolean isSelected,
+                                                      final boolean cellHasFocus) {
+            super.getListCellRendererComponent(list, value, index, isSelected, cellHasFocus);
+            final int page = (Integer) value;
+            setText(Integer.toString(page + 1));
+            final BufferedImage thumbnail = thumbnailLoader.getThumbnail(page, pageList::repaint);
+            setIcon(thumbnail != null ? new ImageIcon(thumbnail) : placeholderIcon);
+            return this;
+        }
+    }
+
+
+    private static final class PlaceholderIcon implements Icon {
+
+        @Override
+        public void paintIcon(final Component c, final Graphics g, final int x, final int y) {
+            g.setColor(Color.LIGHT_GRAY);
+            g.drawRect(x, y, THUMBNAIL_SIZE - 1, THUMBNAIL_SIZE - 1);
+        }
+
+
+        @Override
+        public int getIconWidth() {
+            return THUMBNAIL_SIZE;
+        }
+
+
+        @Override
+        public int getIconHeight() {
+            return THUMBNAIL_SIZE;
+        }
+    }
 }
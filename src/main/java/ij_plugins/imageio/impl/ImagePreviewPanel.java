@@ -25,8 +25,6 @@ package ij_plugins.imageio.impl;
 import ij.IJ;
 import ij.ImagePlus;
 import ij.process.ByteProcessor;
-import ij_plugins.imageio.IJImageIO;
-import ij_plugins.imageio.IJImageIOException;
 
 import javax.swing.*;
 import java.awt.*;
@@ -37,6 +35,9 @@ import java.io.File;
 
 /**
  * A utility for JFIleChooser that displays preview image, image file size, and image dimensions.
+ * <p>
+ * Previews are decoded in a background thread by {@link PreviewLoader}, selecting another file cancels
+ * decoding of the previous one.
  *
  * @author Jarek Sacha
  */
@@ -55,7 +56,8 @@ class ImagePreviewPanel extends JPanel implements PropertyChangeListener {
     protected int iconSizeX = 150;
     protected int iconSizeY = 100;
 
-    private IJImageIO.ImageInfo imageInfo;
+    private final PreviewLoader previewLoader;
+    private int numberOfPages = 0;
     private int[] pageIndex = null;
     private final ImagePageSelectionDialog imagePageSelectionDialog = new ImagePageSelectionDialog(IJ.getInstance());
     /**
@@ -73,6 +75,7 @@ class ImagePreviewPanel extends JPanel implements PropertyChangeListener {
      * Constructor for the FilePreviewer object
      */
     public ImagePreviewPanel() {
+        previewLoader = new PreviewLoader(iconSizeX, iconSizeY, null);
         initializeComponents();
         final ImagePlus imp = new ImagePlus("", new ByteProcessor(iconSizeX, iconSizeY));
         final ImageIcon imageIcon = new ImageIcon(imp.getImage());
@@ -87,6 +90,18 @@ class ImagePreviewPanel extends JPanel implements PropertyChangeListener {
      * @param fc File chooser that this object is associated with.
      */
     public ImagePreviewPanel(final JFileChooser fc) {
+        this(fc, null);
+    }
+
+
+    /**
+     * Creates new FilePreviewer
+     *
+     * @param fc        File chooser that this object is associated with.
+     * @param diskCache persistent preview cache, can be {@code null}.
+     */
+    public ImagePreviewPanel(final JFileChooser fc, final PreviewDiskCache diskCache) {
+        previewLoader = new PreviewLoader(iconSizeX, iconSizeY, diskCache);
         parentChooser = fc;
         initializeComponents();
         fc.addPropertyChangeListener(this);
@@ -129,8 +144,18 @@ class ImagePreviewPanel extends JPanel implements PropertyChangeListener {
     }
 
 
+    /**
+     * Cancel loading of a preview when this panel is removed, for instance, when file chooser dialog is closed.
+     */
+    @Override
+    public void removeNotify() {
+        previewLoader.cancel();
+        super.removeNotify();
+    }
+
+
     private void selectPagesButtonAction() {
-        if (imageInfo == null) {
+        if (numberOfPages < 1) {
             return;
         }
 
@@ -143,7 +168,8 @@ class ImagePreviewPanel extends JPanel implements PropertyChangeListener {
             return;
         }
 
-        imagePageSelectionDialog.setNumPages(imageInfo.numberOfPages);
+        imagePageSelectionDialog.setNumPages(numberOfPages);
+        imagePageSelectionDialog.setFile(file);
         imagePageSelectionDialog.setVisible(true);
         pageIndex = imagePageSelectionDialog.getPageIndex();
     }
@@ -172,77 +198,74 @@ class ImagePreviewPanel extends JPanel implements PropertyChangeListener {
 
 
     /**
-     * Load first image in the file.
+     * Request preview of the first image in the file. The preview is loaded in the background.
      */
     private void loadImage() {
         pageIndex = null;
+        numberOfPages = 0;
+        selectPagesButton.setEnabled(false);
 
         if (file == null || file.isDirectory()) {
+            previewLoader.cancel();
 //      ImageIconLabel.setIcon(null);
             fileSizeLabel.setText(" ");
-            selectPagesButton.setEnabled(false);
-            return;
-        }
-
-        try {
-            imageInfo = IJImageIO.readPreviewAndInfo(file);
-        } catch (final RuntimeException e) {
-            ImageIconLabel.setIcon(null);
-            fileSizeLabel.setText("Error decoding image");
-            return;
-        } catch (final IJImageIOException e) {
-            ImageIconLabel.setIcon(null);
-            fileSizeLabel.setText("Error decoding image");
             return;
         }
 
-        Image image = imageInfo.previewImage;
+        fileSizeLabel.setText(getFileSizeString(file.length()) + "  [loading...]");
+        previewLoader.load(file, new PreviewLoader.Listener() {
+            @Override
+            public void previewReady(final File previewFile, final PreviewLoader.Preview preview) {
+                if (previewFile.equals(file)) {
+                    showPreview(preview);
+                }
+            }
 
-        // Set image size label
-        final StringBuffer label = new StringBuffer(getFileSizeString(file.length()));
-        if (image != null) {
-            final int w = image.getWidth(null);
-            final int h = image.getHeight(null);
-            if (w > 0 && h > 0) {
-                label.append("  [").append(w).append("x").append(h);
-                if (imageInfo.numberOfPages > 1) {
-                    label.append("x").append(imageInfo.numberOfPages).append("]");
-                    final File[] selectedFiles = parentChooser.getSelectedFiles();
-                    final File selectedFile = parentChooser.getSelectedFile();
-                    if ((selectedFiles != null && selectedFiles.length == 1)
-                            || ((selectedFiles == null || selectedFiles.length == 0)
-                            && selectedFile != null)) {
-                        selectPagesButton.setEnabled(true);
-                    } else {
-                        selectPagesButton.setEnabled(false);
-                    }
-                } else {
-                    label.append("]");
-                    selectPagesButton.setEnabled(false);
+            @Override
+            public void previewFailed(final File previewFile, final String message) {
+                if (previewFile.equals(file)) {
+                    ImageIconLabel.setIcon(null);
+                    fileSizeLabel.setText("Error decoding image");
                 }
             }
+        });
+    }
+
 
-            final int xSizeBuffered = image.getWidth(null);
-            final int ySizeBuffered = image.getHeight(null);
-            if (xSizeBuffered > iconSizeX || ySizeBuffered > iconSizeY) {
-                // Replace image by its scaled version
-                final double scaleX = (double) iconSizeX / xSizeBuffered;
-                final double scaleY = (double) iconSizeY / ySizeBuffered;
-                if (scaleX < scaleY) {
-                    image = image.getScaledInstance(iconSizeX, -1, Image.SCALE_DEFAULT);
+    /**
+     * Display loaded preview and enable page selection for multi-page files.
+     */
+    private void showPreview(final PreviewLoader.Preview preview) {
+        numberOfPages = preview.numberOfPages;
+
+        // Set image size label
+        final StringBuilder label = new StringBuilder(getFileSizeString(file.length()));
+        final int w = preview.width;
+        final int h = preview.height;
+        if (w > 0 && h > 0) {
+            label.append("  [").append(w).append("x").append(h);
+            if (numberOfPages < 0) {
+                label.append("x...]");
+            } else if (numberOfPages > 1) {
+                label.append("x").append(numberOfPages).append("]");
+                final File[] selectedFiles = parentChooser.getSelectedFiles();
+                final File selectedFile = parentChooser.getSelectedFile();
+                if ((selectedFiles != null && selectedFiles.length == 1)
+                        || ((selectedFiles == null || selectedFiles.length == 0)
+                        && selectedFile != null)) {
+                    selectPagesButton.setEnabled(true);
                 } else {
-                    image = image.getScaledInstance(-1, iconSizeY, Image.SCALE_DEFAULT);
+                    selectPagesButton.setEnabled(false);
                 }
+            } else {
+                label.append("]");
+                selectPagesButton.setEnabled(false);
             }
-
-            final ImageIcon imageIcon = new ImageIcon(image);
-            ImageIconLabel.setIcon(imageIcon);
-        } else {
-            ImageIconLabel.setIcon(null);
         }
 
-
+        ImageIconLabel.setIcon(preview.image != null ? new ImageIcon(preview.image) : null);
         fileSizeLabel.setText(label.toString());
+        repaint();
     }
 
 
@@ -33,6 +33,8 @@ import java.util.Set;
 /**
  * Extension of JFileChooser with ability to return pages selected in multi-image files (e.g.
  * TIFF).
+ * <p>
+ * Previews are taken from the {@link PreviewDiskCache}, when enabled, before any image codec is used.
  *
  * @author Jarek Sacha
  */
@@ -43,7 +45,7 @@ public class OpenImageFileChooser
      *
      */
     private static final long serialVersionUID = 1L;
-    private final ImagePreviewPanel previewer = new ImagePreviewPanel(this);
+    private final ImagePreviewPanel previewer = new ImagePreviewPanel(this, PreviewDiskCache.getDefault());
 
 
     /**
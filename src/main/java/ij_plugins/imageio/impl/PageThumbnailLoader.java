@@ -0,0 +1,159 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio.impl;
+
+import ij.Prefs;
+import ij_plugins.imageio.IJImageIO;
+import ij_plugins.imageio.IJImageIOException;
+
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads thumbnails of pages in a multi-page file on demand.
+ * <p>
+ * Thumbnails are requested while they are painted, so only visible pages are decoded. Several pages are decoded in
+ * parallel, each with its own image reader, using subsampled decoding. Requests for pages that scrolled out of
+ * view before decoding started are skipped. Loaded thumbnails are kept in a bounded {@link ThumbnailCache}.
+ * <p>
+ * Methods of this class should be called on the event dispatch thread.
+ *
+ * @author Jarek Sacha
+ */
+final class PageThumbnailLoader {
+
+    private static final int CACHE_SIZE = 512;
+    private static final int MAX_THREADS = 4;
+
+    private final int thumbnailSize;
+    private final ThumbnailCache<BufferedImage> cache = new ThumbnailCache<>(CACHE_SIZE);
+    private final Set<ThumbnailCache.Key> pending = ConcurrentHashMap.newKeySet();
+    private final Set<ThumbnailCache.Key> failed = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger generation = new AtomicInteger();
+    private final ExecutorService executor;
+
+    private File file;
+    // Size and modification time of the file are read once, not every time a page is painted
+    private ThumbnailCache.Key fileKey;
+    private volatile int firstVisible = 0;
+    private volatile int lastVisible = Integer.MAX_VALUE;
+
+
+    /**
+     * @param thumbnailSize maximum width and height of a thumbnail.
+     */
+    PageThumbnailLoader(final int thumbnailSize) {
+        this.thumbnailSize = thumbnailSize;
+        final AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, Math.min(MAX_THREADS, Prefs.getThreads())), r -> {
+            final Thread thread = new Thread(r, "IJP-ImageIO page thumbnail loader " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.NORM_PRIORITY - 1);
+            return thread;
+        });
+    }
+
+
+    /**
+     * Set file for which thumbnails will be loaded. Pending requests for the previous file are cancelled.
+     *
+     * @param file image file, can be {@code null}.
+     */
+    void setFile(final File file) {
+        cancel();
+        this.file = file;
+        this.fileKey = file != null ? ThumbnailCache.Key.of(file) : null;
+    }
+
+
+    /**
+     * Update range of pages currently visible. Pending requests for other pages will be skipped.
+     *
+     * @param first index of the first visible page.
+     * @param last  index of the last visible page.
+     */
+    void setVisibleRange(final int first, final int last) {
+        this.firstVisible = first;
+        this.lastVisible = last;
+    }
+
+
+    /**
+     * Get thumbnail of a page. If the thumbnail is not loaded yet, request its loading.
+     *
+     * @param page     page index, first page has index 0.
+     * @param onLoaded called on event dispatch thread when requested thumbnail is loaded.
+     * @return thumbnail image or {@code null} if it is not loaded yet.
+     */
+    BufferedImage getThumbnail(final int page, final Runnable onLoaded) {
+        if (file == null) {
+            return null;
+        }
+
+        final ThumbnailCache.Key key = fileKey.withPage(page);
+        final BufferedImage thumbnail = cache.get(key);
+        if (thumbnail != null || failed.contains(key) || !pending.add(key)) {
+            return thumbnail;
+        }
+
+        final File taskFile = file;
+        final int taskGeneration = generation.get();
+        executor.submit(() -> {
+            try {
+                if (taskGeneration != generation.get() || page < firstVisible || page > lastVisible) {
+                    // No longer needed
+                    return;
+                }
+                final BufferedImage image = IJImageIO.readPreview(taskFile, page, thumbnailSize, thumbnailSize);
+                final BufferedImage icon = SwingUtils.createIconImage(image, thumbnailSize, thumbnailSize);
+                if (icon != null) {
+                    cache.put(key, icon);
+                }
+                if (taskGeneration == generation.get()) {
+                    SwingUtilities.invokeLater(onLoaded);
+                }
+            } catch (final IJImageIOException | RuntimeException e) {
+                // Thumbnail will not be shown, page can still be selected
+                failed.add(key);
+            } finally {
+                pending.remove(key);
+            }
+        });
+        return null;
+    }
+
+
+    /**
+     * Cancel all pending requests.
+     */
+    void cancel() {
+        generation.incrementAndGet();
+        pending.clear();
+    }
+}
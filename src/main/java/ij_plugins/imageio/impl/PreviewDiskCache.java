@@ -0,0 +1,345 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio.impl;
+
+import ij.Prefs;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.imageio.*;
+import javax.imageio.metadata.IIOInvalidTreeException;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.RenderedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Persistent cache of image previews, stored as small PNG files in ImageJ preferences directory.
+ * <p>
+ * Cache entries are keyed by canonical file path, file size, and modification time. Image size, number of pages,
+ * and codec name are stored in PNG text chunks, so a cached preview can be shown without opening the image
+ * file with any codec. Total size of the cache is bounded, least recently used entries are deleted first.
+ * <p>
+ * The cache is disabled by default, it is enabled using preference {@value #PREF_ENABLED}.
+ *
+ * @author Jarek Sacha
+ */
+public final class PreviewDiskCache {
+
+    /**
+     * Preference key for enabling the disk cache.
+     */
+    public static final String PREF_ENABLED = "ijp-imageio.preview.diskCache";
+    /**
+     * Preference key for maximum size of the disk cache in megabytes.
+     */
+    public static final String PREF_MAX_SIZE_MB = "ijp-imageio.preview.diskCacheMB";
+    public static final int DEFAULT_MAX_SIZE_MB = 64;
+
+    private static final String KEY_WIDTH = "width";
+    private static final String KEY_HEIGHT = "height";
+    private static final String KEY_PAGES = "pages";
+    private static final String KEY_CODEC = "codec";
+    private static final String METADATA_FORMAT = "javax_imageio_1.0";
+
+    private static PreviewDiskCache defaultInstance;
+
+    private final File directory;
+    private long currentSize = -1;
+
+
+    PreviewDiskCache(final File directory) {
+        this.directory = directory;
+    }
+
+
+    /**
+     * @return cache located in ImageJ preferences directory.
+     */
+    public static synchronized PreviewDiskCache getDefault() {
+        if (defaultInstance == null) {
+            final String prefsDir = Prefs.getPrefsDir();
+            final File base = prefsDir != null ? new File(prefsDir) : new File(System.getProperty("user.home"));
+            defaultInstance = new PreviewDiskCache(new File(base, "ijp-imageio" + File.separator + "previews"));
+        }
+        return defaultInstance;
+    }
+
+
+    public static boolean isEnabled() {
+        return Prefs.get(PREF_ENABLED, false);
+    }
+
+
+    public static long getMaxSizeBytes() {
+        return Math.max(1, (long) Prefs.get(PREF_MAX_SIZE_MB, DEFAULT_MAX_SIZE_MB)) * 1024 * 1024;
+    }
+
+
+    public File getDirectory() {
+        return directory;
+    }
+
+
+    /**
+     * Look up cached preview of a file.
+     *
+     * @param file image file.
+     * @return cached preview or {@code null} if not present or the cache is disabled.
+     */
+    PreviewLoader.Preview get(final File file) {
+        if (!isEnabled()) {
+            return null;
+        }
+
+        final File entry = entryFile(file);
+        if (!entry.isFile()) {
+            return null;
+        }
+
+        try (ImageInputStream iis = ImageIO.createImageInputStream(entry)) {
+            final Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            final ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, false);
+                final BufferedImage image = reader.read(0);
+                final Map<String, String> text = readText(reader.getImageMetadata(0));
+                final PreviewLoader.Preview preview = new PreviewLoader.Preview(image,
+                        Integer.parseInt(text.get(KEY_WIDTH)),
+                        Integer.parseInt(text.get(KEY_HEIGHT)),
+                        Integer.parseInt(text.get(KEY_PAGES)),
+                        text.get(KEY_CODEC));
+
+                // Mark as recently used
+                //noinspection ResultOfMethodCallIgnored
+                entry.setLastModified(System.currentTimeMillis());
+                return preview;
+            } finally {
+                reader.dispose();
+            }
+        } catch (final IOException | RuntimeException e) {
+            // Corrupted or incomplete entry
+            //noinspection ResultOfMethodCallIgnored
+            entry.delete();
+            return null;
+        }
+    }
+
+
+    /**
+     * Store preview of a file. Nothing is stored if the cache is disabled or the preview is incomplete.
+     *
+     * @param file    image file.
+     * @param preview preview of the file.
+     */
+    void put(final File file, final PreviewLoader.Preview preview) {
+        if (!isEnabled() || !(preview.image instanceof RenderedImage) || preview.numberOfPages < 0) {
+            return;
+        }
+
+        final Map<String, String> text = new HashMap<>();
+        text.put(KEY_WIDTH, Integer.toString(preview.width));
+        text.put(KEY_HEIGHT, Integer.toString(preview.height));
+        text.put(KEY_PAGES, Integer.toString(preview.numberOfPages));
+        text.put(KEY_CODEC, preview.codecName != null ? preview.codecName : "");
+
+        final File entry = entryFile(file);
+        File tmp = null;
+        try {
+            Files.createDirectories(directory.toPath());
+            tmp = File.createTempFile("preview", ".tmp", directory);
+            writePNG((RenderedImage) preview.image, text, tmp);
+            Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            tmp = null;
+            added(entry.length());
+        } catch (final IOException | RuntimeException e) {
+            // Cache is best effort, failure to store a preview is not an error
+            if (tmp != null) {
+                //noinspection ResultOfMethodCallIgnored
+                tmp.delete();
+            }
+        }
+    }
+
+
+    /**
+     * Delete all cached previews.
+     */
+    public synchronized void clear() {
+        final File[] files = directory.listFiles();
+        if (files != null) {
+            for (final File f : files) {
+                //noinspection ResultOfMethodCallIgnored
+                f.delete();
+            }
+        }
+        currentSize = 0;
+    }
+
+
+    private synchronized void added(final long bytes) {
+        if (currentSize < 0) {
+            currentSize = computeSize();
+        } else {
+            currentSize += bytes;
+        }
+
+        final long maxSize = getMaxSizeBytes();
+        if (currentSize > maxSize) {
+            evict(maxSize * 9 / 10);
+        }
+    }
+
+
+    /**
+     * Delete least recently used entries till size of the cache is below the limit.
+     */
+    private void evict(final long targetSize) {
+        final File[] files = directory.listFiles();
+        if (files == null) {
+            currentSize = 0;
+            return;
+        }
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        long size = 0;
+        for (final File f : files) {
+            size += f.length();
+        }
+        for (int i = 0; i < files.length && size > targetSize; i++) {
+            final long length = files[i].length();
+            if (files[i].delete()) {
+                size -= length;
+            }
+        }
+        currentSize = size;
+    }
+
+
+    private long computeSize() {
+        final File[] files = directory.listFiles();
+        long size = 0;
+        if (files != null) {
+            for (final File f : files) {
+                size += f.length();
+            }
+        }
+        return size;
+    }
+
+
+    private File entryFile(final File file) {
+        String path;
+        try {
+            path = file.getCanonicalPath();
+        } catch (final IOException e) {
+            path = file.getAbsolutePath();
+        }
+        final String key = path + "|" + file.length() + "|" + file.lastModified();
+        return new File(directory, hash(key) + ".png");
+    }
+
+
+    private static String hash(final String s) {
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            final byte[] bytes = digest.digest(s.getBytes(StandardCharsets.UTF_8));
+            final StringBuilder sb = new StringBuilder(bytes.length * 2);
+            for (final byte b : bytes) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is not available, this should never happen.", e);
+        }
+    }
+
+
+    private static void writePNG(final RenderedImage image, final Map<String, String> text, final File file)
+            throws IOException {
+        final Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("png");
+        if (!writers.hasNext()) {
+            throw new IOException("PNG writer not available.");
+        }
+        final ImageWriter writer = writers.next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(ios);
+            final ImageWriteParam param = writer.getDefaultWriteParam();
+            final IIOMetadata metadata =
+                    writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(image), param);
+            final IIOMetadataNode textNode = new IIOMetadataNode("Text");
+            for (final Map.Entry<String, String> e : text.entrySet()) {
+                final IIOMetadataNode entry = new IIOMetadataNode("TextEntry");
+                entry.setAttribute("keyword", e.getKey());
+                entry.setAttribute("value", e.getValue());
+                textNode.appendChild(entry);
+            }
+            final IIOMetadataNode root = new IIOMetadataNode(METADATA_FORMAT);
+            root.appendChild(textNode);
+            try {
+                metadata.mergeTree(METADATA_FORMAT, root);
+            } catch (final IIOInvalidTreeException e) {
+                throw new IOException("Failed to store preview information. " + e.getMessage(), e);
+            }
+            writer.write(null, new IIOImage(image, null, metadata), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+
+    private static Map<String, String> readText(final IIOMetadata metadata) {
+        final Map<String, String> text = new HashMap<>();
+        final Node root = metadata.getAsTree(METADATA_FORMAT);
+        for (Node n = root.getFirstChild(); n != null; n = n.getNextSibling()) {
+            if ("Text".equals(n.getNodeName())) {
+                for (Node e = n.getFirstChild(); e != null; e = e.getNextSibling()) {
+                    final NamedNodeMap attributes = e.getAttributes();
+                    final Node keyword = attributes.getNamedItem("keyword");
+                    final Node value = attributes.getNamedItem("value");
+                    if (keyword != null && value != null) {
+                        text.put(keyword.getNodeValue(), value.getNodeValue());
+                    }
+                }
+            }
+        }
+        return text;
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio.impl;
+
+import ij_plugins.imageio.IJImageIO;
+import ij_plugins.imageio.IJImageIOException;
+
+import javax.imageio.ImageReader;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.swing.*;
+import java.awt.*;
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Loads image previews in a background thread, so the file chooser stays responsive while large files are decoded.
+ * <p>
+ * Only the most recent request is of interest: a new request cancels the previous one, aborting its image reader
+ * if decoding already started. Loaded previews are kept in a {@link ThumbnailCache}.
+ * <p>
+ * If a {@link PreviewDiskCache} is provided, it is consulted before the image file is opened with any codec.
+ * <p>
+ * Previews are decoded at reduced resolution. If counting pages in a file requires scanning the whole file,
+ * the preview is delivered first with unknown number of pages, and then again when the pages are counted.
+ * <p>
+ * Methods of this class should be called on the event dispatch thread, the {@link Listener} is also notified on
+ * the event dispatch thread.
+ *
+ * @author Jarek Sacha
+ */
+final class PreviewLoader {
+
+    private static final int CACHE_SIZE = 64;
+
+    private final int iconWidth;
+    private final int iconHeight;
+    private final ThumbnailCache<Preview> cache = new ThumbnailCache<>(CACHE_SIZE);
+    private final PreviewDiskCache diskCache;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        final Thread thread = new Thread(r, "IJP-ImageIO preview loader");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        return thread;
+    });
+
+    private PreviewTask currentTask;
+
+
+    /**
+     * @param iconWidth  maximum width of the preview image.
+     * @param iconHeight maximum height of the preview image.
+     * @param diskCache  persistent preview cache, can be {@code null}.
+     */
+    PreviewLoader(final int iconWidth, final int iconHeight, final PreviewDiskCache diskCache) {
+        this.iconWidth = iconWidth;
+        this.iconHeight = iconHeight;
+        this.diskCache = diskCache;
+    }
+
+
+    /**
+     * Request preview of the file. Any pending request is cancelled.
+     *
+     * @param file     image file.
+     * @param listener notified when the preview is ready or failed to load, unless the request is cancelled.
+     */
+    void load(final File file, final Listener listener) {
+        cancel();
+
+        final ThumbnailCache.Key key = ThumbnailCache.Key.of(file);
+        final Preview cached = cache.get(key);
+        if (cached != null) {
+            listener.previewReady(file, cached);
+            return;
+        }
+
+        final PreviewTask task = new PreviewTask(file, key, listener);
+        currentTask = task;
+        task.future = executor.submit(task);
+    }
+
+
+    /**
+     * Cancel pending request, if any.
+     */
+    void cancel() {
+        if (currentTask != null) {
+            currentTask.cancel();
+            currentTask = null;
+        }
+    }
+
+
+    private Preview createPreview(final IJImageIO.ImageInfo imageInfo) {
+        final Image image = imageInfo.previewImage;
+        // Render scaled copy here, so painting on the event dispatch thread is cheap
+        final Image icon = image != null ? SwingUtils.createIconImage(image, iconWidth, iconHeight) : null;
+        return new Preview(icon, imageInfo.width, imageInfo.height, imageInfo.numberOfPages, imageInfo.codecName);
+    }
+
+
+    /**
+     * Receives results of preview loading.
+     */
+    interface Listener {
+
+        void previewReady(File file, Preview preview);
+
+        void previewFailed(File file, String message);
+    }
+
+
+    /**
+     * Preview image scaled to fit the icon size and basic information about the source image.
+     */
+    static final class Preview {
+        /**
+         * Scaled preview image, may be {@code null} if image could not be rendered.
+         */
+        final Image image;
+        /**
+         * Size of the source image.
+         */
+        final int width;
+        final int height;
+        /**
+         * Number of pages in the source file, {@code -1} if not known yet.
+         */
+        final int numberOfPages;
+        final String codecName;
+
+
+        Preview(final Image image, final int width, final int height, final int numberOfPages, final String codecName) {
+            this.image = image;
+            this.width = width;
+            this.height = height;
+            this.numberOfPages = numberOfPages;
+            this.codecName = codecName;
+        }
+    }
+
+
+    private final class PreviewTask implements Runnable, IIOReadProgressListener {
+
+        private final File file;
+        private final ThumbnailCache.Key key;
+        private final Listener listener;
+        private volatile boolean cancelled;
+        private volatile ImageReader reader;
+        private Future<?> future;
+
+
+        PreviewTask(final File file, final ThumbnailCache.Key key, final Listener listener) {
+            this.file = file;
+            this.key = key;
+            this.listener = listener;
+        }
+
+
+        @Override
+        public void run() {
+            if (cancelled) {
+                return;
+            }
+
+            if (diskCache != null) {
+                final Preview stored = diskCache.get(file);
+                if (stored != null) {
+                    cache.put(key, stored);
+                    deliver(stored);
+                    return;
+                }
+            }
+
+            final IJImageIO.ImageInfo imageInfo;
+            final Preview preview;
+            try {
+                imageInfo = IJImageIO.readPreviewAndInfo(file, iconWidth, iconHeight, this);
+                if (cancelled) {
+                    return;
+                }
+                preview = createPreview(imageInfo);
+            } catch (final IJImageIOException | RuntimeException e) {
+                deliverFailure(e);
+                return;
+            }
+
+            if (preview.numberOfPages >= 0) {
+                store(preview);
+                deliver(preview);
+                return;
+            }
+
+            // Show the preview now, number of pages will follow
+            deliver(preview);
+            final Preview counted;
+            try {
+                final int numberOfPages = imageInfo.getNumberOfPages();
+                counted = new Preview(preview.image, preview.width, preview.height, numberOfPages, preview.codecName);
+            } catch (final IJImageIOException | RuntimeException e) {
+                deliverFailure(e);
+                return;
+            }
+            store(counted);
+            deliver(counted);
+        }
+
+
+        private void store(final Preview preview) {
+            cache.put(key, preview);
+            if (diskCache != null) {
+                diskCache.put(file, preview);
+            }
+        }
+
+
+        private void deliver(final Preview preview) {
+            if (cancelled) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (!cancelled) {
+                    listener.previewReady(file, preview);
+                }
+            });
+        }
+
+
+        private void deliverFailure(final Exception e) {
+            if (cancelled) {
+                return;
+            }
+            SwingUtilities.invokeLater(() -> {
+                if (!cancelled) {
+                    listener.previewFailed(file, e.getMessage());
+                }
+            });
+        }
+
+
+        void cancel() {
+            cancelled = true;
+            final ImageReader r = reader;
+            if (r != null) {
+                r.abort();
+            }
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+
+
+        private void track(final ImageReader source) {
+            reader = source;
+            if (cancelled) {
+                source.abort();
+            }
+        }
+
+
+        @Override
+        public void sequenceStarted(final ImageReader source, final int minIndex) {
+            track(source);
+        }
+
+
+        @Override
+        public void sequenceComplete(final ImageReader source) {
+        }
+
+
+        @Override
+        public void imageStarted(final ImageReader source, final int imageIndex) {
+            track(source);
+        }
+
+
+        @Override
+        public void imageProgress(final ImageReader source, final float percentageDone) {
+            track(source);
+        }
+
+
+        @Override
+        public void imageComplete(final ImageReader source) {
+        }
+
+
+        @Override
+        public void thumbnailStarted(final ImageReader source, final int imageIndex, final int thumbnailIndex) {
+            track(source);
+        }
+
+
+        @Override
+        public void thumbnailProgress(final ImageReader source, final float percentageDone) {
+            track(source);
+        }
+
+
+        @Override
+        public void thumbnailComplete(final ImageReader source) {
+        }
+
+
+        @Override
+        public void readAborted(final ImageReader source) {
+        }
+    }
+}
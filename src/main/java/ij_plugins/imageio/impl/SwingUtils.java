@@ -21,7 +21,10 @@
  */
 package ij_plugins.imageio.impl;
 
+import ij_plugins.imageio.BufferedImageFactory;
+
 import java.awt.*;
+import java.awt.image.BufferedImage;
 
 
 /**
@@ -47,4 +50,39 @@ public class SwingUtils {
 
         window.setLocationRelativeTo(null);
     }
+
+
+    /**
+     * Render image scaled down to fit within given size, preserving aspect ratio. Images smaller than given size
+     * are not enlarged. The result can be painted quickly, regardless of the source image color model.
+     *
+     * @param image     source image, must be fully loaded.
+     * @param maxWidth  maximum width of the icon.
+     * @param maxHeight maximum height of the icon.
+     * @return new ARGB image, or {@code null} if source image size is not known.
+     */
+    public static BufferedImage createIconImage(final Image image, final int maxWidth, final int maxHeight) {
+        final int width = image.getWidth(null);
+        final int height = image.getHeight(null);
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+
+        final double scale = Math.min(1, Math.min((double) maxWidth / width, (double) maxHeight / height));
+        final int iconW = Math.max(1, (int) Math.round(width * scale));
+        final int iconH = Math.max(1, (int) Math.round(height * scale));
+        final BufferedImage icon = new BufferedImage(iconW, iconH, BufferedImage.TYPE_INT_ARGB);
+        final Graphics2D g2d = icon.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            // Images with FloatDoubleColorModel are slow to draw pixel by pixel
+            final Image src = image instanceof BufferedImage
+                    ? BufferedImageFactory.createRenderable((BufferedImage) image)
+                    : image;
+            g2d.drawImage(src, 0, 0, iconW, iconH, null);
+        } finally {
+            g2d.dispose();
+        }
+        return icon;
+    }
 }
@@ -0,0 +1,160 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio.impl;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, least-recently-used cache of decoded preview images.
+ * <p>
+ * Entries are keyed by file path, file size, modification time, and page index, so a preview is recomputed when
+ * the file changes on disk. The cache is thread safe.
+ *
+ * @param <V> type of cached values.
+ * @author Jarek Sacha
+ */
+final class ThumbnailCache<V> {
+
+    private final int maxEntries;
+    private final Map<Key, V> map;
+
+
+    /**
+     * @param maxEntries maximum number of entries to keep, least recently used entries are evicted first.
+     */
+    ThumbnailCache(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Argument 'maxEntries' must be at least 1, got " + maxEntries + ".");
+        }
+        this.maxEntries = maxEntries;
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, V> eldest) {
+                return size() > ThumbnailCache.this.maxEntries;
+            }
+        };
+    }
+
+
+    /**
+     * @param key cache key.
+     * @return cached value or {@code null} if there is no value for the key.
+     */
+    synchronized V get(final Key key) {
+        return map.get(key);
+    }
+
+
+    synchronized void put(final Key key, final V value) {
+        map.put(key, value);
+    }
+
+
+    synchronized int size() {
+        return map.size();
+    }
+
+
+    synchronized void clear() {
+        map.clear();
+    }
+
+
+    /**
+     * Identifies a page in particular version of a file.
+     */
+    static final class Key {
+        final String path;
+        final long length;
+        final long lastModified;
+        final int page;
+
+
+        Key(final String path, final long length, final long lastModified, final int page) {
+            this.path = path;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.page = page;
+        }
+
+
+        /**
+         * Create key for a file using its current size and modification time.
+         *
+         * @param file image file.
+         * @return new key.
+         */
+        static Key of(final File file) {
+            return of(file, 0);
+        }
+
+
+        /**
+         * Create key for a page in a file using current size and modification time of the file.
+         *
+         * @param file image file.
+         * @param page page index, first page has index 0.
+         * @return new key.
+         */
+        static Key of(final File file, final int page) {
+            return new Key(file.getAbsolutePath(), file.length(), file.lastModified(), page);
+        }
+
+
+        /**
+         * Create key for another page of the same file, without reading file size and modification time again.
+         *
+         * @param page page index, first page has index 0.
+         * @return new key.
+         */
+        Key withPage(final int page) {
+            return new Key(path, length, lastModified, page);
+        }
+
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            final Key key = (Key) o;
+            return length == key.length
+                    && lastModified == key.lastModified
+                    && page == key.page
+                    && path.equals(key.path);
+        }
+
+
+        @Override
+        public int hashCode() {
+            int result = path.hashCode();
+            result = 31 * result + Long.hashCode(length);
+            result = 31 * result + Long.hashCode(lastModified);
+            result = 31 * result + page;
+            return result;
+        }
+    }
+}
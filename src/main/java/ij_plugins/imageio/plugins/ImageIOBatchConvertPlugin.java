@@ -0,0 +1,133 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio.plugins;
+
+import ij.IJ;
+import ij.Prefs;
+import ij.gui.GenericDialog;
+import ij.plugin.PlugIn;
+import ij_plugins.imageio.BatchConverter;
+import ij_plugins.imageio.IJImageIOException;
+
+import javax.imageio.ImageIO;
+import java.io.File;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Convert all images in a directory to a different format using {@link BatchConverter}.
+ * Press Esc to cancel conversion of remaining files.
+ *
+ * @author Jarek Sacha
+ */
+public class ImageIOBatchConvertPlugin implements PlugIn {
+
+    private static final String TITLE = "IJP-ImageIO Batch Convert";
+    private static final String PREF_PREFIX = "ijp-imageio.batch.";
+
+    public void run(final String arg) {
+        final TreeSet<String> formatNames = new TreeSet<>();
+        for (final String name : ImageIO.getWriterFormatNames()) {
+            formatNames.add(name.toLowerCase(Locale.US));
+        }
+        final String[] formats = formatNames.toArray(new String[0]);
+
+        final GenericDialog dialog = new GenericDialog(TITLE);
+        dialog.addDirectoryField("Input_directory", Prefs.get(PREF_PREFIX + "input", ""), 40);
+        dialog.addStringField("Include_files", Prefs.get(PREF_PREFIX + "include", "*"), 20);
+        dialog.addCheckbox("Include_subdirectories", Prefs.get(PREF_PREFIX + "recursive", false));
+        dialog.addDirectoryField("Output_directory", Prefs.get(PREF_PREFIX + "output", ""), 40);
+        dialog.addChoice("Output_format", formats, Prefs.get(PREF_PREFIX + "format", "tif"));
+        dialog.addStringField("Compression", Prefs.get(PREF_PREFIX + "compression", ""), 20);
+        dialog.addNumericField("Threads", Prefs.getThreads(), 0);
+        dialog.addMessage("Leave compression empty to use writer's default, for TIFF, for instance, LZW or ZLib.");
+        dialog.showDialog();
+
+        if (dialog.wasCanceled()) {
+            return;
+        }
+
+        final File inputDir = new File(dialog.getNextString());
+        final String include = dialog.getNextString().trim();
+        final boolean recursive = dialog.getNextBoolean();
+        final File outputDir = new File(dialog.getNextString());
+        final String format = dialog.getNextChoice();
+        final String compression = dialog.getNextString().trim();
+        final int threads = (int) dialog.getNextNumber();
+
+        if (!inputDir.isDirectory()) {
+            IJ.error(TITLE, "Input directory does not exist: " + inputDir.getAbsolutePath());
+            return;
+        }
+        if (dialog.invalidNumber() || threads < 1) {
+            IJ.error(TITLE, "Number of threads must be a positive integer.");
+            return;
+        }
+
+        Prefs.set(PREF_PREFIX + "input", inputDir.getAbsolutePath());
+        Prefs.set(PREF_PREFIX + "include", include);
+        Prefs.set(PREF_PREFIX + "recursive", recursive);
+        Prefs.set(PREF_PREFIX + "output", outputDir.getAbsolutePath());
+        Prefs.set(PREF_PREFIX + "format", format);
+        Prefs.set(PREF_PREFIX + "compression", compression);
+
+        final BatchConverter converter;
+        try {
+            converter = new BatchConverter(format, compression, threads);
+        } catch (final IJImageIOException e) {
+            IJ.error(TITLE, e.getMessage());
+            return;
+        }
+
+        final List<File> files = BatchConverter.listFiles(inputDir,
+                BatchConverter.globFilter(include.isEmpty() ? "*" : include), recursive);
+        if (files.isEmpty()) {
+            IJ.error(TITLE, "No files to convert in " + inputDir.getAbsolutePath());
+            return;
+        }
+
+        IJ.resetEscape();
+        final BatchConverter.Result result;
+        try {
+            result = converter.convert(files, inputDir, outputDir, (file, error, done, total) -> {
+                IJ.showStatus("Converted " + done + "/" + total + ": " + file.getName());
+                IJ.showProgress(done, total);
+                if (IJ.escapePressed()) {
+                    converter.cancel();
+                }
+            });
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            IJ.showProgress(1.0);
+        }
+
+        for (final Map.Entry<File, String> error : result.errors.entrySet()) {
+            IJ.log("Failed to convert " + error.getKey().getAbsolutePath() + ": " + error.getValue());
+        }
+        IJ.log(result.toString());
+        IJ.showStatus(result.toString());
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio.plugins;
+
+import ij.IJ;
+import ij.Prefs;
+import ij.gui.GenericDialog;
+import ij.plugin.PlugIn;
+import ij_plugins.imageio.BatchConverter;
+import ij_plugins.imageio.ImageCatalog;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Catalog images in a directory using {@link ImageCatalog}, reading only file headers, and show the catalog
+ * in a results table.
+ *
+ * @author Jarek Sacha
+ */
+public class ImageIOCatalogPlugin implements PlugIn {
+
+    private static final String TITLE = "IJP-ImageIO Catalog";
+    private static final String PREF_PREFIX = "ijp-imageio.catalog.";
+
+    public void run(final String arg) {
+        final GenericDialog dialog = new GenericDialog(TITLE);
+        dialog.addDirectoryField("Input_directory", Prefs.get(PREF_PREFIX + "input", ""), 40);
+        dialog.addStringField("Include_files", Prefs.get(PREF_PREFIX + "include", "*"), 20);
+        dialog.addCheckbox("Include_subdirectories", Prefs.get(PREF_PREFIX + "recursive", false));
+        dialog.addNumericField("Threads", Prefs.getThreads(), 0);
+        dialog.showDialog();
+
+        if (dialog.wasCanceled()) {
+            return;
+        }
+
+        final File inputDir = new File(dialog.getNextString());
+        final String include = dialog.getNextString().trim();
+        final boolean recursive = dialog.getNextBoolean();
+        final int threads = (int) dialog.getNextNumber();
+
+        if (!inputDir.isDirectory()) {
+            IJ.error(TITLE, "Input directory does not exist: " + inputDir.getAbsolutePath());
+            return;
+        }
+        if (dialog.invalidNumber() || threads < 1) {
+            IJ.error(TITLE, "Number of threads must be a positive integer.");
+            return;
+        }
+
+        Prefs.set(PREF_PREFIX + "input", inputDir.getAbsolutePath());
+        Prefs.set(PREF_PREFIX + "include", include);
+        Prefs.set(PREF_PREFIX + "recursive", recursive);
+
+        final List<File> files = BatchConverter.listFiles(inputDir,
+                BatchConverter.globFilter(include.isEmpty() ? "*" : include), recursive);
+        if (files.isEmpty()) {
+            IJ.error(TITLE, "No files in " + inputDir.getAbsolutePath());
+            return;
+        }
+
+        final long start = System.nanoTime();
+        final List<ImageCatalog.Entry> entries;
+        try {
+            entries = ImageCatalog.scan(files, threads, (file, error, done, total) -> {
+                IJ.showStatus("Cataloged " + done + "/" + total + ": " + file.getName());
+                IJ.showProgress(done, total);
+            });
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } finally {
+            IJ.showProgress(1.0);
+        }
+
+        ImageCatalog.toResultsTable(entries).show(TITLE + " - " + inputDir.getName());
+        IJ.showStatus(String.format("Cataloged %d files in %.2f s.", entries.size(),
+                (System.nanoTime() - start) / 1e9));
+    }
+}
@@ -0,0 +1,312 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio.plugins;
+
+import ij.IJ;
+import ij.ImagePlus;
+import ij.WindowManager;
+import ij.gui.GenericDialog;
+import ij.measure.ResultsTable;
+import ij.plugin.PlugIn;
+import ij_plugins.imageio.BufferedImageFactory;
+import ij_plugins.imageio.IJImageIO;
+import ij_plugins.imageio.IJImageIOException;
+import ij_plugins.imageio.IJImageOUtils;
+
+import javax.imageio.*;
+import javax.imageio.spi.ImageWriterSpi;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Encodes and decodes the current image in memory with every applicable writer and compression type, and reports
+ * encoding and decoding speed and compressed size. Helps to select the fastest or the most compact format for
+ * given data.
+ * <p>
+ * Speed is measured relative to the size of uncompressed pixel data, the best of several repetitions is reported.
+ *
+ * @author Jarek Sacha
+ */
+public class ImageIOCodecBenchmarkPlugin implements PlugIn {
+
+    private static final String TITLE = "IJP-ImageIO Codec Benchmark";
+    private static final String DEFAULT_COMPRESSION = "default";
+    private static int repetitions = 3;
+
+    public void run(final String arg) {
+        final ImagePlus imp = WindowManager.getCurrentImage();
+        if (imp == null) {
+            IJ.noImage();
+            return;
+        }
+
+        final GenericDialog dialog = new GenericDialog(TITLE);
+        dialog.addNumericField("Repetitions", repetitions, 0);
+        dialog.addMessage("Image: " + imp.getTitle() + " (" + imp.getWidth() + "x" + imp.getHeight() + "x"
+                + imp.getStackSize() + ")");
+        dialog.showDialog();
+        if (dialog.wasCanceled()) {
+            return;
+        }
+        final int n = (int) dialog.getNextNumber();
+        if (dialog.invalidNumber() || n < 1) {
+            IJ.error(TITLE, "Number of repetitions must be a positive integer.");
+            return;
+        }
+        repetitions = n;
+
+        final BufferedImage[] images = BufferedImageFactory.createFrom(imp);
+        long rawBytes = 0;
+        for (final BufferedImage image : images) {
+            long bitsPerPixel = 0;
+            for (final int s : image.getSampleModel().getSampleSize()) {
+                bitsPerPixel += s;
+            }
+            rawBytes += bitsPerPixel * image.getWidth() * image.getHeight() / 8;
+        }
+
+        // Collect all writer/compression combinations to try
+        final List<Case> cases = new ArrayList<>();
+        final ImageTypeSpecifier type = ImageTypeSpecifier.createFromRenderedImage(images[0]);
+        for (final ImageWriterSpi spi : IJImageOUtils.getImageWriterSpis()) {
+            if (!spi.canEncodeImage(type)) {
+                continue;
+            }
+            for (final String compression : compressionTypes(spi)) {
+                cases.add(new Case(spi, compression));
+            }
+        }
+
+        IJ.resetEscape();
+        final ResultsTable rt = new ResultsTable();
+        for (int i = 0; i < cases.size(); i++) {
+            if (IJ.escapePressed()) {
+                IJ.showStatus(TITLE + ": cancelled");
+                break;
+            }
+            final Case c = cases.get(i);
+            IJ.showStatus("Benchmarking " + c.formatName() + " " + c.compression + "...");
+            IJ.showProgress(i, cases.size());
+
+            rt.incrementCounter();
+            rt.addValue("Format", c.formatName());
+            rt.addValue("Compression", c.compression);
+            try {
+                final Result r = benchmark(images, c);
+                rt.addValue("Encode MB/s", rawBytes / r.encodeSeconds / (1024 * 1024));
+                rt.addValue("Decode MB/s", rawBytes / r.decodeSeconds / (1024 * 1024));
+                rt.addValue("Size [KB]", r.compressedSize / 1024.0);
+                rt.addValue("Ratio", (double) rawBytes / r.compressedSize);
+                rt.addValue("Lossless", r.lossless == null ? "?" : r.lossless ? "yes" : "no");
+                rt.addValue("Note", "");
+            } catch (final Exception | OutOfMemoryError e) {
+                rt.addValue("Note", e.getMessage() != null ? e.getMessage() : e.toString());
+            }
+            rt.addValue("Writer", c.spi.getPluginClassName());
+        }
+        IJ.showProgress(1.0);
+        IJ.showStatus("");
+        rt.show(TITLE + " - " + imp.getTitle());
+    }
+
+
+    private static List<String> compressionTypes(final ImageWriterSpi spi) {
+        final List<String> result = new ArrayList<>();
+        result.add(DEFAULT_COMPRESSION);
+        final ImageWriter writer;
+        try {
+            writer = spi.createWriterInstance();
+        } catch (final IOException e) {
+            return result;
+        }
+        try {
+            final boolean isTIFF = Arrays.stream(spi.getFormatNames()).anyMatch("tif"::equalsIgnoreCase);
+            final ImageWriteParam param = writer.getDefaultWriteParam();
+            if (isTIFF) {
+                result.addAll(Arrays.asList(IJImageIO.getTIFFCompressionTypes()));
+            } else if (param.canWriteCompressed() && param.getCompressionTypes() != null) {
+                result.addAll(Arrays.asList(param.getCompressionTypes()));
+            }
+        } catch (final IJImageIOException | UnsupportedOperationException e) {
+            // Only the default compression
+        } finally {
+            writer.dispose();
+        }
+        return result;
+    }
+
+
+    private static Result benchmark(final BufferedImage[] images, final Case c) throws IOException {
+        final ImageWriter writer = c.spi.createWriterInstance();
+        try {
+            if (images.length > 1 && !writer.canWriteSequence()) {
+                throw new IOException("Writer cannot save multiple images in one file.");
+            }
+
+            // The first run of each operation is a warm-up and is not timed
+            byte[] encoded = null;
+            double encodeSeconds = Double.MAX_VALUE;
+            for (int i = 0; i <= repetitions; i++) {
+                final long start = System.nanoTime();
+                encoded = encode(images, writer, c.compression);
+                if (i > 0) {
+                    encodeSeconds = Math.min(encodeSeconds, (System.nanoTime() - start) / 1e9);
+                }
+            }
+
+            BufferedImage decoded = null;
+            double decodeSeconds = Double.MAX_VALUE;
+            for (int i = 0; i <= repetitions; i++) {
+                final long start = System.nanoTime();
+                decoded = decode(encoded, writer);
+                if (i > 0) {
+                    decodeSeconds = Math.min(decodeSeconds, (System.nanoTime() - start) / 1e9);
+                }
+            }
+
+            return new Result(encodeSeconds, decodeSeconds, encoded.length, isSame(images[0], decoded));
+        } finally {
+            writer.dispose();
+        }
+    }
+
+
+    private static byte[] encode(final BufferedImage[] images, final ImageWriter writer, final String compression)
+            throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = new MemoryCacheImageOutputStream(bytes)) {
+            writer.reset();
+            writer.setOutput(ios);
+            final ImageWriteParam param = writer.getDefaultWriteParam();
+            if (!DEFAULT_COMPRESSION.equals(compression)) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionType(compression);
+            }
+            if (images.length == 1) {
+                writer.write(null, new IIOImage(images[0], null, null), param);
+            } else {
+                writer.prepareWriteSequence(null);
+                for (final BufferedImage image : images) {
+                    writer.writeToSequence(new IIOImage(image, null, null), param);
+                }
+                writer.endWriteSequence();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+
+    /**
+     * Decode all images using reader corresponding to the writer, return the first one.
+     */
+    private static BufferedImage decode(final byte[] encoded, final ImageWriter writer) throws IOException {
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(new ByteArrayInputStream(encoded))) {
+            ImageReader reader = ImageIO.getImageReader(writer);
+            if (reader == null) {
+                final Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+                if (!readers.hasNext()) {
+                    throw new IOException("No reader for encoded data.");
+                }
+                reader = readers.next();
+            }
+            try {
+                reader.setInput(iis, false, true);
+                final int numImages = reader.getNumImages(true);
+                BufferedImage first = null;
+                for (int i = 0; i < numImages; i++) {
+                    final BufferedImage image = reader.read(i);
+                    if (first == null) {
+                        first = image;
+                    }
+                }
+                return first;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+
+    /**
+     * @return {@code true} if sample values are identical, {@code null} if images are not comparable.
+     */
+    private static Boolean isSame(final BufferedImage expected, final BufferedImage actual) {
+        if (actual == null || expected.getWidth() != actual.getWidth() || expected.getHeight() != actual.getHeight()) {
+            return null;
+        }
+        final Raster e = expected.getRaster();
+        final Raster a = actual.getRaster();
+        if (e.getNumBands() != a.getNumBands()) {
+            return null;
+        }
+        final int w = e.getWidth();
+        double[] eRow = null;
+        double[] aRow = null;
+        for (int y = 0; y < e.getHeight(); y++) {
+            eRow = e.getPixels(0, y, w, 1, eRow);
+            aRow = a.getPixels(0, y, w, 1, aRow);
+            if (!Arrays.equals(eRow, aRow)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+
+    private static final class Case {
+        final ImageWriterSpi spi;
+        final String compression;
+
+        Case(final ImageWriterSpi spi, final String compression) {
+            this.spi = spi;
+            this.compression = compression;
+        }
+
+        String formatName() {
+            return spi.getFormatNames()[0];
+        }
+    }
+
+
+    private static final class Result {
+        final double encodeSeconds;
+        final double decodeSeconds;
+        final long compressedSize;
+        final Boolean lossless;
+
+        Result(final double encodeSeconds, final double decodeSeconds, final long compressedSize,
+               final Boolean lossless) {
+            this.encodeSeconds = encodeSeconds;
+            this.decodeSeconds = decodeSeconds;
+            this.compressedSize = compressedSize;
+            this.lossless = lossless;
+        }
+    }
+}
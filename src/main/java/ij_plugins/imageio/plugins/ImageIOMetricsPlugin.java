@@ -0,0 +1,73 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio.plugins;
+
+import ij.IJ;
+import ij.measure.ResultsTable;
+import ij.plugin.PlugIn;
+import ij_plugins.imageio.IJImageIOMetrics;
+
+import java.util.List;
+
+/**
+ * Displays statistics of reading and writing images, per operation and codec, collected by
+ * {@link IJImageIOMetrics}. If plugin argument is "reset", statistics are cleared.
+ *
+ * @author Jarek Sacha
+ */
+public class ImageIOMetricsPlugin implements PlugIn {
+
+    private static final String TITLE = "IJP-ImageIO Metrics";
+
+    public void run(final String arg) {
+        if ("reset".equalsIgnoreCase(arg)) {
+            IJImageIOMetrics.reset();
+            IJ.showStatus(TITLE + ": statistics cleared");
+            return;
+        }
+
+        final List<IJImageIOMetrics.Statistics> statistics = IJImageIOMetrics.getStatistics();
+        if (statistics.isEmpty()) {
+            IJ.showMessage(TITLE, "No images were read or written by IJP-ImageIO yet.");
+            return;
+        }
+
+        final ResultsTable rt = new ResultsTable();
+        for (final IJImageIOMetrics.Statistics s : statistics) {
+            rt.incrementCounter();
+            rt.addValue("Operation", s.getOperation());
+            rt.addValue("Format", s.getFormat() != null ? s.getFormat() : "");
+            rt.addValue("Count", s.getCount());
+            rt.addValue("Failures", s.getFailures());
+            rt.addValue("MB", s.getBytes() / (1024.0 * 1024.0));
+            rt.addValue("MPixels", s.getPixels() / 1e6);
+            rt.addValue("MB/s", s.getMegabytesPerSecond());
+            rt.addValue("Mean [ms]", s.getLatencyMeanMillis());
+            rt.addValue("p50 [ms]", s.getLatencyP50Millis());
+            rt.addValue("p90 [ms]", s.getLatencyP90Millis());
+            rt.addValue("p99 [ms]", s.getLatencyP99Millis());
+            rt.addValue("Max [ms]", s.getLatencyMaxMillis());
+            rt.addValue("SPI", s.getSpi());
+        }
+        rt.show(TITLE);
+    }
+}
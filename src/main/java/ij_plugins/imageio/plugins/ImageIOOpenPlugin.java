@@ -25,21 +25,27 @@ package ij_plugins.imageio.plugins;
 import ij.IJ;
 import ij.ImagePlus;
 import ij.ImageStack;
+import ij.Prefs;
 import ij.io.OpenDialog;
 import ij.plugin.PlugIn;
 import ij_plugins.imageio.IJImageIO;
+import ij_plugins.imageio.IJImageIOCancelledException;
+import ij_plugins.imageio.IJImageIOException;
 import ij_plugins.imageio.impl.ImageFileChooserFactory;
 import ij_plugins.imageio.impl.OpenImageFileChooser;
 
 import javax.swing.*;
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
  * Opens file chooser dialog and reads images using {@link IJImageIO}.
+ * <p>
+ * When multiple files are selected they are decoded in parallel, using number of threads set in ImageJ
+ * preferences. Decoding can be cancelled by pressing Esc.
  *
  * @author Jarek Sacha
  */
@@ -84,43 +90,199 @@ public class ImageIOOpenPlugin implements PlugIn {
                         + "Should the images be combined into a stack?");
 
 
-        if (combineIntoStack) {
-            // Open images
-//            open(files, pageIndex, combineIntoStack);
-            final List<ImagePlus> imageList = new ArrayList<>();
-            for (final File file : fpi.files) {
-                final ImagePlus[] images = open(file, fpi.pageIndex);
-                imageList.addAll(Arrays.asList(images));
+        IJ.resetEscape();
+        final ExecutorService executor = createExecutor(fpi.files.length);
+        try {
+            if (combineIntoStack) {
+                openAsStack(fpi, executor);
+            } else {
+                openSeparately(fpi, executor);
             }
+        } finally {
+            executor.shutdownNow();
+        }
 
-            if (imageList.size() == 1) {
-                imageList.get(0).show();
-            } else if (imageList.size() > 1) {
-                // Attempt to combine
-                final ImagePlus stackImage = combineImages(imageList);
-                // Show
-                if (stackImage != null) {
-                    stackImage.show();
-                } else {
-                    if (imageList.size() > 1) {
-                        IJ.showMessage(TITLE, "Unable to combine images into a stack.\n" +
-                                "Loading each separately.");
-                    }
-                    for (final ImagePlus anImageList : imageList) {
-                        anImageList.show();
-                    }
-                }
+        IJ.showStatus("");
+    }
+
+
+    /**
+     * Decode files in parallel and show each as soon as it and all files before it are loaded,
+     * so images are shown in the original order.
+     */
+    private void openSeparately(final FilesAndPageIndex fpi, final ExecutorService executor) {
+        final List<Future<ImagePlus[]>> futures = submitAll(fpi, executor);
+        for (int i = 0; i < futures.size(); i++) {
+            final ImagePlus[] images = await(futures.get(i), fpi.files[i]);
+            if (images == null) {
+                cancelAll(futures);
+                IJ.showStatus(TITLE + ": cancelled");
+                return;
+            }
+            for (final ImagePlus imp : images) {
+                imp.show();
+            }
+            IJ.showProgress(i + 1, futures.size());
+        }
+    }
+
+
+    /**
+     * Decode files in parallel and assemble them into a single stack. Each slice is placed in a preallocated stack
+     * as soon as it is decoded, slice order follows order of the files. If images cannot be combined, they are
+     * shown separately.
+     */
+    private void openAsStack(final FilesAndPageIndex fpi, final ExecutorService executor) {
+        final int n = fpi.files.length;
+        final CompletionService<ImagePlus[]> completionService = new ExecutorCompletionService<>(executor);
+        final Map<Future<ImagePlus[]>, Integer> futureIndex = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            final File file = fpi.files[i];
+            futureIndex.put(completionService.submit(() -> read(file, fpi.pageIndex)), i);
+        }
+
+        final ImagePlus[][] results = new ImagePlus[n][];
+        ImageStack stack = null;
+        int fileType = -1;
+        boolean stackable = true;
+        int done = 0;
+        while (done < n) {
+            if (IJ.escapePressed()) {
+                IJ.resetEscape();
+                cancelAll(futureIndex.keySet());
+                IJ.showProgress(1.0);
+                IJ.showStatus(TITLE + ": cancelled");
+                return;
             }
+
+            final Future<ImagePlus[]> future;
+            try {
+                future = completionService.poll(100, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelAll(futureIndex.keySet());
+                return;
+            }
+            if (future == null) {
+                continue;
+            }
+
+            done++;
+            IJ.showStatus("Opened " + done + " of " + n + " files");
+            IJ.showProgress(done, n);
+
+            final int index = futureIndex.get(future);
+            final ImagePlus[] images = await(future, fpi.files[index]);
+            results[index] = images;
+            if (!stackable || images == null) {
+                continue;
+            }
+
+            // Single slice images of the same type and size can be combined
+            if (images.length != 1 || images[0].getStackSize() != 1) {
+                stackable = false;
+                continue;
+            }
+            final ImagePlus imp = images[0];
+            if (stack == null) {
+                stack = new ImageStack(imp.getWidth(), imp.getHeight(), n);
+                fileType = imp.getFileInfo().fileType;
+            }
+            if (fileType == imp.getFileInfo().fileType
+                    && stack.getWidth() == imp.getWidth() && stack.getHeight() == imp.getHeight()) {
+                stack.setPixels(imp.getProcessor().getPixels(), index + 1);
+                stack.setSliceLabel(imp.getTitle(), index + 1);
+            } else {
+                stackable = false;
+            }
+        }
+
+        // Any file that failed to load leaves a gap in the stack
+        for (final ImagePlus[] images : results) {
+            stackable &= images != null;
+        }
+
+        if (stackable && stack != null) {
+            final ImagePlus firstImage = results[0][0];
+            stack.setColorModel(firstImage.getProcessor().getColorModel());
+            final ImagePlus stackImage = new ImagePlus(firstImage.getTitle(), stack);
+            stackImage.setCalibration(firstImage.getCalibration());
+            stackImage.getProcessor().setMinAndMax(firstImage.getDisplayRangeMin(), firstImage.getDisplayRangeMax());
+            stackImage.show();
         } else {
-            for (final File file : fpi.files) {
-                final ImagePlus[] images = open(file, fpi.pageIndex);
-                for (final ImagePlus imp : images) {
-                    imp.show();
+            final List<ImagePlus> imageList = new ArrayList<>();
+            for (final ImagePlus[] images : results) {
+                if (images != null) {
+                    imageList.addAll(Arrays.asList(images));
                 }
             }
+            if (imageList.size() > 1) {
+                IJ.showMessage(TITLE, "Unable to combine images into a stack.\n" +
+                        "Loading each separately.");
+            }
+            for (final ImagePlus anImageList : imageList) {
+                anImageList.show();
+            }
         }
+    }
 
-        IJ.showStatus("");
+
+    private List<Future<ImagePlus[]>> submitAll(final FilesAndPageIndex fpi, final ExecutorService executor) {
+        final List<Future<ImagePlus[]>> futures = new ArrayList<>();
+        for (final File file : fpi.files) {
+            futures.add(executor.submit(() -> read(file, fpi.pageIndex)));
+        }
+        return futures;
+    }
+
+
+    /**
+     * Wait for a file to be decoded, while checking if user requested cancellation.
+     *
+     * @return decoded images, empty array if decoding failed, or {@code null} if cancelled.
+     */
+    private ImagePlus[] await(final Future<ImagePlus[]> future, final File file) {
+        while (true) {
+            try {
+                return future.get(100, TimeUnit.MILLISECONDS);
+            } catch (final TimeoutException e) {
+                if (IJ.escapePressed()) {
+                    IJ.resetEscape();
+                    return null;
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (final ExecutionException e) {
+                final Throwable ex = e.getCause() != null ? e.getCause() : e;
+                if (ex instanceof IJImageIOCancelledException) {
+                    return null;
+                }
+                ex.printStackTrace();
+                String message = "Error opening file: " + file.getName() + ".\n\n";
+                message += (ex.getMessage() == null) ? ex.toString() : ex.getMessage();
+                IJ.showMessage(TITLE, message);
+                return new ImagePlus[0];
+            }
+        }
+    }
+
+
+    private static void cancelAll(final Collection<Future<ImagePlus[]>> futures) {
+        for (final Future<ImagePlus[]> f : futures) {
+            f.cancel(true);
+        }
+    }
+
+
+    private static ExecutorService createExecutor(final int numberOfFiles) {
+        final int numberOfThreads = Math.max(1, Math.min(Prefs.getThreads(), numberOfFiles));
+        final AtomicInteger threadCount = new AtomicInteger();
+        return Executors.newFixedThreadPool(numberOfThreads, r -> {
+            final Thread thread = new Thread(r, "IJP-ImageIO open " + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
 
@@ -162,64 +324,12 @@ public class ImageIOOpenPlugin implements PlugIn {
     }
 
 
-    private ImagePlus[] open(final File file, int[] pageIndex) {
+    private static ImagePlus[] read(final File file, final int[] pageIndex) throws IJImageIOException {
         IJ.showStatus("Opening: " + file.getName());
-        try {
-            return IJImageIO.read(file, true, pageIndex);
-        } catch (final Exception ex) {
-            ex.printStackTrace();
-            String message = "Error opening file: " + file.getName() + ".\n\n";
-            message += (ex.getMessage() == null) ? ex.toString() : ex.getMessage();
-            IJ.showMessage(TITLE, message);
-            return new ImagePlus[0];
-        }
+        return IJImageIO.read(file, true, pageIndex);
     }
 
 
-    /**
-     * Attempts to combine images on the list into a stack. If successful return the combined image,
-     * otherwise return null. Images cannot be combined if they are of different types,  different
-     * sizes, or have more then single slice.
-     *
-     * @param imageList List of images to combine into a stack.
-     * @return Combined image if successful, otherwise null.
-     */
-    private static ImagePlus combineImages(final List<ImagePlus> imageList) {
-        // TODO: in unable to combine throw exception with error message, do not return null.
-        if (imageList == null || imageList.size() < 1) {
-            return null;
-        }
-
-        if (imageList.size() == 1) {
-            return imageList.get(0);
-        }
-
-        final ImagePlus firstImage = imageList.get(0);
-        if (firstImage.getStackSize() != 1) {
-            return null;
-        }
-
-        final int fileType = firstImage.getFileInfo().fileType;
-        final int w = firstImage.getWidth();
-        final int h = firstImage.getHeight();
-        final ImageStack stack = firstImage.getStack();
-        for (int i = 1; i < imageList.size(); ++i) {
-            final ImagePlus im = imageList.get(i);
-            if (im.getStackSize() != 1) {
-                return null;
-            }
-            if (fileType == im.getFileInfo().fileType
-                    && w == im.getWidth() && h == im.getHeight()) {
-                stack.addSlice(im.getTitle(), im.getProcessor().getPixels());
-            } else {
-                return null;
-            }
-        }
-
-        firstImage.setStack(firstImage.getTitle(), stack);
-        return firstImage;
-    }
-
     private static class FilesAndPageIndex {
         final File[] files;
         final int[] pageIndex;
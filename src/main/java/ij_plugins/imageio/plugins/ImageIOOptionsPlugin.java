@@ -0,0 +1,73 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio.plugins;
+
+import ij.IJ;
+import ij.Prefs;
+import ij.gui.GenericDialog;
+import ij.plugin.PlugIn;
+import ij_plugins.imageio.impl.BackgroundSaver;
+import ij_plugins.imageio.impl.PreviewDiskCache;
+
+/**
+ * Edit IJP-ImageIO preferences.
+ *
+ * @author Jarek Sacha
+ */
+public class ImageIOOptionsPlugin implements PlugIn {
+
+    private static final String TITLE = "IJP-ImageIO Options";
+
+    public void run(final String arg) {
+        final PreviewDiskCache diskCache = PreviewDiskCache.getDefault();
+
+        final GenericDialog dialog = new GenericDialog(TITLE);
+        dialog.addCheckbox("Cache_previews on disk", PreviewDiskCache.isEnabled());
+        dialog.addNumericField("Preview_cache size", Prefs.get(PreviewDiskCache.PREF_MAX_SIZE_MB,
+                PreviewDiskCache.DEFAULT_MAX_SIZE_MB), 0, 6, "MB");
+        dialog.addCheckbox("Clear_preview cache", false);
+        dialog.addMessage("Preview cache location:\n" + diskCache.getDirectory().getAbsolutePath());
+        dialog.addCheckbox("Save_in background", Prefs.get(BackgroundSaver.PREF_ENABLED, false));
+        dialog.addMessage("Background saves are not used when saving from macros.");
+        dialog.showDialog();
+
+        if (dialog.wasCanceled()) {
+            return;
+        }
+
+        final boolean enabled = dialog.getNextBoolean();
+        final double maxSizeMB = dialog.getNextNumber();
+        final boolean clear = dialog.getNextBoolean();
+        final boolean saveInBackground = dialog.getNextBoolean();
+        if (dialog.invalidNumber() || maxSizeMB < 1) {
+            IJ.error(TITLE, "Preview cache size must be a number larger than 0.");
+            return;
+        }
+
+        Prefs.set(PreviewDiskCache.PREF_ENABLED, enabled);
+        Prefs.set(PreviewDiskCache.PREF_MAX_SIZE_MB, (int) maxSizeMB);
+        Prefs.set(BackgroundSaver.PREF_ENABLED, saveInBackground);
+        if (clear) {
+            diskCache.clear();
+        }
+    }
+}
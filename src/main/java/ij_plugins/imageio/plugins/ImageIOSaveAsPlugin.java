@@ -111,9 +111,16 @@ public final class ImageIOSaveAsPlugin implements PlugIn {
                     IJ.log("Saving using SPI   : " + spi.getClass().getCanonicalName());
                     IJ.log("Saving using writer: " + writer.getClass().getCanonicalName());
                 }
+                if (BackgroundSaver.isEnabled()) {
+                    BackgroundSaver.getInstance().save(imp, file, writer, writerOptions.metadata,
+                            writerOptions.param, writerOptions.useOneBitCompression, TITLE);
+                    return;
+                }
                 IJImageIO.write(imp, file, writer, writerOptions.metadata, writerOptions.param,
                         writerOptions.useOneBitCompression);
                 imp.setTitle(file.getName());
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
             } catch (final IJImageIOException e) {
                 throw new IJImageIOException(
                         "Error writing file: " + file.getAbsolutePath() + ".\n\n" + e.getMessage(),
@@ -122,9 +129,9 @@ public final class ImageIOSaveAsPlugin implements PlugIn {
         } catch (IJImageIOException ex) {
             ex.printStackTrace();
             IJ.showMessage(TITLE, ex.getMessage());
-        } finally {
-            IJ.showStatus("");
         }
+        // Not reached by background saves, their status is updated by the saver
+        IJ.showStatus("");
     }
 
     private Optional<FileChooserResult> askForFile(final String imageTitle) {
@@ -32,12 +32,15 @@ import ij_plugins.imageio.IJImageIO;
 import ij_plugins.imageio.IJImageIOException;
 import ij_plugins.imageio.IJImageOUtils;
 import ij_plugins.imageio.TiffMetaDataFactory;
+import ij_plugins.imageio.impl.BackgroundSaver;
 import ij_plugins.imageio.impl.ImageIOWriter;
 
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
 import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.spi.ImageWriterSpi;
 import java.io.File;
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -103,8 +106,26 @@ public class ImageIOWriterPlugin implements PlugIn {
         }
 
         try {
+            if (BackgroundSaver.isEnabled()) {
+                // Same writer as used by IJImageIO.write(ImagePlus, File, String)
+                final List<ImageWriterSpi> spis = IJImageOUtils.writerSpiByFormatName(codecName);
+                if (spis.isEmpty()) {
+                    IJ.error("No " + codecName + " writers available");
+                    return;
+                }
+                final ImageWriter writer;
+                try {
+                    writer = spis.get(0).createWriterInstance();
+                } catch (final IOException e) {
+                    throw new IJImageIOException("Failed to create image writer. " + e.getMessage(), e);
+                }
+                BackgroundSaver.getInstance().save(imp, file, writer, null, null, false, TITLE);
+                return;
+            }
             IJImageIO.write(imp, file, codecName);
             imp.setTitle(file.getName());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
         } catch (final IJImageIOException e) {
             IJ.error(TITLE, e.getMessage());
         }
@@ -157,8 +178,16 @@ public class ImageIOWriterPlugin implements PlugIn {
         // Write the image to a file
         IJ.showStatus("Writing image as " + formatName + " to " + file.getAbsolutePath());
         try {
+            if (BackgroundSaver.isEnabled()) {
+                BackgroundSaver.getInstance().save(imp, file, writer, metadata, writerParam, useOneBitCompression,
+                        title);
+                return;
+            }
             IJImageIO.write(imp, file, writer, metadata, writerParam, useOneBitCompression);
             imp.setTitle(file.getName());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
         } catch (final IJImageIOException e) {
             e.printStackTrace();
             Macro.abort();
@@ -0,0 +1,184 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import ij.ImagePlus;
+import ij.ImageStack;
+import ij.io.FileSaver;
+import ij.process.*;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Guards memory cost of conversion paths: bytes allocated by a call are compared to a budget expressed as number of
+ * copies of the pixel payload. Conversions that share pixels have a budget of zero copies.
+ * <p>
+ * Allocations are measured with {@link com.sun.management.ThreadMXBean#getCurrentThreadAllocatedBytes()}, as the
+ * smallest value of several runs after a warm-up, so class loading and JIT compilation are not counted.
+ *
+ * @author Jarek Sacha
+ */
+public class AllocationRegressionTest {
+
+    private static final int SIZE = 2048;
+
+    /**
+     * Allowed allocation relative to the expected number of payload copies.
+     */
+    private static final double BUDGET_FACTOR = 1.1;
+
+    /**
+     * Allowed allocation independent of image size: image headers, lookup tables, histograms.
+     */
+    private static final long FIXED_OVERHEAD = 512 * 1024;
+
+    private static final int WARM_UP_RUNS = 3;
+    private static final int MEASURED_RUNS = 5;
+
+    private static com.sun.management.ThreadMXBean threadMXBean;
+
+
+    @BeforeClass
+    public static void setUpClass() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        threadMXBean = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+
+    @Test
+    public void testBufferedImageFactoryCreateFrom() throws Exception {
+        for (final ImagePlus imp : new ImagePlus[]{
+                image(new ByteProcessor(SIZE, SIZE), 1),
+                image(new ShortProcessor(SIZE, SIZE), 1),
+                image(new FloatProcessor(SIZE, SIZE), 1),
+                image(new ShortProcessor(SIZE, SIZE), 4)}) {
+            assertAllocation("BufferedImageFactory.createFrom(" + imp.getTitle() + ")",
+                    payload(imp), 0, () -> BufferedImageFactory.createFrom(imp));
+        }
+
+        // Packed RGB pixels are copied to a new buffer
+        final ImagePlus rgb = image(new ColorProcessor(SIZE, SIZE), 1);
+        assertAllocation("BufferedImageFactory.createFrom(" + rgb.getTitle() + ")",
+                payload(rgb), 1, () -> BufferedImageFactory.createFrom(rgb));
+    }
+
+
+    @Test
+    public void testImagePlusFactoryCreate() throws Exception {
+        for (final int type : new int[]{BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_USHORT_GRAY}) {
+            final BufferedImage bi = new BufferedImage(SIZE, SIZE, type);
+            final long payload = (long) SIZE * SIZE * (type == BufferedImage.TYPE_BYTE_GRAY ? 1 : 2);
+            assertAllocation("ImagePlusFactory.create(type " + type + ")",
+                    payload, 0, () -> ImagePlusFactory.create("test", bi));
+        }
+
+        final BufferedImage floatImage = BufferedImageFactory.createFrom(new FloatProcessor(SIZE, SIZE));
+        assertAllocation("ImagePlusFactory.create(float)",
+                4L * SIZE * SIZE, 0, () -> ImagePlusFactory.create("test", floatImage));
+
+        // Color images are packed into new ColorProcessor pixels
+        for (final int type : new int[]{BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_3BYTE_BGR}) {
+            final BufferedImage bi = new BufferedImage(SIZE, SIZE, type);
+            assertAllocation("ImagePlusFactory.create(type " + type + ")",
+                    4L * SIZE * SIZE, 1, () -> ImagePlusFactory.create("test", bi));
+        }
+    }
+
+
+    @Test
+    public void testIJImageIORead() throws Exception {
+        // Uncompressed gray level strips are read by RawTIFFReader directly into ImageJ pixel arrays
+        assertRead(image(new ByteProcessor(SIZE, SIZE), 4), 1);
+        assertRead(image(new ShortProcessor(SIZE, SIZE), 1), 1);
+        assertRead(image(new FloatProcessor(SIZE, SIZE), 1), 1);
+        // RGB is decoded by ImageIO as 3 bytes per pixel then packed into ColorProcessor pixels
+        assertRead(image(new ColorProcessor(SIZE, SIZE), 1), 1.75);
+    }
+
+
+    private static void assertRead(final ImagePlus imp, final double copies) throws Exception {
+        final File file = new File("tmp", "allocation_" + imp.getTitle() + ".tif");
+        file.getParentFile().mkdirs();
+        final FileSaver saver = new FileSaver(imp);
+        assertTrue(imp.getStackSize() > 1 ? saver.saveAsTiffStack(file.getPath()) : saver.saveAsTiff(file.getPath()));
+
+        assertAllocation("IJImageIO.read(" + file.getName() + ")", payload(imp), copies,
+                () -> IJImageIO.read(file));
+    }
+
+
+    private static void assertAllocation(final String name,
+                                         final long payload,
+                                         final double copies,
+                                         final Callable<?> call) throws Exception {
+        final long budget = (long) (BUDGET_FACTOR * copies * payload) + FIXED_OVERHEAD;
+        final long allocated = allocatedBytes(call);
+        assertTrue(name + " allocated " + allocated + " bytes, budget is " + budget + " bytes ("
+                        + copies + " copies of " + payload + " bytes of pixels).",
+                allocated <= budget);
+    }
+
+
+    private static long allocatedBytes(final Callable<?> call) throws Exception {
+        for (int i = 0; i < WARM_UP_RUNS; i++) {
+            call.call();
+        }
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            final long start = threadMXBean.getCurrentThreadAllocatedBytes();
+            call.call();
+            min = Math.min(min, threadMXBean.getCurrentThreadAllocatedBytes() - start);
+        }
+        return min;
+    }
+
+
+    private static ImagePlus image(final ImageProcessor ip, final int depth) {
+        final ImageStack stack = new ImageStack(ip.getWidth(), ip.getHeight());
+        for (int i = 0; i < depth; i++) {
+            final ImageProcessor slice = ip.duplicate();
+            slice.setColor(i + 1);
+            slice.fillOval(i, i, SIZE / 2, SIZE / 3);
+            stack.addSlice(slice);
+        }
+        final String title = ip.getBitDepth() + "bit_x" + depth;
+        return new ImagePlus(title, stack);
+    }
+
+
+    private static long payload(final ImagePlus imp) {
+        final int bytesPerPixel = imp.getBitDepth() == 24 ? 4 : imp.getBitDepth() / 8;
+        return (long) bytesPerPixel * imp.getWidth() * imp.getHeight() * imp.getStackSize();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio;
+
+import ij.ImagePlus;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Jarek Sacha
+ */
+public class BatchConverterTest {
+
+    @Test
+    public void testConvert() throws Exception {
+        final File inputDir = new File("test/data");
+        final File outputDir = new File("tmp/batch_converter_test");
+
+        final List<File> files = BatchConverter.listFiles(inputDir, BatchConverter.globFilter("*.{png,tif}"), false);
+        assertTrue(files.contains(new File(inputDir, "blobs.png")));
+        assertTrue(files.contains(new File(inputDir, "mri-stack.tif")));
+
+        final List<File> input = Arrays.asList(
+                new File(inputDir, "blobs.png"),
+                new File(inputDir, "clown.png"),
+                new File(inputDir, "mri-stack.tif"),
+                new File(inputDir, "does-not-exist.png"));
+
+        final BatchConverter converter = new BatchConverter("tif", "LZW", 2);
+        final BatchConverter.Result result = converter.convert(input, inputDir, outputDir, null);
+
+        assertEquals(4, result.numberOfFiles);
+        assertEquals(3, result.numberConverted);
+        assertEquals(1, result.errors.size());
+        assertTrue(result.errors.containsKey(new File(inputDir, "does-not-exist.png")));
+        assertTrue(result.bytesWritten > 0);
+
+        final ImagePlus[] imps = IJImageIO.read(new File(outputDir, "mri-stack.tif"));
+        assertEquals(1, imps.length);
+        assertEquals(27, imps[0].getStackSize());
+        assertTrue(new File(outputDir, "blobs.tif").isFile());
+    }
+
+
+    @Test
+    public void testCollidingOutputs() throws Exception {
+        final File inputDir = new File("tmp/batch_converter_collision_test/input");
+        final File outputDir = new File("tmp/batch_converter_collision_test/output");
+        assertTrue(inputDir.isDirectory() || inputDir.mkdirs());
+
+        // "a.png" and "a.gif" would both be written to "a.tif"
+        final File a1 = new File(inputDir, "a.png");
+        final File a2 = new File(inputDir, "a.gif");
+        final File b = new File(inputDir, "b.png");
+        Files.copy(new File("test/data/blobs.png").toPath(), a1.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(new File("test/data/clown.png").toPath(), a2.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        Files.copy(new File("test/data/blobs.png").toPath(), b.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        final File a = new File(outputDir, "a.tif");
+        assertTrue(!a.exists() || a.delete());
+
+        final BatchConverter converter = new BatchConverter("tif", null, 2);
+        final BatchConverter.Result result = converter.convert(Arrays.asList(a1, a2, b), inputDir, outputDir, null);
+
+        assertEquals(3, result.numberOfFiles);
+        assertEquals(1, result.numberConverted);
+        assertEquals(2, result.errors.size());
+        assertTrue(result.errors.containsKey(a1));
+        assertTrue(result.errors.containsKey(a2));
+        assertFalse(a.exists());
+        assertTrue(new File(outputDir, "b.tif").isFile());
+    }
+
+
+    @Test(expected = IJImageIOException.class)
+    public void testUnknownFormat() throws Exception {
+        new BatchConverter("no-such-format", null, 1);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import ij.ImagePlus;
+import ij.measure.Calibration;
+import org.junit.Test;
+import org.w3c.dom.Node;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Jarek Sacha
+ */
+public final class CalibrationDecodersTest {
+
+    @Test
+    public void testPNG() throws Exception {
+        final File file = new File("tmp", "calibration_test.png");
+        final IIOMetadataNode pHYs = new IIOMetadataNode("pHYs");
+        // 0.25 mm and 0.5 mm pixels
+        pHYs.setAttribute("pixelsPerUnitXAxis", "4000");
+        pHYs.setAttribute("pixelsPerUnitYAxis", "2000");
+        pHYs.setAttribute("unitSpecifier", "meter");
+        final IIOMetadataNode root = new IIOMetadataNode(CalibrationDecoders.PNG_FORMAT);
+        root.appendChild(pHYs);
+        write(file, "png", root);
+
+        final Calibration cal = read(file);
+        assertEquals("cm", cal.getUnit());
+        assertEquals(0.025, cal.pixelWidth, 1e-9);
+        assertEquals(0.05, cal.pixelHeight, 1e-9);
+    }
+
+
+    @Test
+    public void testJPEG() throws Exception {
+        final File file = new File("tmp", "calibration_test.jpg");
+        final BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_BYTE_GRAY);
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try {
+            final IIOMetadata metadata = writer.getDefaultImageMetadata(new ImageTypeSpecifier(image), null);
+            final Node root = metadata.getAsTree(CalibrationDecoders.JPEG_FORMAT);
+            final IIOMetadataNode jfif = (IIOMetadataNode) root.getFirstChild().getFirstChild();
+            assertEquals("app0JFIF", jfif.getNodeName());
+            jfif.setAttribute("resUnits", "1");
+            jfif.setAttribute("Xdensity", "300");
+            jfif.setAttribute("Ydensity", "150");
+            metadata.setFromTree(CalibrationDecoders.JPEG_FORMAT, root);
+            write(file, writer, new IIOImage(image, null, metadata));
+        } finally {
+            writer.dispose();
+        }
+
+        final Calibration cal = read(file);
+        assertEquals("inch", cal.getUnit());
+        assertEquals(1 / 300d, cal.pixelWidth, 1e-9);
+        assertEquals(1 / 150d, cal.pixelHeight, 1e-9);
+    }
+
+
+    @Test
+    public void testBMPWithoutResolution() throws Exception {
+        final File file = new File("tmp", "calibration_test.bmp");
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName("bmp").next();
+        try {
+            write(file, writer, new IIOImage(new BufferedImage(16, 16, BufferedImage.TYPE_3BYTE_BGR), null, null));
+        } finally {
+            writer.dispose();
+        }
+
+        final Calibration cal = read(file);
+        assertFalse(cal.scaled());
+    }
+
+
+    private static Calibration read(final File file) throws IJImageIOException {
+        final ImagePlus[] imps = IJImageIO.read(file);
+        assertNotNull(imps);
+        assertEquals(1, imps.length);
+        return imps[0].getCalibration();
+    }
+
+
+    private static void write(final File file, final String format, final IIOMetadataNode nativeTree)
+            throws Exception {
+        final BufferedImage image = new BufferedImage(16, 16, BufferedImage.TYPE_BYTE_GRAY);
+        final ImageWriter writer = ImageIO.getImageWritersByFormatName(format).next();
+        try {
+            final IIOMetadata metadata = writer.getDefaultImageMetadata(new ImageTypeSpecifier(image), null);
+            metadata.mergeTree(nativeTree.getNodeName(), nativeTree);
+            write(file, writer, new IIOImage(image, null, metadata));
+        } finally {
+            writer.dispose();
+        }
+    }
+
+
+    private static void write(final File file, final ImageWriter writer, final IIOImage image) throws Exception {
+        file.getParentFile().mkdirs();
+        if (file.exists()) {
+            assertTrue(file.delete());
+        }
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(ios);
+            writer.write(image);
+        }
+    }
+}
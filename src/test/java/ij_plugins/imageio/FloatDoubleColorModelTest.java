@@ -0,0 +1,154 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import org.junit.Test;
+
+import java.awt.*;
+import java.awt.color.ColorSpace;
+import java.awt.image.*;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Jarek Sacha
+ */
+public class FloatDoubleColorModelTest {
+
+    @Test
+    public void testRenderGray() {
+        final FloatDoubleColorModel cm = createColorModel(ColorSpace.CS_GRAY, false, false, DataBuffer.TYPE_FLOAT);
+        cm.setBlackPoint(-10);
+        cm.setWhitePoint(300);
+        assertRenderedSame(cm, createRaster(DataBuffer.TYPE_FLOAT, 1, 97, 31));
+
+        final byte[] r = new byte[256];
+        final byte[] g = new byte[256];
+        final byte[] b = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            r[i] = (byte) i;
+            g[i] = (byte) (255 - i);
+            b[i] = (byte) (i / 2);
+        }
+        cm.setRGBLut(r, g, b);
+        assertRenderedSame(cm, createRaster(DataBuffer.TYPE_FLOAT, 1, 97, 31));
+
+        // Large enough to be rendered concurrently
+        assertRenderedSame(cm, createRaster(DataBuffer.TYPE_FLOAT, 1, 600, 500));
+    }
+
+
+    @Test
+    public void testRenderRGB() {
+        final FloatDoubleColorModel cm = createColorModel(ColorSpace.CS_sRGB, false, false, DataBuffer.TYPE_FLOAT);
+        cm.setWhitePoint(255);
+        assertRenderedSame(cm, createRaster(DataBuffer.TYPE_FLOAT, 3, 64, 48));
+        assertRenderedSame(cm, createRaster(DataBuffer.TYPE_FLOAT, 3, 600, 500));
+    }
+
+
+    @Test
+    public void testRenderDouble() {
+        final FloatDoubleColorModel cm = createColorModel(ColorSpace.CS_GRAY, true, false, DataBuffer.TYPE_DOUBLE);
+        cm.setWhitePoint(255);
+        final WritableRaster raster = createRaster(DataBuffer.TYPE_DOUBLE, 2, 64, 48);
+        // Alpha in range 0 to 1
+        for (int y = 0; y < raster.getHeight(); y++) {
+            for (int x = 0; x < raster.getWidth(); x++) {
+                raster.setSample(x, y, 1, (x + y) % 11 / 10.0);
+            }
+        }
+        assertRenderedSame(cm, raster);
+    }
+
+
+    @Test
+    public void testRenderChildRaster() {
+        final FloatDoubleColorModel cm = createColorModel(ColorSpace.CS_sRGB, false, false, DataBuffer.TYPE_FLOAT);
+        cm.setWhitePoint(255);
+        final WritableRaster raster = createRaster(DataBuffer.TYPE_FLOAT, 3, 64, 48);
+        assertRenderedSame(cm, raster.createChild(5, 7, 40, 30, 100, 200, null));
+    }
+
+
+    @Test
+    public void testRenderPremultiplied() {
+        final FloatDoubleColorModel cm = createColorModel(ColorSpace.CS_sRGB, true, true, DataBuffer.TYPE_FLOAT);
+        final WritableRaster raster = createRaster(DataBuffer.TYPE_FLOAT, 4, 32, 16);
+        for (int y = 0; y < raster.getHeight(); y++) {
+            for (int x = 0; x < raster.getWidth(); x++) {
+                final float alpha = (x + y) % 5 / 4f;
+                raster.setSample(x, y, 3, alpha);
+                for (int b = 0; b < 3; b++) {
+                    raster.setSample(x, y, b, raster.getSampleFloat(x, y, b) / 255 * alpha);
+                }
+            }
+        }
+        assertRenderedSame(cm, raster);
+    }
+
+
+    private static FloatDoubleColorModel createColorModel(final int colorSpace,
+                                                          final boolean hasAlpha,
+                                                          final boolean isAlphaPremultiplied,
+                                                          final int transferType) {
+        return new FloatDoubleColorModel(ColorSpace.getInstance(colorSpace), hasAlpha, isAlphaPremultiplied,
+                hasAlpha ? Transparency.TRANSLUCENT : Transparency.OPAQUE, transferType);
+    }
+
+
+    private static WritableRaster createRaster(final int dataType, final int bands, final int width, final int height) {
+        final int[] offsets = new int[bands];
+        for (int b = 0; b < bands; b++) {
+            offsets[b] = b;
+        }
+        final SampleModel sm = new PixelInterleavedSampleModel(dataType, width, height, bands, width * bands, offsets);
+        final WritableRaster raster = Raster.createWritableRaster(sm, new Point());
+        final Random random = new Random(7);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                for (int b = 0; b < bands; b++) {
+                    // Include values outside of black and white points
+                    raster.setSample(x, y, b, random.nextDouble() * 340 - 20);
+                }
+            }
+        }
+        return raster;
+    }
+
+
+    private static void assertRenderedSame(final FloatDoubleColorModel cm, final Raster raster) {
+        final BufferedImage rendered = cm.render(raster);
+        assertEquals(raster.getWidth(), rendered.getWidth());
+        assertEquals(raster.getHeight(), rendered.getHeight());
+        Object pixel = null;
+        for (int y = 0; y < raster.getHeight(); y++) {
+            for (int x = 0; x < raster.getWidth(); x++) {
+                pixel = raster.getDataElements(raster.getMinX() + x, raster.getMinY() + y, pixel);
+                final int expected = cm.getRGB(pixel) | (cm.hasAlpha() ? 0 : 0xFF000000);
+                assertEquals("Pixel (" + x + ", " + y + ")", expected, rendered.getRGB(x, y));
+            }
+        }
+    }
+}
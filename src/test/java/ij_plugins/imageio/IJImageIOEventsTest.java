@@ -0,0 +1,99 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio;
+
+import ij.ImagePlus;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Jarek Sacha
+ */
+public class IJImageIOEventsTest {
+
+    @Test
+    public void testEventsRecorded() throws Exception {
+        final File inFile = new File("test/data/mri-stack.tif");
+        final File outFile = new File("tmp", "jfr_events_test.tif");
+        outFile.getParentFile().mkdirs();
+
+        final Path recordingFile = Files.createTempFile("ijp-imageio-", ".jfr");
+        try (Recording recording = new Recording()) {
+            for (final String name : new String[]{"GetImageReaders", "ReadImage", "ReadMetadata",
+                    "CreateImagePlus", "CreateBufferedImages", "CreateTiffMetadata", "WriteImage"}) {
+                recording.enable("ij_plugins.imageio." + name).withoutThreshold();
+            }
+            recording.start();
+            // Events of reading using ImageIO, uncompressed TIFF would be read directly
+            IJImageIO.setDirectTIFFReading(false);
+            final ImagePlus[] imps;
+            try {
+                imps = IJImageIO.read(inFile);
+            } finally {
+                IJImageIO.setDirectTIFFReading(true);
+            }
+            IJImageIO.writeAsTiff(imps[0], outFile);
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        Files.delete(recordingFile);
+
+        final Map<String, Integer> counts = new HashMap<>();
+        for (final RecordedEvent event : events) {
+            counts.merge(event.getEventType().getName(), 1, Integer::sum);
+        }
+        assertEquals(Integer.valueOf(1), counts.get("ij_plugins.imageio.GetImageReaders"));
+        assertEquals(Integer.valueOf(27), counts.get("ij_plugins.imageio.ReadImage"));
+        // Pages form a single stack, metadata are read only for the first one
+        assertEquals(Integer.valueOf(1), counts.get("ij_plugins.imageio.ReadMetadata"));
+        assertEquals(Integer.valueOf(27), counts.get("ij_plugins.imageio.CreateImagePlus"));
+        assertEquals(Integer.valueOf(1), counts.get("ij_plugins.imageio.CreateBufferedImages"));
+        assertEquals(Integer.valueOf(1), counts.get("ij_plugins.imageio.CreateTiffMetadata"));
+        assertEquals(Integer.valueOf(27), counts.get("ij_plugins.imageio.WriteImage"));
+
+        for (final RecordedEvent event : events) {
+            if (event.getEventType().getName().equals("ij_plugins.imageio.ReadImage")) {
+                assertEquals(inFile.getPath(), event.getString("file"));
+                assertEquals(186, event.getInt("width"));
+                assertEquals(226, event.getInt("height"));
+                assertEquals(186 * 226, event.getLong("bytes"));
+                assertTrue(event.getString("reader").endsWith("TIFFImageReader"));
+            } else if (event.getEventType().getName().equals("ij_plugins.imageio.WriteImage")) {
+                assertTrue(event.getLong("bytes") > 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+package ij_plugins.imageio;
+
+import ij.ImagePlus;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Jarek Sacha
+ */
+public class IJImageIOMetricsTest {
+
+    @Test
+    public void testHistogramBuckets() {
+        for (long v = 0; v < 100_000; v += 7) {
+            final int index = LatencyHistogram.bucketIndex(v);
+            assertTrue(LatencyHistogram.lowestEquivalentValue(index) <= v);
+            assertTrue(LatencyHistogram.highestEquivalentValue(index) >= v);
+        }
+        final int last = LatencyHistogram.bucketIndex(Long.MAX_VALUE);
+        assertTrue(LatencyHistogram.lowestEquivalentValue(last) > 0);
+
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500, histogram.getMean(), 1e-6);
+        final long p50 = histogram.getValueAtPercentile(50);
+        assertTrue("p50=" + p50, p50 >= 500_000 && p50 <= 500_000 * 1.125);
+        final long p99 = histogram.getValueAtPercentile(99);
+        assertTrue("p99=" + p99, p99 >= 990_000 && p99 <= 1_000_000);
+    }
+
+
+    @Test
+    public void testReadWriteRecorded() throws Exception {
+        IJImageIOMetrics.reset();
+
+        final ImagePlus[] imps = IJImageIO.read(new File("test/data/mri-stack.tif"));
+        final File outFile = new File("tmp", "metrics_test.tif");
+        outFile.getParentFile().mkdirs();
+        IJImageIO.writeAsTiff(imps[0], outFile);
+
+        IJImageIOMetrics.Statistics read = null;
+        IJImageIOMetrics.Statistics write = null;
+        for (final IJImageIOMetrics.Statistics s : IJImageIOMetrics.getStatistics()) {
+            if ("READ".equals(s.getOperation()) && "tif".equalsIgnoreCase(s.getFormat())) read = s;
+            if ("WRITE".equals(s.getOperation()) && "tif".equalsIgnoreCase(s.getFormat())) write = s;
+        }
+        assertNotNull(read);
+        assertNotNull(write);
+        assertEquals(1, read.getCount());
+        assertEquals(0, read.getFailures());
+        assertEquals(27L * 186 * 226, read.getPixels());
+        assertEquals(new File("test/data/mri-stack.tif").length(), read.getBytes());
+        assertTrue(read.getLatencyP50Millis() > 0);
+        assertEquals(1, write.getCount());
+        assertEquals(outFile.length(), write.getBytes());
+
+        // Same numbers through JMX
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        final CompositeData[] data = (CompositeData[]) server.getAttribute(
+                new ObjectName(IJImageIOMetrics.OBJECT_NAME), "Statistics");
+        boolean found = false;
+        for (final CompositeData d : data) {
+            if ("READ".equals(d.get("operation")) && "tif".equalsIgnoreCase((String) d.get("format"))) {
+                assertEquals(27L * 186 * 226, d.get("pixels"));
+                found = true;
+            }
+        }
+        assertTrue(found);
+
+        IJImageIOMetrics.reset();
+        assertTrue(IJImageIOMetrics.getStatistics().isEmpty());
+    }
+}
@@ -24,6 +24,7 @@ package ij_plugins.imageio;
 import ij.CompositeImage;
 import ij.IJ;
 import ij.ImagePlus;
+import ij.ImageStack;
 import ij.measure.Calibration;
 import ij.process.ByteProcessor;
 import ij.process.ImageProcessor;
@@ -34,6 +35,7 @@ import javax.imageio.ImageIO;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.ImageWriter;
 import javax.imageio.metadata.IIOMetadata;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -85,6 +87,116 @@ public class IJImageIOTest {
         assertEquals(3, images[1].getNSlices());
     }
 
+    @Test
+    public void testReadPreviewAndInfo() throws Exception {
+        final File inFile = new File(DATA_DIR, "mri-stack.tif");
+        assertTrue(inFile.exists());
+
+        final IJImageIO.ImageInfo info = IJImageIO.readPreviewAndInfo(inFile, 50, 50, null);
+        assertNotNull(info.previewImage);
+        assertEquals(186, info.width);
+        assertEquals(226, info.height);
+        // Subsampled by 3
+        assertEquals(62, info.previewImage.getWidth(null));
+        assertEquals(76, info.previewImage.getHeight(null));
+        assertEquals(27, info.getNumberOfPages());
+    }
+
+    @Test
+    public void testReadPreviewOfPage() throws Exception {
+        final File inFile = new File(DATA_DIR, "mri-stack.tif");
+        assertTrue(inFile.exists());
+
+        final ImagePlus[] imps = IJImageIO.read(inFile);
+        final ImageProcessor lastPage = imps[0].getStack().getProcessor(27);
+
+        final BufferedImage preview = IJImageIO.readPreview(inFile, 26, 50, 50);
+        assertEquals(62, preview.getWidth());
+        assertEquals(76, preview.getHeight());
+        assertEquals(lastPage.get(30, 60), preview.getRaster().getSample(10, 20, 0));
+    }
+
+    @Test
+    public void testProgressSink() throws Exception {
+        final File inFile = new File(DATA_DIR, "mri-stack.tif");
+        final List<ProgressSink.Progress> updates = new java.util.concurrent.CopyOnWriteArrayList<>();
+        final List<ProgressSink.Progress> finished = new java.util.concurrent.CopyOnWriteArrayList<>();
+        IJImageIO.setProgressSink(new ProgressSink() {
+            @Override
+            public void update(final Progress progress) {
+                updates.add(progress);
+            }
+
+            @Override
+            public void finished(final Progress progress) {
+                finished.add(progress);
+            }
+
+            @Override
+            public boolean isCancelRequested() {
+                return false;
+            }
+        });
+        try {
+            final ImagePlus[] imps = IJImageIO.read(inFile);
+            assertEquals(27, imps[0].getStackSize());
+            assertFalse(updates.isEmpty());
+            assertEquals(1, finished.size());
+            assertEquals("Reading", finished.get(0).operation);
+            assertEquals(1.0, finished.get(0).fraction, 1e-6);
+            assertEquals(inFile.length(), finished.get(0).bytesDone);
+
+            final File outFile = new File("tmp", "progress_sink_test.tif");
+            outFile.getParentFile().mkdirs();
+            IJImageIO.writeAsTiff(imps[0], outFile);
+            assertEquals(2, finished.size());
+            assertEquals("Writing", finished.get(1).operation);
+            assertEquals(186L * 226 * 27, finished.get(1).bytesDone);
+        } finally {
+            IJImageIO.setProgressSink(null);
+        }
+    }
+
+    @Test
+    public void testProgressSinkCancel() throws Exception {
+        final File inFile = new File(DATA_DIR, "mri-stack.tif");
+        final ImagePlus imp = IJImageIO.read(inFile)[0];
+        final File outFile = new File("tmp", "progress_sink_cancel_test.tif");
+        outFile.getParentFile().mkdirs();
+
+        IJImageIO.setProgressSink(new ProgressSink() {
+            @Override
+            public void update(final Progress progress) {
+            }
+
+            @Override
+            public void finished(final Progress progress) {
+            }
+
+            @Override
+            public boolean isCancelRequested() {
+                return true;
+            }
+        });
+        try {
+            try {
+                IJImageIO.read(inFile);
+                fail("Expecting reading to be cancelled");
+            } catch (final IJImageIOCancelledException e) {
+                // expected
+            }
+
+            try {
+                IJImageIO.writeAsTiff(imp, outFile);
+                fail("Expecting writing to be cancelled");
+            } catch (final IJImageIOCancelledException e) {
+                assertFalse(outFile.exists());
+            }
+        } finally {
+            IJImageIO.setProgressSink(null);
+        }
+    }
+
     @Test
     public void testReadRGB48TIFF() throws Exception {
         ImagePlus imp = testRead("test/data/DeltaE_16bit_gamma1.0.tif", 3, 3072, 2048);
@@ -265,6 +377,153 @@ public class IJImageIOTest {
     }
 
 
+    @Test
+    public void testMetadataPolicy() throws Exception {
+        final File file = new File("tmp", "metadata_policy_test.tif");
+        file.getParentFile().mkdirs();
+        final ImageStack stack = new ImageStack(32, 32);
+        for (int i = 0; i < 5; i++) {
+            stack.addSlice(new ByteProcessor(32, 32));
+        }
+        final ImagePlus imp = new ImagePlus("stack", stack);
+        final Calibration cal = imp.getCalibration();
+        cal.setUnit("um");
+        cal.pixelWidth = 0.5;
+        cal.pixelHeight = 0.25;
+        imp.setCalibration(cal);
+        IJImageIO.writeAsTiff(imp, file);
+
+        final List<IJImageIO.ImageAndMetadata> all =
+                IJImageIO.readAsBufferedImages(file, null, IJImageIO.MetadataPolicy.ALL);
+        for (final IJImageIO.ImageAndMetadata im : all) {
+            assertNotNull(im.metadata);
+        }
+
+        // Calibration of the first page only, metadata not retained
+        final List<IJImageIO.ImageAndMetadata> stackCalibration =
+                IJImageIO.readAsBufferedImages(file, null, IJImageIO.MetadataPolicy.STACK_CALIBRATION);
+        assertEquals(5, stackCalibration.size());
+        assertNotNull(stackCalibration.get(0).calibration);
+        assertEquals(0.5, stackCalibration.get(0).calibration.pixelWidth, 1e-6);
+        for (int i = 0; i < stackCalibration.size(); i++) {
+            assertNull(stackCalibration.get(i).metadata);
+            if (i > 0) {
+                assertNull(stackCalibration.get(i).calibration);
+            }
+        }
+
+        final List<IJImageIO.ImageAndMetadata> none =
+                IJImageIO.readAsBufferedImages(file, null, IJImageIO.MetadataPolicy.NONE);
+        assertEquals(5, none.size());
+        assertNull(none.get(0).metadata);
+        assertNull(none.get(0).calibration);
+
+        // Calibration is the same as when decoded from complete metadata
+        final ImagePlus[] combined = IJImageIO.read(file);
+        assertEquals(1, combined.length);
+        final ImagePlus[] fromAll = IJImageIO.read(file, true, null, IJImageIO.MetadataPolicy.ALL);
+        TestUtils.assertCalibration(fromAll[0].getCalibration(), combined[0].getCalibration());
+        assertEquals(cal.getUnit(), combined[0].getCalibration().getUnit());
+        assertEquals(0.25, combined[0].getCalibration().pixelHeight, 1e-6);
+
+        // Each image is calibrated from its own metadata when stacks are not combined
+        final ImagePlus[] separate = IJImageIO.read(file, false);
+        final ImagePlus[] separateFromAll = IJImageIO.read(file, false, null, IJImageIO.MetadataPolicy.ALL);
+        assertEquals(5, separate.length);
+        for (int i = 0; i < separate.length; i++) {
+            TestUtils.assertCalibration(separateFromAll[i].getCalibration(), separate[i].getCalibration());
+        }
+    }
+
+
+    @Test
+    public void testReadHyperstack() throws Exception {
+        final File file = new File("tmp", "hyperstack_test.tif");
+        file.getParentFile().mkdirs();
+        final ImagePlus imp = IJ.createHyperStack("hyperstack", 16, 8, 2, 3, 4, 16);
+        final ImageStack stack = imp.getStack();
+        for (int i = 1; i <= stack.getSize(); i++) {
+            stack.getProcessor(i).set(i * 100);
+        }
+        ((CompositeImage) imp).setMode(IJ.GRAYSCALE);
+        imp.getCalibration().pixelWidth = 0.5;
+        IJImageIO.writeAsTiff(imp, file);
+
+        final ImagePlus[] imps = IJImageIO.read(file);
+        assertEquals(1, imps.length);
+        final ImagePlus actual = imps[0];
+        assertTrue(actual instanceof CompositeImage);
+        assertEquals(IJ.GRAYSCALE, ((CompositeImage) actual).getMode());
+        assertTrue(actual.isHyperStack());
+        assertEquals(2, actual.getNChannels());
+        assertEquals(3, actual.getNSlices());
+        assertEquals(4, actual.getNFrames());
+        assertEquals(0.5, actual.getCalibration().pixelWidth, 1e-6);
+        for (int i = 1; i <= stack.getSize(); i++) {
+            assertEquals(i * 100, actual.getStack().getProcessor(i).get(0, 0));
+        }
+
+        // Subset of pages does not match saved dimensions and is read as a plain stack
+        final ImagePlus[] subset = IJImageIO.read(file, true, new int[]{0, 1, 2});
+        assertEquals(1, subset.length);
+        assertFalse(subset[0] instanceof CompositeImage);
+        assertEquals(3, subset[0].getStackSize());
+        assertEquals(1, subset[0].getNChannels());
+    }
+
+
+    @Test
+    public void testReadHyperstackSubset() throws Exception {
+        final File file = new File("tmp", "hyperstack_subset_test.tif");
+        file.getParentFile().mkdirs();
+        final ImagePlus imp = IJ.createHyperStack("hyperstack", 16, 8, 2, 3, 4, 16);
+        final ImageStack stack = imp.getStack();
+        for (int i = 1; i <= stack.getSize(); i++) {
+            stack.getProcessor(i).set(i);
+        }
+        imp.getCalibration().pixelWidth = 0.5;
+        IJImageIO.writeAsTiff(imp, file);
+
+        final DescriptionStringCoder.Dimensions dims = IJImageIO.readDimensions(file);
+        assertNotNull(dims);
+        assertEquals(24, dims.nImages);
+        assertEquals(2, dims.nChannels);
+        assertEquals(3, dims.nSlices);
+        assertEquals(4, dims.nFrames);
+
+        // Second channel of frames 2 and 3
+        final ImagePlus actual = IJImageIO.readHyperstack(file, new int[]{2}, null, new int[]{2, 3});
+        assertEquals(6, actual.getStackSize());
+        assertEquals(1, actual.getNChannels());
+        assertEquals(3, actual.getNSlices());
+        assertEquals(2, actual.getNFrames());
+        assertTrue(actual.isHyperStack());
+        assertEquals(0.5, actual.getCalibration().pixelWidth, 1e-6);
+        for (int z = 1; z <= 3; z++) {
+            for (int t = 1; t <= 2; t++) {
+                final int expected = imp.getStackIndex(2, z, t + 1);
+                assertEquals(expected, actual.getStack().getProcessor(actual.getStackIndex(1, z, t)).get(0, 0));
+            }
+        }
+
+        // Both channels of a single slice
+        final ImagePlus channels = IJImageIO.readHyperstack(file, null, new int[]{3}, null);
+        assertTrue(channels instanceof CompositeImage);
+        assertEquals(2, channels.getNChannels());
+        assertEquals(1, channels.getNSlices());
+        assertEquals(4, channels.getNFrames());
+        assertEquals(imp.getStackIndex(2, 3, 4),
+                channels.getStack().getProcessor(channels.getStackIndex(2, 1, 4)).get(0, 0));
+
+        try {
+            IJImageIO.readHyperstack(file, new int[]{3}, null, null);
+            fail("Expecting IllegalArgumentException for channel out of range.");
+        } catch (final IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+
     private void verifyEqual(final ImagePlus expected, final ImagePlus actual) {
         if (expected == actual) {
             return;
@@ -0,0 +1,80 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import ij.measure.ResultsTable;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Jarek Sacha
+ */
+public class ImageCatalogTest {
+
+    @Test
+    public void testScan() throws Exception {
+        final File inputDir = new File("test/data");
+        final List<File> input = Arrays.asList(
+                new File(inputDir, "blobs.png"),
+                new File(inputDir, "mri-stack.tif"),
+                new File(inputDir, "does-not-exist.png"));
+
+        final List<ImageCatalog.Entry> entries = ImageCatalog.scan(input, 2, null);
+        assertEquals(3, entries.size());
+
+        final ImageCatalog.Entry blobs = entries.get(0);
+        assertNull(blobs.error);
+        assertEquals(input.get(0), blobs.file);
+        assertEquals(256, blobs.width);
+        assertEquals(254, blobs.height);
+        assertEquals(1, blobs.numberOfPages);
+
+        final ImageCatalog.Entry mri = entries.get(1);
+        assertNull(mri.error);
+        assertEquals(186, mri.width);
+        assertEquals(226, mri.height);
+        assertEquals(27, mri.numberOfPages);
+        assertEquals(8, mri.bitsPerPixel);
+        assertEquals("byte", mri.dataType);
+        assertNotNull(mri.format);
+
+        assertNotNull(entries.get(2).error);
+
+        final ResultsTable rt = ImageCatalog.toResultsTable(entries);
+        assertEquals(3, rt.size());
+        assertEquals(27, rt.getValue("Pages", 1), 0);
+
+        final StringWriter csv = new StringWriter();
+        ImageCatalog.writeCSV(entries, csv);
+        final String[] lines = csv.toString().split("\n");
+        assertEquals(4, lines.length);
+        assertTrue(lines[0].startsWith("File,"));
+        assertTrue(lines[2].contains(",27,186,226,"));
+    }
+}
@@ -0,0 +1,260 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import ij.CompositeImage;
+import ij.IJ;
+import ij.ImagePlus;
+import ij.ImageStack;
+import ij.process.ImageProcessor;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.plugins.tiff.BaselineTIFFTagSet;
+import javax.imageio.plugins.tiff.TIFFDirectory;
+import javax.imageio.plugins.tiff.TIFFField;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Jarek Sacha
+ */
+public final class RawTIFFReaderTest {
+
+    @After
+    public void tearDown() {
+        IJImageIO.setDirectTIFFReading(true);
+    }
+
+
+    @Test
+    public void testUncompressed() throws Exception {
+        for (final int bitDepth : new int[]{8, 16, 32}) {
+            final File file = new File("tmp", "raw_tiff_" + bitDepth + ".tif");
+            file.getParentFile().mkdirs();
+            final ImagePlus imp = IJ.createImage("raw", bitDepth + "-bit ramp", 67, 45, 3);
+            imp.getStack().getProcessor(2).invert();
+            imp.getCalibration().pixelWidth = 0.25;
+            imp.getCalibration().pixelHeight = 0.5;
+            imp.getCalibration().setUnit("mm");
+            IJImageIO.writeAsTiff(imp, file, "");
+
+            assertSameAsImageIO(file);
+        }
+    }
+
+
+    @Test
+    public void testImageJHyperstack() throws Exception {
+        // Written by ImageJ, uncompressed with hyperstack dimensions in the description
+        final File file = new File("tmp", "raw_tiff_hyperstack.tif");
+        file.getParentFile().mkdirs();
+        final ImagePlus imp = IJ.createHyperStack("hyperstack", 16, 8, 2, 3, 1, 16);
+        final ImageStack stack = imp.getStack();
+        for (int i = 1; i <= stack.getSize(); i++) {
+            stack.getProcessor(i).set(i * 100);
+        }
+        IJ.saveAsTiff(imp, file.getPath());
+
+        final ImagePlus actual = assertSameAsImageIO(file);
+        assertTrue(actual instanceof CompositeImage);
+        assertEquals(2, actual.getNChannels());
+        assertEquals(3, actual.getNSlices());
+
+        final ImagePlus subset = IJImageIO.readHyperstack(file, new int[]{2}, null, null);
+        assertEquals(3, subset.getStackSize());
+        for (int z = 1; z <= 3; z++) {
+            assertEquals(((z - 1) * 2 + 2) * 100, subset.getStack().getProcessor(z).get(0, 0));
+        }
+    }
+
+
+    @Test
+    public void testMRIStack() throws Exception {
+        final ImagePlus actual = assertSameAsImageIO(new File("test/data/mri-stack.tif"));
+        assertEquals(27, actual.getStackSize());
+    }
+
+
+    @Test
+    public void testCompressed() throws Exception {
+        // Large enough for strips to be decoded concurrently
+        for (final String compression : new String[]{"LZW", "ZLib", "Deflate", "PackBits"}) {
+            for (final int bitDepth : new int[]{8, 16, 32}) {
+                final File file = new File("tmp", "raw_tiff_" + compression + "_" + bitDepth + ".tif");
+                file.getParentFile().mkdirs();
+                final ImagePlus imp = IJ.createImage("raw", bitDepth + "-bit ramp", 1031, 517, 2);
+                imp.getStack().getProcessor(2).noise(100);
+                IJImageIO.writeAsTiff(imp, file, compression);
+
+                assertSameAsImageIO(file);
+            }
+        }
+    }
+
+
+    @Test
+    public void testTiledWithPredictor() throws Exception {
+        for (final int bitDepth : new int[]{8, 16}) {
+            final File file = new File("tmp", "raw_tiff_tiled_" + bitDepth + ".tif");
+            file.getParentFile().mkdirs();
+            final ImagePlus imp = IJ.createImage("raw", bitDepth + "-bit ramp", 1001, 1203, 1);
+            imp.getProcessor().noise(50);
+
+            final TIFFDirectory dir = TIFFDirectory.createFromMetadata(TiffMetaDataFactory.createFrom(imp));
+            dir.addTIFFField(new TIFFField(BaselineTIFFTagSet.getInstance().getTag(BaselineTIFFTagSet.TAG_PREDICTOR),
+                    BaselineTIFFTagSet.PREDICTOR_HORIZONTAL_DIFFERENCING));
+            final ImageWriter writer = IJImageIO.getTIFFWriter();
+            final ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionType("LZW");
+            param.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setTiling(128, 96, 0, 0);
+            IJImageIO.write(BufferedImageFactory.createFrom(imp), file, writer, dir.getAsMetadata(), param);
+
+            assertSameAsImageIO(file);
+        }
+    }
+
+
+    @Test
+    public void testPackBitsWithPredictorNotSupported() throws Exception {
+        final File file = new File("tmp", "raw_tiff_packbits_predictor.tif");
+        file.getParentFile().mkdirs();
+        final ImagePlus imp = IJ.createImage("raw", "8-bit ramp", 64, 48, 1);
+
+        // ImageIO ignores the predictor with PackBits compression
+        final TIFFDirectory dir = TIFFDirectory.createFromMetadata(TiffMetaDataFactory.createFrom(imp));
+        dir.addTIFFField(new TIFFField(BaselineTIFFTagSet.getInstance().getTag(BaselineTIFFTagSet.TAG_PREDICTOR),
+                BaselineTIFFTagSet.PREDICTOR_HORIZONTAL_DIFFERENCING));
+        final ImageWriter writer = IJImageIO.getTIFFWriter();
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionType("PackBits");
+        IJImageIO.write(BufferedImageFactory.createFrom(imp), file, writer, dir.getAsMetadata(), param);
+
+        assertFalse(RawTIFFReader.read(file, null, IJImageIO.MetadataPolicy.CALIBRATION,
+                ReadLimits.DEFAULT, new ArrayList<>(), new ArrayList<>()));
+        final ImagePlus[] imps = IJImageIO.read(file);
+        assertEquals(1, imps.length);
+        assertEquals(64, imps[0].getWidth());
+    }
+
+
+    @Test
+    public void testCorruptedByteCounts() throws Exception {
+        final File file = new File("tmp", "raw_tiff_corrupted.tif");
+        file.getParentFile().mkdirs();
+        final ImagePlus imp = IJ.createImage("raw", "16-bit ramp", 32, 32, 1);
+        IJImageIO.writeAsTiff(imp, file, "LZW");
+
+        // Single strip with byte count far beyond the end of file
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            final ByteBuffer header = ByteBuffer.allocate(8);
+            channel.read(header, 0);
+            header.order(header.get(0) == 'I' ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+            final long ifd = header.getInt(4);
+            final ByteBuffer entries = ByteBuffer.allocate(2 + 12 * 32).order(header.order());
+            channel.read(entries, ifd);
+            boolean found = false;
+            for (int i = 0; i < entries.getShort(0); i++) {
+                final int pos = 2 + 12 * i;
+                if (entries.getShort(pos) == 279) {
+                    assertEquals(1, entries.getInt(pos + 4));
+                    final ByteBuffer value = ByteBuffer.allocate(4).order(header.order()).putInt(0x7FFF0000);
+                    value.flip();
+                    channel.write(value, ifd + pos + 8);
+                    found = true;
+                }
+            }
+            assertTrue(found);
+        }
+
+        assertFalse(RawTIFFReader.read(file, null, IJImageIO.MetadataPolicy.CALIBRATION,
+                ReadLimits.DEFAULT, new ArrayList<>(), new ArrayList<>()));
+    }
+
+
+    @Test
+    public void testJPEGNotSupported() throws Exception {
+        final File file = new File("tmp", "raw_tiff_jpeg.tif");
+        file.getParentFile().mkdirs();
+        final ImagePlus imp = IJ.createImage("raw", "8-bit ramp", 32, 32, 1);
+        IJImageIO.writeAsTiff(imp, file, "JPEG");
+
+        assertFalse(RawTIFFReader.read(file, null, IJImageIO.MetadataPolicy.CALIBRATION,
+                ReadLimits.DEFAULT, new ArrayList<>(), new ArrayList<>()));
+        final ImagePlus[] imps = IJImageIO.read(file);
+        assertEquals(1, imps.length);
+        assertEquals(32, imps[0].getWidth());
+    }
+
+
+    /**
+     * Read file directly and using ImageIO, and assert that results are the same.
+     *
+     * @return image read directly.
+     */
+    private static ImagePlus assertSameAsImageIO(final File file) throws Exception {
+        assertTrue("Direct reading of " + file, RawTIFFReader.read(file, null, IJImageIO.MetadataPolicy.NONE,
+                ReadLimits.DEFAULT, new ArrayList<>(), new ArrayList<>()));
+
+        IJImageIO.setDirectTIFFReading(false);
+        final ImagePlus[] expected = IJImageIO.read(file);
+        IJImageIO.setDirectTIFFReading(true);
+        final ImagePlus[] actual = IJImageIO.read(file);
+
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            final ImagePlus e = expected[i];
+            final ImagePlus a = actual[i];
+            assertEquals(e.getClass(), a.getClass());
+            assertEquals(e.getType(), a.getType());
+            assertEquals(e.getWidth(), a.getWidth());
+            assertEquals(e.getHeight(), a.getHeight());
+            assertEquals(e.getNChannels(), a.getNChannels());
+            assertEquals(e.getNSlices(), a.getNSlices());
+            assertEquals(e.getNFrames(), a.getNFrames());
+            assertEquals(e.getCalibration().pixelWidth, a.getCalibration().pixelWidth, 1e-9);
+            assertEquals(e.getCalibration().pixelHeight, a.getCalibration().pixelHeight, 1e-9);
+            assertEquals(e.getCalibration().getUnit(), a.getCalibration().getUnit());
+            for (int s = 1; s <= e.getStackSize(); s++) {
+                final ImageProcessor ep = e.getStack().getProcessor(s);
+                final ImageProcessor ap = a.getStack().getProcessor(s);
+                for (int p = 0; p < ep.getPixelCount(); p++) {
+                    assertEquals("Slice " + s + ", pixel " + p, ep.getf(p), ap.getf(p), 0);
+                }
+            }
+        }
+        return actual[0];
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import ij.IJ;
+import ij.ImagePlus;
+import ij.process.ImageProcessor;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Jarek Sacha
+ */
+public final class RawTIFFWriterTest {
+
+    @After
+    public void tearDown() {
+        IJImageIO.setDirectTIFFReading(true);
+        IJImageIO.setDirectTIFFWriting(true);
+    }
+
+
+    @Test
+    public void testWrite() throws Exception {
+        // Odd width tests padding of 8-bit and RGB pages
+        for (final String type : new String[]{"8-bit", "16-bit", "32-bit", "RGB"}) {
+            final ImagePlus imp = IJ.createImage("raw", type + " ramp", 101, 67, 3);
+            imp.getStack().getProcessor(2).invert();
+            imp.getCalibration().pixelWidth = 0.25;
+            imp.getCalibration().pixelHeight = 0.5;
+            imp.getCalibration().setUnit("cm");
+            final File file = new File("tmp", "raw_tiff_write_" + type + ".tif");
+            file.getParentFile().mkdirs();
+            IJImageIO.writeAsTiff(imp, file, "");
+
+            // Read using ImageIO, directly, and using ImageJ
+            IJImageIO.setDirectTIFFReading(false);
+            assertSame(type, imp, IJImageIO.read(file));
+            IJImageIO.setDirectTIFFReading(true);
+            assertSame(type, imp, IJImageIO.read(file));
+            assertSame(type, imp, new ImagePlus[]{IJ.openImage(file.getPath())});
+        }
+    }
+
+
+    @Test
+    public void testSameFieldsAsImageIO() throws Exception {
+        final ImagePlus imp = IJ.createImage("raw", "16-bit ramp", 100, 60, 2);
+        imp.getCalibration().pixelWidth = 0.5;
+        imp.getCalibration().setUnit("mm");
+        final File direct = new File("tmp", "raw_tiff_write_direct.tif");
+        final File imageIO = new File("tmp", "raw_tiff_write_imageio.tif");
+        direct.getParentFile().mkdirs();
+        IJImageIO.writeAsTiff(imp, direct, "");
+        IJImageIO.setDirectTIFFWriting(false);
+        IJImageIO.writeAsTiff(imp, imageIO, "");
+
+        // The only differences are in placement of data and byte order
+        assertEquals(imageIO.length(), direct.length(), 64);
+        final String[] expected = readDescriptions(imageIO);
+        final String[] actual = readDescriptions(direct);
+        assertArrayEquals(expected, actual);
+        assertNotNull(actual[0]);
+        assertNull(actual[1]);
+    }
+
+
+    private static void assertSame(final String type, final ImagePlus expected, final ImagePlus[] actual) {
+        assertEquals(type, 1, actual.length);
+        assertEquals(type, expected.getType(), actual[0].getType());
+        assertEquals(expected.getStackSize(), actual[0].getStackSize());
+        assertEquals(0.25, actual[0].getCalibration().pixelWidth, 1e-6);
+        assertEquals(0.5, actual[0].getCalibration().pixelHeight, 1e-6);
+        assertEquals("cm", actual[0].getCalibration().getUnit());
+        for (int s = 1; s <= expected.getStackSize(); s++) {
+            final ImageProcessor e = expected.getStack().getProcessor(s);
+            final ImageProcessor a = actual[0].getStack().getProcessor(s);
+            for (int p = 0; p < e.getPixelCount(); p++) {
+                assertEquals(type + ", slice " + s + ", pixel " + p, e.getf(p), a.getf(p), 0);
+            }
+        }
+    }
+
+
+    /**
+     * @return image description of each page, read using ImageIO.
+     */
+    private static String[] readDescriptions(final File file) throws Exception {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(file)) {
+            final ImageReader reader = ImageIO.getImageReaders(iis).next();
+            try {
+                reader.setInput(iis);
+                final String[] descriptions = new String[reader.getNumImages(true)];
+                for (int i = 0; i < descriptions.length; i++) {
+                    final ImageCalibration calibration = ImageCalibration.from(reader.getImageMetadata(i));
+                    descriptions[i] = calibration != null ? calibration.description : null;
+                }
+                return descriptions;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import ij.ImagePlus;
+import ij.ImageStack;
+import ij.process.ByteProcessor;
+import ij.process.ShortProcessor;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.File;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Jarek Sacha
+ */
+public class ReadLimitsTest {
+
+    @After
+    public void tearDown() {
+        IJImageIO.setReadLimits(null);
+        IJImageIO.setDirectTIFFReading(true);
+    }
+
+
+    @Test
+    public void testMemoryLimitFail() throws Exception {
+        // clown.png is 320x200 RGB, 192,000 bytes when decoded
+        final File file = new File("test/data/clown.png");
+        IJImageIO.setReadLimits(new ReadLimits(100_000, Integer.MAX_VALUE, 0, ReadLimits.Policy.FAIL));
+        try {
+            IJImageIO.read(file);
+            fail("Expecting IJImageIOLimitException");
+        } catch (final IJImageIOLimitException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("clown.png"));
+        }
+
+        IJImageIO.setReadLimits(new ReadLimits(200_000, Integer.MAX_VALUE, 0, ReadLimits.Policy.FAIL));
+        final ImagePlus[] imps = IJImageIO.read(file);
+        assertEquals(320, imps[0].getWidth());
+    }
+
+
+    @Test
+    public void testMemoryLimitSubsample() throws Exception {
+        final File file = new File("test/data/clown.png");
+        final ImagePlus full = IJImageIO.read(file)[0];
+
+        IJImageIO.setReadLimits(new ReadLimits(100_000, Integer.MAX_VALUE, 0, ReadLimits.Policy.SUBSAMPLE));
+        final ImagePlus imp = IJImageIO.read(file)[0];
+
+        assertEquals(160, imp.getWidth());
+        assertEquals(100, imp.getHeight());
+        assertEquals(2 * full.getCalibration().pixelWidth, imp.getCalibration().pixelWidth, 1e-9);
+        assertEquals(2 * full.getCalibration().pixelHeight, imp.getCalibration().pixelHeight, 1e-9);
+        assertEquals(full.getProcessor().getPixel(2, 2), imp.getProcessor().getPixel(1, 1));
+    }
+
+
+    @Test
+    public void testPageLimit() throws Exception {
+        final File file = new File("test/data/mri-stack.tif");
+        IJImageIO.setReadLimits(new ReadLimits(0, 5, 0, ReadLimits.Policy.FAIL));
+        try {
+            IJImageIO.read(file);
+            fail("Expecting IJImageIOLimitException");
+        } catch (final IJImageIOLimitException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("pages"));
+        }
+
+        // Selected pages are within the limit
+        final ImagePlus[] imps = IJImageIO.read(file, true, new int[]{0, 1, 2});
+        assertEquals(3, imps[0].getStackSize());
+    }
+
+
+    @Test
+    public void testPageLimitDirectReading() throws Exception {
+        final ImageStack stack = new ImageStack(1, 1);
+        for (int i = 0; i < 2000; i++) {
+            stack.addSlice(new ByteProcessor(1, 1));
+        }
+        final File file = new File("tmp", "page_limit_direct_test.tif");
+        file.getParentFile().mkdirs();
+        IJImageIO.writeAsTiff(new ImagePlus("pages", stack), file);
+
+        IJImageIO.setDirectTIFFReading(true);
+        IJImageIO.setReadLimits(new ReadLimits(0, 10, 0, ReadLimits.Policy.FAIL));
+        try {
+            IJImageIO.read(file);
+            fail("Expecting IJImageIOLimitException");
+        } catch (final IJImageIOLimitException e) {
+            // Directories are not located past the limit
+            assertTrue(e.getMessage(), e.getMessage().contains("more than 10 pages"));
+        }
+
+        final ImagePlus[] imps = IJImageIO.read(file, true, new int[]{0, 5, 9});
+        assertEquals(3, imps[0].getStackSize());
+    }
+
+
+    @Test
+    public void testCountPages() throws Exception {
+        final File file = new File("test/data/mri-stack.tif");
+        final ImageReader reader = ImageIO.getImageReadersByFormatName("tiff").next();
+        try (ImageInputStream iis = ImageIO.createImageInputStream(file)) {
+            reader.setInput(iis);
+            try {
+                ReadAdmission.countPages(reader, file, new ReadLimits(0, 5, 0, ReadLimits.Policy.FAIL),
+                        System.nanoTime());
+                fail("Expecting IJImageIOLimitException");
+            } catch (final IJImageIOLimitException e) {
+                assertTrue(e.getMessage(), e.getMessage().contains("pages"));
+            }
+            // File was not searched to the end
+            assertEquals(-1, reader.getNumImages(false));
+
+            assertEquals(27, ReadAdmission.countPages(reader, file,
+                    new ReadLimits(0, 27, 0, ReadLimits.Policy.FAIL), System.nanoTime()));
+        } finally {
+            reader.dispose();
+        }
+    }
+
+
+    @Test
+    public void testTimeLimit() throws Exception {
+        final int size = 4096;
+        final ShortProcessor ip = new ShortProcessor(size, size);
+        for (int i = 0; i < size * size; i++) {
+            ip.set(i, (i * 31) ^ (i >> 7));
+        }
+        final File file = new File("tmp", "read_limits_time.tif");
+        file.getParentFile().mkdirs();
+        IJImageIO.writeAsTiff(new ImagePlus("", ip), file, "LZW");
+
+        IJImageIO.setReadLimits(new ReadLimits(0, Integer.MAX_VALUE, 1, ReadLimits.Policy.FAIL));
+        try {
+            IJImageIO.read(file);
+            fail("Expecting IJImageIOLimitException");
+        } catch (final IJImageIOLimitException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("time limit"));
+        }
+    }
+
+
+    @Test(timeout = 10_000)
+    public void testReservationReleased() throws Exception {
+        // Consecutive reads each use most of the budget, they succeed only when memory is released after a read
+        IJImageIO.setReadLimits(new ReadLimits(200_000, Integer.MAX_VALUE, 0, ReadLimits.Policy.FAIL));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(1, IJImageIO.read(new File("test/data/clown.png")).length);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ *  IJ-Plugins ImageIO
+ *  Copyright (C) 2002-2026 Jarek Sacha
+ *  Author's email: jpsacha at gmail dot com
+ *
+ *  This library is free software; you can redistribute it and/or
+ *  modify it under the terms of the GNU Lesser General Public
+ *  License as published by the Free Software Foundation; either
+ *  version 2.1 of the License, or (at your option) any later version.
+ *
+ *  This library is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ *  Lesser General Public License for more details.
+ *
+ *  You should have received a copy of the GNU Lesser General Public
+ *  License along with this library; if not, write to the Free Software
+ *  Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ *
+ *  Latest release available at https://github.com/ij-plugins/ijp-imageio/
+ */
+
+package ij_plugins.imageio;
+
+import ij.IJ;
+import ij.ImagePlus;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import java.awt.Rectangle;
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Jarek Sacha
+ */
+public final class RegionReaderTest {
+
+    @After
+    public void tearDown() {
+        IJImageIO.setRegionReadingThreads(0);
+        IJImageIO.setProgressSink(null);
+    }
+
+
+    @Test
+    public void testRegions() {
+        final int width = 1000;
+        final int height = 700;
+        for (final boolean splitColumns : new boolean[]{true, false}) {
+            final List<Rectangle> regions = RegionReader.regions(width, height, 128, 64, 16, splitColumns);
+            assertTrue(regions.size() > 1);
+            long area = 0;
+            for (int i = 0; i < regions.size(); i++) {
+                final Rectangle r = regions.get(i);
+                assertEquals(0, r.x % 128);
+                assertEquals(0, r.y % 64);
+                assertTrue(new Rectangle(width, height).contains(r));
+                if (!splitColumns) {
+                    assertEquals(width, r.width);
+                }
+                for (int j = 0; j < i; j++) {
+                    assertFalse(r.intersects(regions.get(j)));
+                }
+                area += (long) r.width * r.height;
+            }
+            assertEquals((long) width * height, area);
+        }
+    }
+
+
+    @Test
+    public void testTiledTIFF() throws Exception {
+        final ImagePlus imp = IJ.createImage("tiled", "RGB noise", 2048, 2048, 1);
+        final File file = new File("tmp", "region_reader_tiled.tif");
+        file.getParentFile().mkdirs();
+        final ImageWriter writer = IJImageIO.getTIFFWriter();
+        final ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionType("LZW");
+        param.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setTiling(256, 256, 0, 0);
+        IJImageIO.write(BufferedImageFactory.createFrom(imp), file, writer, null, param);
+
+        assertSameAsSingleThread(file, imp);
+    }
+
+
+    @Test
+    public void testStrips() throws Exception {
+        final ImagePlus imp = IJ.createImage("strips", "RGB noise", 2051, 2049, 1);
+        final File file = new File("tmp", "region_reader_strips.tif");
+        file.getParentFile().mkdirs();
+        IJImageIO.writeAsTiff(imp, file, "LZW");
+
+        assertSameAsSingleThread(file, imp);
+    }
+
+
+    @Test
+    public void testCancel() throws Exception {
+        final ImagePlus imp = IJ.createImage("cancel", "RGB noise", 2051, 2049, 1);
+        final File file = new File("tmp", "region_reader_cancel.tif");
+        file.getParentFile().mkdirs();
+        IJImageIO.writeAsTiff(imp, file, "LZW");
+
+        // Cancel as soon as decoding of regions reports progress
+        final AtomicBoolean started = new AtomicBoolean();
+        IJImageIO.setProgressSink(new ProgressSink() {
+            @Override
+            public void update(final Progress progress) {
+                if (progress.fraction > 0) {
+                    started.set(true);
+                }
+            }
+
+            @Override
+            public void finished(final Progress progress) {
+            }
+
+            @Override
+            public boolean isCancelRequested() {
+                return started.get();
+            }
+        });
+        IJImageIO.setRegionReadingThreads(3);
+        try {
+            IJImageIO.read(file);
+            fail("Expecting IJImageIOCancelledException.");
+        } catch (final IJImageIOCancelledException e) {
+            assertTrue(started.get());
+        }
+    }
+
+
+    private static void assertSameAsSingleThread(final File file, final ImagePlus expected) throws Exception {
+        IJImageIO.setRegionReadingThreads(0);
+        final ImagePlus[] single = IJImageIO.read(file);
+        IJImageIO.setRegionReadingThreads(3);
+        final ImagePlus[] parallel = IJImageIO.read(file);
+
+        assertEquals(1, single.length);
+        assertEquals(1, parallel.length);
+        final int[] e = (int[]) expected.getProcessor().getPixels();
+        final int[] s = (int[]) single[0].getProcessor().getPixels();
+        final int[] p = (int[]) parallel[0].getProcessor().getPixels();
+        for (int i = 0; i < e.length; i++) {
+            assertEquals("Pixel " + i, e[i] & 0xFFFFFF, s[i] & 0xFFFFFF);
+            assertEquals("Pixel " + i, e[i] & 0xFFFFFF, p[i] & 0xFFFFFF);
+        }
+    }
+}